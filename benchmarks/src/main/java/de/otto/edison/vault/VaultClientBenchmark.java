@@ -0,0 +1,76 @@
+package de.otto.edison.vault;
+
+import static de.otto.edison.vault.VaultClient.vaultClient;
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.otto.edison.vault.testsupport.LocalVaultServer;
+
+/**
+ * Latency of {@link VaultClient#readFields} against a {@link LocalVaultServer}. Add {@code -prof gc} to the jmh
+ * options to see the allocation rate per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultClientBenchmark {
+
+    private static final int BATCH_SIZE = 16;
+
+    private LocalVaultServer server;
+    private VaultClient client;
+    private List<String> keys;
+
+    @Setup
+    public void startServer() throws IOException {
+        final Map<String, String> secret = new HashMap<>();
+        secret.put("value", "someValue");
+        secret.put("username", "someUser");
+        secret.put("password", "somePassword");
+        server = localVaultServer().withSecret("secret/path", secret);
+        keys = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            keys.add("path" + i);
+            server.withSecret("secret/path" + i, secret);
+        }
+        server.start();
+        client = vaultClient(server.getBaseUrl(), "/secret", "benchmarkToken");
+    }
+
+    @TearDown
+    public void stopServer() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Map<String, String> readFields() {
+        return client.readFields("path");
+    }
+
+    @Benchmark
+    public Map<String, Map<String, String>> readFieldsOfBatch() {
+        return client.readFields(keys, 8);
+    }
+}
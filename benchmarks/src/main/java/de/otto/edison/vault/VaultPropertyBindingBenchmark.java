@@ -0,0 +1,160 @@
+package de.otto.edison.vault;
+
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.StandardEnvironment;
+
+import de.otto.edison.vault.testsupport.LocalVaultServer;
+
+/**
+ * Binds configuration properties beans the way Spring Boot does at startup. Relaxed binding probes many property names
+ * that no source knows, and all of them end up at the vault property source, which is the last one. With
+ * source=map, the vault properties are copied into a plain {@link MapPropertySource} for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultPropertyBindingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int beanCount;
+
+    @Param({"index", "map"})
+    public String source;
+
+    private LocalVaultServer server;
+    private Path tokenFile;
+    private VaultPropertySource vaultPropertySource;
+    private EnumerablePropertySource<?> lastPropertySource;
+    private MutablePropertySources propertySources;
+
+    @Setup
+    public void createPropertySources() throws IOException {
+        final Map<String, String> secret = new HashMap<>();
+        secret.put("username", "someUser");
+        secret.put("password", "somePassword");
+        server = localVaultServer();
+        tokenFile = Files.createTempFile("vault-token", null);
+        Files.write(tokenFile, "benchmarkToken".getBytes(StandardCharsets.UTF_8));
+        final List<String> properties = new ArrayList<>();
+        for (int i = 0; i < beanCount; i++) {
+            server.withSecret("secret/service" + i + "/credentials", secret);
+            properties.add("service" + i + ".credentials.username");
+            properties.add("service" + i + ".credentials.password");
+        }
+        server.start();
+
+        final Map<String, Object> vaultConfig = new HashMap<>();
+        vaultConfig.put("edison.vault.enabled", "true");
+        vaultConfig.put("edison.vault.base-url", server.getBaseUrl());
+        vaultConfig.put("edison.vault.secret-path", "/secret");
+        vaultConfig.put("edison.vault.token-source", "file");
+        vaultConfig.put("edison.vault.file-token", tokenFile.toString());
+        vaultConfig.put("edison.vault.properties", String.join(",", properties));
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("vaultConfig", vaultConfig));
+        vaultPropertySource = new VaultPropertySource("vaultPropertySource", new ConfigProperties(environment));
+        lastPropertySource = "index".equals(source)
+                ? vaultPropertySource
+                : new MapPropertySource("vaultPropertySource", new HashMap<>(vaultPropertySource.getSource()));
+        environment.getPropertySources().addLast(lastPropertySource);
+        propertySources = environment.getPropertySources();
+    }
+
+    @TearDown
+    public void stopServer() throws IOException {
+        vaultPropertySource.close();
+        server.close();
+        Files.delete(tokenFile);
+    }
+
+    @Benchmark
+    public List<Credentials> bindCredentials() throws Exception {
+        final List<Credentials> beans = new ArrayList<>(beanCount);
+        for (int i = 0; i < beanCount; i++) {
+            final PropertiesConfigurationFactory<Credentials> factory = new PropertiesConfigurationFactory<>(new Credentials());
+            factory.setPropertySources(propertySources);
+            factory.setTargetName("service" + i + ".credentials");
+            beans.add(factory.getObject());
+        }
+        return beans;
+    }
+
+    @Benchmark
+    public boolean containsMissingProperty() {
+        return lastPropertySource.containsProperty("service0.credentials.missing");
+    }
+
+    @Benchmark
+    public String[] getPropertyNames() {
+        return lastPropertySource.getPropertyNames();
+    }
+
+    public static class Credentials {
+        private String username;
+        private String password;
+        private int connectTimeout;
+        private boolean enabled;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(final String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(final String password) {
+            this.password = password;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(final int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.otto.edison.vault;
+
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import de.otto.edison.vault.testsupport.LocalVaultServer;
+
+/**
+ * Grouping of the configured properties by secret path, and property lookups on a Spring environment that has a
+ * {@link VaultPropertySource} appended after the system properties and the system environment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultPropertySourceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int propertyCount;
+
+    private LocalVaultServer server;
+    private Path tokenFile;
+    private Set<String> properties;
+    private VaultPropertySource vaultPropertySource;
+    private StandardEnvironment environment;
+
+    @Setup
+    public void createEnvironment() throws IOException {
+        final Map<String, String> secret = new HashMap<>();
+        secret.put("value", "someValue");
+        secret.put("username", "someUser");
+        secret.put("password", "somePassword");
+        server = localVaultServer();
+        tokenFile = Files.createTempFile("vault-token", null);
+        Files.write(tokenFile, "benchmarkToken".getBytes(StandardCharsets.UTF_8));
+
+        properties = new LinkedHashSet<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.add("service" + (i / 3) + ".credentials." + (i % 3 == 0 ? "username" : i % 3 == 1 ? "password" : "value"));
+            if (i % 3 == 0) {
+                server.withSecret("secret/service" + (i / 3) + "/credentials", secret);
+            }
+        }
+        server.start();
+
+        final Map<String, Object> vaultConfig = new HashMap<>();
+        vaultConfig.put("edison.vault.enabled", "true");
+        vaultConfig.put("edison.vault.base-url", server.getBaseUrl());
+        vaultConfig.put("edison.vault.secret-path", "/secret");
+        vaultConfig.put("edison.vault.token-source", "file");
+        vaultConfig.put("edison.vault.file-token", tokenFile.toString());
+        vaultConfig.put("edison.vault.properties", String.join(",", properties));
+        environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("vaultConfig", vaultConfig));
+
+        vaultPropertySource = new VaultPropertySource("vaultPropertySource", new ConfigProperties(environment));
+        environment.getPropertySources().addLast(vaultPropertySource);
+    }
+
+    @TearDown
+    public void stopServer() throws IOException {
+        vaultPropertySource.close();
+        server.close();
+        Files.delete(tokenFile);
+    }
+
+    @Benchmark
+    public Map<String, List<VaultPropertySource.VaultFieldInfo>> groupBySecretPath() {
+        return VaultPropertySource.groupBySecretPath(properties);
+    }
+
+    @Benchmark
+    public String getVaultProperty() {
+        return environment.getProperty("service0.credentials.password");
+    }
+
+    @Benchmark
+    public String getMissingProperty() {
+        return environment.getProperty("service0.credentials.missing");
+    }
+}
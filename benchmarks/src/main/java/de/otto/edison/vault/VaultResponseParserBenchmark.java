@@ -0,0 +1,78 @@
+package de.otto.edison.vault;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+
+/**
+ * Compares the streaming {@link VaultResponseParser} with the former way of reading a secret, which turned the whole
+ * response body into a string and then into a map.
+ * <p>
+ * The payload is a secret with a username, a password and a keystore that makes up the rest of the payload size.
+ * Run with {@code ./gradlew :benchmarks:jmh -Pbenchmarks="VaultResponseParserBenchmark -prof gc"} to see the
+ * allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VaultResponseParserBenchmark {
+
+    private static final Set<String> CREDENTIALS = new HashSet<>(Arrays.asList("username", "password"));
+
+    @Param({"1024", "102400", "1048576"})
+    public int payloadSize;
+
+    private byte[] body;
+
+    @Setup
+    public void createBody() {
+        final String head = "{\"lease_id\":\"\",\"renewable\":false,\"lease_duration\":2592000,\"data\":{" +
+                "\"username\":\"someUser\",\"password\":\"somePassword\",\"keystore\":\"";
+        final String tail = "\"},\"auth\":null}";
+        final StringBuilder json = new StringBuilder(payloadSize).append(head);
+        final String base64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; json.length() < payloadSize - tail.length(); i++) {
+            json.append(base64.charAt(i % base64.length()));
+        }
+        body = json.append(tail).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, String> gsonMap() {
+        final Map<String, Object> responseMap = new Gson().fromJson(new String(body, StandardCharsets.UTF_8), Map.class);
+        return (Map<String, String>) responseMap.get("data");
+    }
+
+    @Benchmark
+    public Map<String, String> streamingAllFields() throws IOException {
+        return VaultResponseParser.parseSecret(new ByteArrayInputStream(body), null).getFields();
+    }
+
+    @Benchmark
+    public Map<String, String> streamingSelectedFields() throws IOException {
+        return VaultResponseParser.parseSecret(new ByteArrayInputStream(body), CREDENTIALS).getFields();
+    }
+}
@@ -0,0 +1,115 @@
+package de.otto.edison.vault;
+
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import de.otto.edison.vault.testsupport.LocalVaultServer;
+
+/**
+ * Cold start of a {@link VaultPropertySource} that reads a dozen secrets, with the AsyncHttpClient and with the JDK
+ * transport. Every fork starts a fresh JVM and measures a single start, including class loading and the start of the
+ * http client. The resident set size of the forked JVM after the start is printed as a "# rss" line; it includes the
+ * local vault server and JMH itself, so only the difference between the transports is meaningful. It is read from
+ * /proc/self/status and only printed on Linux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class VaultTransportStartupBenchmark {
+
+    private static final int SECRET_COUNT = 12;
+
+    @Param({VaultTransport.ASYNC_HTTP_CLIENT, VaultTransport.JDK})
+    public String transport;
+
+    private LocalVaultServer server;
+    private Path tokenFile;
+    private ConfigProperties configProperties;
+    private VaultPropertySource vaultPropertySource;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        final Map<String, String> secret = new HashMap<>();
+        secret.put("username", "someUser");
+        secret.put("password", "somePassword");
+        server = localVaultServer();
+        final List<String> properties = new ArrayList<>();
+        for (int i = 0; i < SECRET_COUNT; i++) {
+            server.withSecret("secret/service" + i, secret);
+            properties.add("service" + i + ".username");
+            properties.add("service" + i + ".password");
+        }
+        server.start();
+        tokenFile = Files.createTempFile("vault-token", null);
+        Files.write(tokenFile, "benchmarkToken".getBytes(StandardCharsets.UTF_8));
+
+        final Map<String, Object> vaultConfig = new HashMap<>();
+        vaultConfig.put("edison.vault.enabled", "true");
+        vaultConfig.put("edison.vault.base-url", server.getBaseUrl());
+        vaultConfig.put("edison.vault.secret-path", "/secret");
+        vaultConfig.put("edison.vault.token-source", "file");
+        vaultConfig.put("edison.vault.file-token", tokenFile.toString());
+        vaultConfig.put("edison.vault.properties", String.join(",", properties));
+        vaultConfig.put("edison.vault.http.transport", transport);
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("vaultConfig", vaultConfig));
+        configProperties = new ConfigProperties(environment);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        printResidentSetSize();
+        vaultPropertySource.close();
+        server.close();
+        Files.delete(tokenFile);
+    }
+
+    @Benchmark
+    public VaultPropertySource startPropertySource() {
+        vaultPropertySource = new VaultPropertySource("vaultPropertySource", configProperties);
+        return vaultPropertySource;
+    }
+
+    private void printResidentSetSize() throws IOException {
+        final Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return;
+        }
+        final StringBuilder rss = new StringBuilder("# rss ").append(transport).append(':');
+        for (final String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+            if (line.startsWith("VmRSS:") || line.startsWith("VmHWM:")) {
+                rss.append(' ').append(line.replaceAll("\\s+", " "));
+            }
+        }
+        System.out.println(rss);
+    }
+}
@@ -0,0 +1,89 @@
+package de.otto.edison.vault;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Records vault metrics in a Dropwizard {@link MetricRegistry}:
+ * <ul>
+ * <li>{@code <prefix>.login.success} and {@code <prefix>.login.failure}: timers of logins</li>
+ * <li>{@code <prefix>.read.path.<path>}: timer of the reads of a secret path, slashes are replaced by dots</li>
+ * <li>{@code <prefix>.read.status.<code>}: counter of responses by http status, 0 if no response was received</li>
+ * <li>{@code <prefix>.read.response-size}: histogram of response sizes in bytes</li>
+ * <li>{@code <prefix>.retry.<operation>}: counter of retries</li>
+ * <li>{@code <prefix>.read.hedged}: counter of reads that were also sent to a second vault node</li>
+ * <li>{@code <prefix>.property-source.initialization}: timer of the creation of the property source</li>
+ * <li>{@code <prefix>.limiter.queue-time}: timer of the time requests waited for the request limiter</li>
+ * <li>{@code <prefix>.limiter.concurrency-limit}: gauge of the current concurrency limit of the request limiter</li>
+ * </ul>
+ * The gauge is replaced if another instance with the same prefix is created on the same registry.
+ */
+public class DropwizardVaultMetrics implements VaultMetrics {
+
+    private final MetricRegistry registry;
+    private final String prefix;
+    private final AtomicInteger concurrencyLimit = new AtomicInteger();
+
+    public DropwizardVaultMetrics(final MetricRegistry registry) {
+        this(registry, "vault");
+    }
+
+    public DropwizardVaultMetrics(final MetricRegistry registry, final String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+        final String concurrencyLimitName = name(prefix, "limiter", "concurrency-limit");
+        registry.remove(concurrencyLimitName);
+        registry.register(concurrencyLimitName, (Gauge<Integer>) concurrencyLimit::get);
+    }
+
+    @Override
+    public void recordLogin(final boolean success, final long durationNanos) {
+        registry.timer(name(prefix, "login", success ? "success" : "failure"))
+                .update(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRead(final String path, final int statusCode, final long durationNanos) {
+        registry.timer(name(prefix, "read", "path", metricName(path))).update(durationNanos, TimeUnit.NANOSECONDS);
+        registry.counter(name(prefix, "read", "status", Integer.toString(statusCode))).inc();
+    }
+
+    @Override
+    public void recordResponseSize(final String path, final long bytes) {
+        registry.histogram(name(prefix, "read", "response-size")).update(bytes);
+    }
+
+    @Override
+    public void recordRetry(final String operation) {
+        registry.counter(name(prefix, "retry", operation)).inc();
+    }
+
+    @Override
+    public void recordHedgedRead(final String path) {
+        registry.counter(name(prefix, "read", "hedged")).inc();
+    }
+
+    @Override
+    public void recordPropertySourceInitialization(final long durationNanos) {
+        registry.timer(name(prefix, "property-source", "initialization")).update(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLimiterQueueTime(final long durationNanos) {
+        registry.timer(name(prefix, "limiter", "queue-time")).update(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordConcurrencyLimit(final int limit) {
+        concurrencyLimit.set(limit);
+    }
+
+    private static String metricName(final String path) {
+        return path == null || path.isEmpty() ? "root" : path.replace('/', '.');
+    }
+}
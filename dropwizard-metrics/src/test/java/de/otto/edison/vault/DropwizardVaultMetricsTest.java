@@ -0,0 +1,94 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+public class DropwizardVaultMetricsTest {
+
+    private MetricRegistry registry;
+    private DropwizardVaultMetrics testee;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        registry = new MetricRegistry();
+        testee = new DropwizardVaultMetrics(registry);
+    }
+
+    @Test
+    public void shouldRecordReadsPerPathAndStatus() throws Exception {
+        // when
+        testee.recordRead("some/path", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        testee.recordRead("some/path", 503, TimeUnit.MILLISECONDS.toNanos(7));
+        testee.recordRead("", 200, TimeUnit.MILLISECONDS.toNanos(1));
+
+        // then
+        assertThat(registry.timer("vault.read.path.some.path").getCount(), is(2L));
+        assertThat(registry.timer("vault.read.path.root").getCount(), is(1L));
+        assertThat(registry.counter("vault.read.status.200").getCount(), is(2L));
+        assertThat(registry.counter("vault.read.status.503").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRecordLoginsRetriesAndSizes() throws Exception {
+        // when
+        testee.recordLogin(true, 10);
+        testee.recordLogin(false, 20);
+        testee.recordRetry("token-renewal");
+        testee.recordHedgedRead("some/path");
+        testee.recordResponseSize("some/path", 1024);
+        testee.recordPropertySourceInitialization(30);
+
+        // then
+        assertThat(registry.timer("vault.login.success").getCount(), is(1L));
+        assertThat(registry.timer("vault.login.failure").getCount(), is(1L));
+        assertThat(registry.counter("vault.retry.token-renewal").getCount(), is(1L));
+        assertThat(registry.counter("vault.read.hedged").getCount(), is(1L));
+        assertThat(registry.histogram("vault.read.response-size").getSnapshot().getMax(), is(1024L));
+        assertThat(registry.timer("vault.property-source.initialization").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldRecordLimiterQueueTimeAndConcurrencyLimit() throws Exception {
+        // when
+        testee.recordLimiterQueueTime(TimeUnit.MILLISECONDS.toNanos(3));
+        testee.recordConcurrencyLimit(4);
+
+        // then
+        assertThat(registry.timer("vault.limiter.queue-time").getCount(), is(1L));
+        assertThat((Integer) registry.getGauges().get("vault.limiter.concurrency-limit").getValue(), is(4));
+    }
+
+    @Test
+    public void shouldNotMixUpSecretPathsWithOtherReadMetrics() throws Exception {
+        // when
+        testee.recordRead("hedged", 200, 10);
+        testee.recordRead("response-size", 200, 10);
+        testee.recordHedgedRead("hedged");
+        testee.recordResponseSize("response-size", 512);
+
+        // then
+        assertThat(registry.timer("vault.read.path.hedged").getCount(), is(1L));
+        assertThat(registry.timer("vault.read.path.response-size").getCount(), is(1L));
+        assertThat(registry.counter("vault.read.hedged").getCount(), is(1L));
+        assertThat(registry.histogram("vault.read.response-size").getCount(), is(1L));
+    }
+
+    @Test
+    public void shouldReplaceConcurrencyLimitGaugeOfPreviousInstance() throws Exception {
+        // given
+        final DropwizardVaultMetrics other = new DropwizardVaultMetrics(registry);
+
+        // when
+        other.recordConcurrencyLimit(7);
+
+        // then
+        assertThat((Integer) registry.getGauges().get("vault.limiter.concurrency-limit").getValue(), is(7));
+    }
+}
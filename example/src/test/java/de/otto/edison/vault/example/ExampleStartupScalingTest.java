@@ -0,0 +1,167 @@
+package de.otto.edison.vault.example;
+
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import de.otto.edison.vault.testsupport.Latency;
+import de.otto.edison.vault.testsupport.LocalVaultServer;
+import de.otto.edison.vault.testsupport.Route;
+
+/**
+ * Boots the example application against a {@link LocalVaultServer} with a growing number of properties and secret
+ * paths, and fails if the time to ready or the peak heap exceed the budget of the scenario. Run it with
+ * {@code ./gradlew :example:scalingTest}; {@code -Dscaling.budget-factor=2} doubles all budgets, e.g. on slow build
+ * agents.
+ */
+@RunWith(Parameterized.class)
+public class ExampleStartupScalingTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExampleStartupScalingTest.class);
+
+    private static final String TOKEN = "scalingToken";
+    private static final int EXAMPLE_PATHS = 4;
+    private static final double BUDGET_FACTOR = Double.parseDouble(System.getProperty("scaling.budget-factor", "1"));
+
+    private final int propertyCount;
+    private final int pathCount;
+    private final long startupBudgetMillis;
+    private final long heapBudgetMegabytes;
+
+    public ExampleStartupScalingTest(final int propertyCount, final int pathCount, final long startupBudgetMillis,
+                                     final long heapBudgetMegabytes) {
+        this.propertyCount = propertyCount;
+        this.pathCount = pathCount;
+        this.startupBudgetMillis = startupBudgetMillis;
+        this.heapBudgetMegabytes = heapBudgetMegabytes;
+    }
+
+    @Parameters(name = "{0} properties in {1} paths")
+    public static Collection<Object[]> scenarios() {
+        return asList(new Object[][]{
+                {10, 1, 5000, 256},
+                {100, 10, 5000, 256},
+                {1000, 100, 8000, 384},
+                {5000, 500, 15000, 512}
+        });
+    }
+
+    @Test
+    public void shouldStartWithinBudget() throws Exception {
+        // given
+        try (LocalVaultServer server = localVaultServer()
+                .withAppIdLogin("test-app-id", "test-user-id", TOKEN)
+                .withToken(TOKEN, 3600, true)
+                .withLatency(Route.LOGIN, Latency.logNormal(5, 50))
+                .withLatency(Route.READ, Latency.logNormal(5, 50))
+                .withSeed(propertyCount)) {
+            final List<String> properties = exampleSecrets(server);
+            properties.addAll(scalingSecrets(server));
+            server.start();
+            resetPeakHeap();
+
+            // when
+            final long startedAt = System.nanoTime();
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExampleApplication.class)
+                    .web(false)
+                    .run("--edison.vault.base-url=" + server.getBaseUrl(),
+                            "--edison.vault.properties=" + String.join(",", properties))) {
+                final long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                final long peakHeapMegabytes = peakHeap() / (1024 * 1024);
+                final long reads = server.getRequestCount(Route.READ);
+                LOG.info("{} properties in {} paths: ready after {} ms, {} reads, {} logins, peak heap {} MB",
+                        propertyCount, pathCount, startupMillis, reads, server.getRequestCount(Route.LOGIN),
+                        peakHeapMegabytes);
+
+                // then
+                assertThat(context.getEnvironment().getProperty("scaling.path0.field0"), is("value0"));
+                assertThat(context.getBean(ExampleBean.class).getOne(), is("1"));
+                assertThat(reads, is((long) pathCount + EXAMPLE_PATHS));
+                assertThat(startupMillis, lessThanOrEqualTo((long) (startupBudgetMillis * BUDGET_FACTOR)));
+                assertThat(peakHeapMegabytes, lessThanOrEqualTo((long) (heapBudgetMegabytes * BUDGET_FACTOR)));
+            }
+        }
+    }
+
+    /**
+     * The secrets that are used by the beans of the example application.
+     */
+    private static List<String> exampleSecrets(final LocalVaultServer server) {
+        server.withSecret("secret/keyOne", fields("value", "secretNumberOne"))
+                .withSecret("secret/keyTwo", fields("value", "secretNumberTwo"))
+                .withSecret("secret/keyThree", fields("value", "secretNumberThree"));
+        final Map<String, String> config = fields("one", "1");
+        config.put("two", "2");
+        config.put("three", "3");
+        server.withSecret("secret/test/config", config);
+        return new ArrayList<>(asList("keyOne.value", "keyTwo.value", "keyThree.value",
+                "test.config.one", "test.config.two", "test.config.three"));
+    }
+
+    /**
+     * Spreads {@code propertyCount} properties {@code scaling.path<p>.field<f>} over {@code pathCount} secrets.
+     */
+    private List<String> scalingSecrets(final LocalVaultServer server) {
+        final List<String> properties = new ArrayList<>();
+        final List<Map<String, String>> secrets = new ArrayList<>();
+        for (int path = 0; path < pathCount; path++) {
+            secrets.add(new HashMap<>());
+        }
+        for (int i = 0; i < propertyCount; i++) {
+            final int path = i % pathCount;
+            final int field = i / pathCount;
+            secrets.get(path).put("field" + field, "value" + field);
+            properties.add("scaling.path" + path + ".field" + field);
+        }
+        for (int path = 0; path < pathCount; path++) {
+            server.withSecret("secret/scaling/path" + path, secrets.get(path));
+        }
+        return properties;
+    }
+
+    private static Map<String, String> fields(final String name, final String value) {
+        final Map<String, String> fields = new HashMap<>();
+        fields.put(name, value);
+        return fields;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long peakHeap() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+        return heapPools;
+    }
+}
@@ -0,0 +1,39 @@
+package de.otto.edison.vault;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+
+/**
+ * Creates the pooled {@link AsyncHttpClient} that is shared by all vault requests of a property source. Redirects are
+ * followed, so requests to a standby vault node reach the active one.
+ * The caller owns the returned client and has to close it.
+ */
+public class AsyncHttpClientFactory {
+
+    static final String THREAD_POOL_NAME = "edison-vault-http";
+
+    private static final int IO_THREADS = 2;
+    private static final int SHUTDOWN_QUIET_PERIOD = 0;
+    private static final int SHUTDOWN_TIMEOUT = 2000;
+
+    private AsyncHttpClientFactory() {
+    }
+
+    public static AsyncHttpClient asyncHttpClient(final ConfigProperties configProperties) {
+        return new DefaultAsyncHttpClient(new DefaultAsyncHttpClientConfig.Builder()
+                .setThreadPoolName(THREAD_POOL_NAME)
+                .setIoThreadsCount(IO_THREADS)
+                .setConnectTimeout(configProperties.getHttpConnectTimeout())
+                .setReadTimeout(configProperties.getHttpReadTimeout())
+                .setRequestTimeout(configProperties.getHttpRequestTimeout())
+                .setMaxConnections(configProperties.getHttpMaxConnections())
+                .setMaxConnectionsPerHost(configProperties.getHttpMaxConnections())
+                .setKeepAlive(configProperties.isHttpKeepAlive())
+                .setFollowRedirect(true)
+                .setPooledConnectionIdleTimeout(configProperties.getHttpPooledConnectionIdleTimeout())
+                .setShutdownQuietPeriod(SHUTDOWN_QUIET_PERIOD)
+                .setShutdownTimeout(SHUTDOWN_TIMEOUT)
+                .build());
+    }
+}
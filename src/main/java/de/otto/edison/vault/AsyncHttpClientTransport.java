@@ -0,0 +1,104 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.Response;
+
+/**
+ * Sends the requests with an {@link AsyncHttpClient}. Closing the transport closes the client.
+ */
+public class AsyncHttpClientTransport implements VaultTransport {
+
+    private final AsyncHttpClient asyncHttpClient;
+
+    public AsyncHttpClientTransport(final AsyncHttpClient asyncHttpClient) {
+        this.asyncHttpClient = asyncHttpClient;
+    }
+
+    /**
+     * Creates a transport with a pooled client, see {@link AsyncHttpClientFactory}.
+     */
+    public static AsyncHttpClientTransport asyncHttpClientTransport(final ConfigProperties configProperties) {
+        return new AsyncHttpClientTransport(AsyncHttpClientFactory.asyncHttpClient(configProperties));
+    }
+
+    @Override
+    public VaultResponse execute(final VaultRequest request) throws ExecutionException, InterruptedException {
+        return new AsyncHttpClientResponse(prepare(request).execute().get());
+    }
+
+    @Override
+    public CompletableFuture<VaultResponse> executeAsync(final VaultRequest request) {
+        try {
+            return prepare(request).execute().toCompletableFuture().thenApply(AsyncHttpClientResponse::new);
+        } catch (RuntimeException e) {
+            final CompletableFuture<VaultResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return asyncHttpClient.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        asyncHttpClient.close();
+    }
+
+    private BoundRequestBuilder prepare(final VaultRequest request) {
+        BoundRequestBuilder builder;
+        switch (request.getMethod()) {
+            case "GET":
+                builder = asyncHttpClient.prepareGet(request.getUrl());
+                break;
+            case "POST":
+                builder = asyncHttpClient.preparePost(request.getUrl());
+                break;
+            case "PUT":
+                builder = asyncHttpClient.preparePut(request.getUrl());
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported http method " + request.getMethod());
+        }
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder = builder.setHeader(header.getKey(), header.getValue());
+        }
+        if (request.getBody() != null) {
+            builder = builder.setBody(request.getBody());
+        }
+        return builder;
+    }
+
+    private static class AsyncHttpClientResponse implements VaultResponse {
+
+        private final Response response;
+
+        AsyncHttpClientResponse(final Response response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getResponseBody() {
+            return response.getResponseBody();
+        }
+
+        @Override
+        public InputStream getResponseBodyAsStream() {
+            return response.getResponseBodyAsStream();
+        }
+    }
+}
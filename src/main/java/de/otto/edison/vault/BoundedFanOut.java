@@ -0,0 +1,87 @@
+package de.otto.edison.vault;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Starts one asynchronous operation per key while keeping at most {@code maxConcurrency} of them in flight.
+ * Completions that happen on the calling thread are trampolined, so large key sets do not grow the stack.
+ */
+class BoundedFanOut<T> {
+
+    private final Queue<String> pendingKeys;
+    private final Map<String, CompletableFuture<T>> results = new LinkedHashMap<>();
+    private final Function<String, CompletableFuture<T>> operation;
+    private final AtomicInteger permits;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private BoundedFanOut(final Collection<String> keys,
+                          final int maxConcurrency,
+                          final Function<String, CompletableFuture<T>> operation) {
+        keys.forEach(key -> results.put(key, new CompletableFuture<>()));
+        this.pendingKeys = new ConcurrentLinkedQueue<>(results.keySet());
+        this.permits = new AtomicInteger(Math.max(1, maxConcurrency));
+        this.operation = operation;
+    }
+
+    static <T> Map<String, CompletableFuture<T>> fanOut(final Collection<String> keys,
+                                                        final int maxConcurrency,
+                                                        final Function<String, CompletableFuture<T>> operation) {
+        final BoundedFanOut<T> fanOut = new BoundedFanOut<>(keys, maxConcurrency, operation);
+        fanOut.drain();
+        return fanOut.results;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (!pendingKeys.isEmpty() && tryAcquire()) {
+                final String key = pendingKeys.poll();
+                if (key == null) {
+                    permits.incrementAndGet();
+                    break;
+                }
+                start(key);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private boolean tryAcquire() {
+        int available;
+        do {
+            available = permits.get();
+            if (available == 0) {
+                return false;
+            }
+        } while (!permits.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private void start(final String key) {
+        final CompletableFuture<T> result = results.get(key);
+        CompletableFuture<T> future;
+        try {
+            future = operation.apply(key);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(value);
+            }
+            permits.incrementAndGet();
+            drain();
+        });
+    }
+}
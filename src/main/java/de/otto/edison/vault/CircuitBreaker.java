@@ -0,0 +1,81 @@
+package de.otto.edison.vault;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fails requests to vault fast while vault is down. After {@code failureThreshold} consecutive transient failures the
+ * breaker opens and rejects all requests for {@code openDurationMillis}. Then it lets requests through again; the
+ * first failure opens it once more, the first success closes it.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoTime;
+
+    private int consecutiveFailures;
+    private boolean open;
+    private long openedAt;
+
+    public CircuitBreaker(final int failureThreshold, final long openDurationMillis) {
+        this(failureThreshold, openDurationMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(final int failureThreshold, final long openDurationMillis, final LongSupplier nanoTime) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return a circuit breaker if it is enabled, otherwise null
+     */
+    public static CircuitBreaker circuitBreaker(final ConfigProperties configProperties) {
+        return configProperties.isCircuitBreakerEnabled()
+                ? new CircuitBreaker(configProperties.getCircuitBreakerFailureThreshold(), configProperties.getCircuitBreakerOpenDuration())
+                : null;
+    }
+
+    /**
+     * @throws RuntimeException if the breaker is open
+     */
+    public void acquire() {
+        if (getState() == State.OPEN) {
+            throw new RuntimeException("vault circuit breaker is open, request is not sent");
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (open) {
+            LOG.info("vault circuit breaker closed");
+        }
+        consecutiveFailures = 0;
+        open = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (open ? getState() == State.HALF_OPEN : consecutiveFailures >= failureThreshold) {
+            LOG.warn("vault circuit breaker opened after {} consecutive failures", consecutiveFailures);
+            open = true;
+            openedAt = nanoTime.getAsLong();
+        }
+    }
+
+    public synchronized State getState() {
+        if (!open) {
+            return State.CLOSED;
+        }
+        return nanoTime.getAsLong() - openedAt < openDurationNanos ? State.OPEN : State.HALF_OPEN;
+    }
+}
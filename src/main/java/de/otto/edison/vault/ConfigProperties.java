@@ -5,13 +5,48 @@ import org.springframework.util.StringUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public class ConfigProperties {
 
+    static final int DEFAULT_MAX_CONCURRENT_READS = 8;
+    static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 5000;
+    static final int DEFAULT_HTTP_READ_TIMEOUT = 10000;
+    static final int DEFAULT_HTTP_REQUEST_TIMEOUT = 30000;
+    static final int DEFAULT_HTTP_MAX_CONNECTIONS = 20;
+    static final int DEFAULT_HTTP_POOLED_CONNECTION_IDLE_TIMEOUT = 60000;
+    static final int DEFAULT_SNAPSHOT_TTL = 300;
+    static final int DEFAULT_REFRESH_INTERVAL = 300;
+    static final int DEFAULT_REFRESH_JITTER = 30;
+    static final int DEFAULT_CACHE_MAX_ENTRIES = 1000;
+    static final int DEFAULT_CACHE_TTL = 60;
+    static final int DEFAULT_RETRY_MAX_ATTEMPTS = 3;
+    static final int DEFAULT_RETRY_INITIAL_BACKOFF = 100;
+    static final int DEFAULT_RETRY_MAX_BACKOFF = 2000;
+    static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    static final int DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 10000;
+    static final int DEFAULT_HEDGE_PERCENTILE = 95;
+    static final int DEFAULT_HEDGE_MIN_DELAY = 20;
+    static final int DEFAULT_DISCOVERY_MAX_DEPTH = 10;
+    static final int DEFAULT_DISCOVERY_MAX_PATHS = 1000;
+    static final int DEFAULT_KV_VERSION = 1;
+    static final int DEFAULT_NODE_CACHE_SLOTS = 1024;
+    static final int DEFAULT_NODE_CACHE_SLOT_SIZE = 4096;
+    static final int DEFAULT_NODE_CACHE_TTL = 300;
+    static final int DEFAULT_TOKEN_WATCH_DEBOUNCE = 500;
+    static final int DEFAULT_LEASE_RENEWAL_TICK = 1000;
+    static final int DEFAULT_LEASE_RENEWAL_WHEEL_SIZE = 512;
+    static final int DEFAULT_TOKEN_CACHE_MIN_TTL = 300;
+    static final int DEFAULT_LIMITER_RATE = 50;
+    static final int DEFAULT_LIMITER_BURST = 20;
+    static final int DEFAULT_LIMITER_INITIAL_CONCURRENCY = 8;
+    static final int DEFAULT_LIMITER_MAX_CONCURRENCY = 64;
+    static final int DEFAULT_LIMITER_LATENCY_THRESHOLD = 500;
+
     private final boolean enabled;
-    private final String baseUrl;
+    private final List<String> baseUrls;
     private final String secretPath;
     private final Set<String> properties;
     private final String tokenSource;
@@ -20,11 +55,66 @@ public class ConfigProperties {
     private final String appId;
     private final String userId;
     private final String defaultVaultToken;
+    private final int maxConcurrentReads;
+    private final int httpConnectTimeout;
+    private final int httpReadTimeout;
+    private final int httpRequestTimeout;
+    private final int httpMaxConnections;
+    private final boolean httpKeepAlive;
+    private final int httpPooledConnectionIdleTimeout;
+    private final boolean snapshotEnabled;
+    private final String snapshotFile;
+    private final int snapshotTtl;
+    private final String snapshotKeyFile;
+    private final boolean refreshEnabled;
+    private final int refreshInterval;
+    private final int refreshJitter;
+    private final boolean tokenRenewalEnabled;
+    private final boolean cacheEnabled;
+    private final int cacheMaxEntries;
+    private final int cacheTtl;
+    private final int retryMaxAttempts;
+    private final int retryInitialBackoff;
+    private final int retryMaxBackoff;
+    private final boolean circuitBreakerEnabled;
+    private final int circuitBreakerFailureThreshold;
+    private final int circuitBreakerOpenDuration;
+    private final boolean hedgeEnabled;
+    private final int hedgePercentile;
+    private final int hedgeMinDelay;
+    private final boolean lazyEnabled;
+    private final boolean discoveryEnabled;
+    private final int discoveryMaxDepth;
+    private final int discoveryMaxPaths;
+    private final int kvVersion;
+    private final boolean nodeCacheEnabled;
+    private final String nodeCacheFile;
+    private final String nodeCacheKeyFile;
+    private final int nodeCacheSlots;
+    private final int nodeCacheSlotSize;
+    private final int nodeCacheTtl;
+    private final boolean tokenWatchEnabled;
+    private final int tokenWatchDebounce;
+    private final boolean leaseRenewalEnabled;
+    private final int leaseRenewalTick;
+    private final int leaseRenewalWheelSize;
+    private final boolean tokenCacheEnabled;
+    private final String tokenCacheFile;
+    private final String tokenCacheKeyFile;
+    private final int tokenCacheMinTtl;
+    private final boolean limiterEnabled;
+    private final int limiterRate;
+    private final int limiterBurst;
+    private final int limiterInitialConcurrency;
+    private final int limiterMaxConcurrency;
+    private final int limiterLatencyThreshold;
+    private final int limiterStartupDelay;
+    private final String httpTransport;
 
     public ConfigProperties(Environment environment) {
         enabled = Boolean.parseBoolean(environment.getProperty("edison.vault.enabled"));
         final String baseUrlProperty = environment.getProperty("edison.vault.base-url");
-        baseUrl = StringUtils.isEmpty(baseUrlProperty) ? getVaultAddrFromEnv() : baseUrlProperty;
+        baseUrls = splitBaseUrls(StringUtils.isEmpty(baseUrlProperty) ? getVaultAddrFromEnv() : baseUrlProperty);
         secretPath = environment.getProperty("edison.vault.secret-path");
         properties = splitVaultPropertyKeys(environment.getProperty("edison.vault.properties"));
         tokenSource = environment.getProperty("edison.vault.token-source");
@@ -34,14 +124,86 @@ public class ConfigProperties {
         userId = environment.getProperty("edison.vault.userid");
         final String homeDir = environment.getProperty("user.home");
         defaultVaultToken = homeDir + "/.vault-token";
+        maxConcurrentReads = parseInt(environment.getProperty("edison.vault.max-concurrent-reads"), DEFAULT_MAX_CONCURRENT_READS);
+        httpConnectTimeout = parseInt(environment.getProperty("edison.vault.http.connect-timeout"), DEFAULT_HTTP_CONNECT_TIMEOUT);
+        httpReadTimeout = parseInt(environment.getProperty("edison.vault.http.read-timeout"), DEFAULT_HTTP_READ_TIMEOUT);
+        httpRequestTimeout = parseInt(environment.getProperty("edison.vault.http.request-timeout"), DEFAULT_HTTP_REQUEST_TIMEOUT);
+        httpMaxConnections = parseInt(environment.getProperty("edison.vault.http.max-connections"), DEFAULT_HTTP_MAX_CONNECTIONS);
+        httpKeepAlive = parseBoolean(environment.getProperty("edison.vault.http.keep-alive"), true);
+        httpPooledConnectionIdleTimeout = parseInt(environment.getProperty("edison.vault.http.pooled-connection-idle-timeout"),
+                DEFAULT_HTTP_POOLED_CONNECTION_IDLE_TIMEOUT);
+        snapshotEnabled = parseBoolean(environment.getProperty("edison.vault.snapshot.enabled"), false);
+        final String snapshotFileProperty = environment.getProperty("edison.vault.snapshot.file");
+        snapshotFile = StringUtils.isEmpty(snapshotFileProperty) ? homeDir + "/.edison-vault-snapshot" : snapshotFileProperty;
+        snapshotTtl = parseInt(environment.getProperty("edison.vault.snapshot.ttl"), DEFAULT_SNAPSHOT_TTL);
+        snapshotKeyFile = environment.getProperty("edison.vault.snapshot.key-file");
+        refreshEnabled = parseBoolean(environment.getProperty("edison.vault.refresh.enabled"), false);
+        refreshInterval = parseInt(environment.getProperty("edison.vault.refresh.interval"), DEFAULT_REFRESH_INTERVAL);
+        refreshJitter = parseInt(environment.getProperty("edison.vault.refresh.jitter"), DEFAULT_REFRESH_JITTER);
+        tokenRenewalEnabled = parseBoolean(environment.getProperty("edison.vault.token-renewal.enabled"), false);
+        cacheEnabled = parseBoolean(environment.getProperty("edison.vault.cache.enabled"), false);
+        cacheMaxEntries = parseInt(environment.getProperty("edison.vault.cache.max-entries"), DEFAULT_CACHE_MAX_ENTRIES);
+        cacheTtl = parseInt(environment.getProperty("edison.vault.cache.ttl"), DEFAULT_CACHE_TTL);
+        retryMaxAttempts = parseInt(environment.getProperty("edison.vault.retry.max-attempts"), DEFAULT_RETRY_MAX_ATTEMPTS);
+        retryInitialBackoff = parseInt(environment.getProperty("edison.vault.retry.initial-backoff"), DEFAULT_RETRY_INITIAL_BACKOFF);
+        retryMaxBackoff = parseInt(environment.getProperty("edison.vault.retry.max-backoff"), DEFAULT_RETRY_MAX_BACKOFF);
+        circuitBreakerEnabled = parseBoolean(environment.getProperty("edison.vault.circuit-breaker.enabled"), false);
+        circuitBreakerFailureThreshold = parseInt(environment.getProperty("edison.vault.circuit-breaker.failure-threshold"),
+                DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+        circuitBreakerOpenDuration = parseInt(environment.getProperty("edison.vault.circuit-breaker.open-duration"),
+                DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION);
+        hedgeEnabled = parseBoolean(environment.getProperty("edison.vault.hedge.enabled"), false);
+        hedgePercentile = parseInt(environment.getProperty("edison.vault.hedge.percentile"), DEFAULT_HEDGE_PERCENTILE);
+        hedgeMinDelay = parseInt(environment.getProperty("edison.vault.hedge.min-delay"), DEFAULT_HEDGE_MIN_DELAY);
+        lazyEnabled = parseBoolean(environment.getProperty("edison.vault.lazy.enabled"), false);
+        discoveryEnabled = parseBoolean(environment.getProperty("edison.vault.discovery.enabled"), false);
+        discoveryMaxDepth = parseInt(environment.getProperty("edison.vault.discovery.max-depth"), DEFAULT_DISCOVERY_MAX_DEPTH);
+        discoveryMaxPaths = parseInt(environment.getProperty("edison.vault.discovery.max-paths"), DEFAULT_DISCOVERY_MAX_PATHS);
+        kvVersion = parseInt(environment.getProperty("edison.vault.kv-version"), DEFAULT_KV_VERSION);
+        nodeCacheEnabled = parseBoolean(environment.getProperty("edison.vault.node-cache.enabled"), false);
+        final String nodeCacheFileProperty = environment.getProperty("edison.vault.node-cache.file");
+        nodeCacheFile = StringUtils.isEmpty(nodeCacheFileProperty) ? homeDir + "/.edison-vault-node-cache" : nodeCacheFileProperty;
+        nodeCacheKeyFile = environment.getProperty("edison.vault.node-cache.key-file");
+        nodeCacheSlots = parseInt(environment.getProperty("edison.vault.node-cache.slots"), DEFAULT_NODE_CACHE_SLOTS);
+        nodeCacheSlotSize = parseInt(environment.getProperty("edison.vault.node-cache.slot-size"), DEFAULT_NODE_CACHE_SLOT_SIZE);
+        nodeCacheTtl = parseInt(environment.getProperty("edison.vault.node-cache.ttl"), DEFAULT_NODE_CACHE_TTL);
+        tokenWatchEnabled = parseBoolean(environment.getProperty("edison.vault.token-watch.enabled"), false);
+        tokenWatchDebounce = parseInt(environment.getProperty("edison.vault.token-watch.debounce"), DEFAULT_TOKEN_WATCH_DEBOUNCE);
+        leaseRenewalEnabled = parseBoolean(environment.getProperty("edison.vault.lease-renewal.enabled"), false);
+        leaseRenewalTick = parseInt(environment.getProperty("edison.vault.lease-renewal.tick"), DEFAULT_LEASE_RENEWAL_TICK);
+        leaseRenewalWheelSize = parseInt(environment.getProperty("edison.vault.lease-renewal.wheel-size"), DEFAULT_LEASE_RENEWAL_WHEEL_SIZE);
+        tokenCacheEnabled = parseBoolean(environment.getProperty("edison.vault.token-cache.enabled"), false);
+        final String tokenCacheFileProperty = environment.getProperty("edison.vault.token-cache.file");
+        tokenCacheFile = StringUtils.isEmpty(tokenCacheFileProperty) ? homeDir + "/.edison-vault-token-cache" : tokenCacheFileProperty;
+        tokenCacheKeyFile = environment.getProperty("edison.vault.token-cache.key-file");
+        tokenCacheMinTtl = parseInt(environment.getProperty("edison.vault.token-cache.min-ttl"), DEFAULT_TOKEN_CACHE_MIN_TTL);
+        limiterEnabled = parseBoolean(environment.getProperty("edison.vault.limiter.enabled"), false);
+        limiterRate = parseInt(environment.getProperty("edison.vault.limiter.rate"), DEFAULT_LIMITER_RATE);
+        limiterBurst = parseInt(environment.getProperty("edison.vault.limiter.burst"), DEFAULT_LIMITER_BURST);
+        limiterInitialConcurrency = parseInt(environment.getProperty("edison.vault.limiter.initial-concurrency"), DEFAULT_LIMITER_INITIAL_CONCURRENCY);
+        limiterMaxConcurrency = parseInt(environment.getProperty("edison.vault.limiter.max-concurrency"), DEFAULT_LIMITER_MAX_CONCURRENCY);
+        limiterLatencyThreshold = parseInt(environment.getProperty("edison.vault.limiter.latency-threshold"), DEFAULT_LIMITER_LATENCY_THRESHOLD);
+        limiterStartupDelay = parseInt(environment.getProperty("edison.vault.limiter.startup-delay"), 0);
+        final String httpTransportProperty = environment.getProperty("edison.vault.http.transport");
+        httpTransport = StringUtils.isEmpty(httpTransportProperty) ? VaultTransport.ASYNC_HTTP_CLIENT : httpTransportProperty.trim();
     }
 
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * @return the first of the configured vault nodes
+     */
     public String getBaseUrl() {
-        return baseUrl;
+        return baseUrls.isEmpty() ? null : baseUrls.get(0);
+    }
+
+    /**
+     * @return all configured vault nodes, in the order of edison.vault.base-url
+     */
+    public List<String> getBaseUrls() {
+        return baseUrls;
     }
 
     public String getSecretPath() {
@@ -76,6 +238,226 @@ public class ConfigProperties {
         return defaultVaultToken;
     }
 
+    public int getMaxConcurrentReads() {
+        return maxConcurrentReads;
+    }
+
+    public int getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    public int getHttpReadTimeout() {
+        return httpReadTimeout;
+    }
+
+    public int getHttpRequestTimeout() {
+        return httpRequestTimeout;
+    }
+
+    public int getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public boolean isHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    public int getHttpPooledConnectionIdleTimeout() {
+        return httpPooledConnectionIdleTimeout;
+    }
+
+    public boolean isSnapshotEnabled() {
+        return snapshotEnabled;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public int getSnapshotTtl() {
+        return snapshotTtl;
+    }
+
+    public String getSnapshotKeyFile() {
+        return snapshotKeyFile;
+    }
+
+    public boolean isRefreshEnabled() {
+        return refreshEnabled;
+    }
+
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public int getRefreshJitter() {
+        return refreshJitter;
+    }
+
+    public boolean isTokenRenewalEnabled() {
+        return tokenRenewalEnabled;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public int getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public int getRetryInitialBackoff() {
+        return retryInitialBackoff;
+    }
+
+    public int getRetryMaxBackoff() {
+        return retryMaxBackoff;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public int getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public int getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public int getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    public boolean isLazyEnabled() {
+        return lazyEnabled;
+    }
+
+    public boolean isDiscoveryEnabled() {
+        return discoveryEnabled;
+    }
+
+    public int getDiscoveryMaxDepth() {
+        return discoveryMaxDepth;
+    }
+
+    public int getDiscoveryMaxPaths() {
+        return discoveryMaxPaths;
+    }
+
+    public int getKvVersion() {
+        return kvVersion;
+    }
+
+    public boolean isNodeCacheEnabled() {
+        return nodeCacheEnabled;
+    }
+
+    public String getNodeCacheFile() {
+        return nodeCacheFile;
+    }
+
+    public String getNodeCacheKeyFile() {
+        return nodeCacheKeyFile;
+    }
+
+    public int getNodeCacheSlots() {
+        return nodeCacheSlots;
+    }
+
+    public int getNodeCacheSlotSize() {
+        return nodeCacheSlotSize;
+    }
+
+    public int getNodeCacheTtl() {
+        return nodeCacheTtl;
+    }
+
+    public boolean isTokenWatchEnabled() {
+        return tokenWatchEnabled;
+    }
+
+    public int getTokenWatchDebounce() {
+        return tokenWatchDebounce;
+    }
+
+    public boolean isLeaseRenewalEnabled() {
+        return leaseRenewalEnabled;
+    }
+
+    public int getLeaseRenewalTick() {
+        return leaseRenewalTick;
+    }
+
+    public int getLeaseRenewalWheelSize() {
+        return leaseRenewalWheelSize;
+    }
+
+    public boolean isTokenCacheEnabled() {
+        return tokenCacheEnabled;
+    }
+
+    public String getTokenCacheFile() {
+        return tokenCacheFile;
+    }
+
+    public String getTokenCacheKeyFile() {
+        return tokenCacheKeyFile;
+    }
+
+    public int getTokenCacheMinTtl() {
+        return tokenCacheMinTtl;
+    }
+
+    public boolean isLimiterEnabled() {
+        return limiterEnabled;
+    }
+
+    public int getLimiterRate() {
+        return limiterRate;
+    }
+
+    public int getLimiterBurst() {
+        return limiterBurst;
+    }
+
+    public int getLimiterInitialConcurrency() {
+        return limiterInitialConcurrency;
+    }
+
+    public int getLimiterMaxConcurrency() {
+        return limiterMaxConcurrency;
+    }
+
+    public int getLimiterLatencyThreshold() {
+        return limiterLatencyThreshold;
+    }
+
+    public int getLimiterStartupDelay() {
+        return limiterStartupDelay;
+    }
+
+    public String getHttpTransport() {
+        return httpTransport;
+    }
+
     private static String getVaultAddrFromEnv() {
         return System.getenv("VAULT_ADDR");
     }
@@ -88,6 +470,22 @@ public class ConfigProperties {
                 Arrays.stream(properties.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet()));
     }
 
+    private static List<String> splitBaseUrls(final String baseUrls) {
+        if (StringUtils.isEmpty(baseUrls)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(
+                Arrays.stream(baseUrls.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList()));
+    }
+
+    private static int parseInt(final String value, final int defaultValue) {
+        return StringUtils.isEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static boolean parseBoolean(final String value, final boolean defaultValue) {
+        return StringUtils.isEmpty(value) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -102,7 +500,151 @@ public class ConfigProperties {
         if (enabled != that.enabled) {
             return false;
         }
-        if (baseUrl != null ? !baseUrl.equals(that.baseUrl) : that.baseUrl != null) {
+        if (maxConcurrentReads != that.maxConcurrentReads) {
+            return false;
+        }
+        if (httpConnectTimeout != that.httpConnectTimeout) {
+            return false;
+        }
+        if (httpReadTimeout != that.httpReadTimeout) {
+            return false;
+        }
+        if (httpRequestTimeout != that.httpRequestTimeout) {
+            return false;
+        }
+        if (httpMaxConnections != that.httpMaxConnections) {
+            return false;
+        }
+        if (httpKeepAlive != that.httpKeepAlive) {
+            return false;
+        }
+        if (httpPooledConnectionIdleTimeout != that.httpPooledConnectionIdleTimeout) {
+            return false;
+        }
+        if (snapshotEnabled != that.snapshotEnabled) {
+            return false;
+        }
+        if (snapshotTtl != that.snapshotTtl) {
+            return false;
+        }
+        if (refreshEnabled != that.refreshEnabled) {
+            return false;
+        }
+        if (refreshInterval != that.refreshInterval) {
+            return false;
+        }
+        if (refreshJitter != that.refreshJitter) {
+            return false;
+        }
+        if (tokenRenewalEnabled != that.tokenRenewalEnabled) {
+            return false;
+        }
+        if (cacheEnabled != that.cacheEnabled) {
+            return false;
+        }
+        if (cacheMaxEntries != that.cacheMaxEntries) {
+            return false;
+        }
+        if (cacheTtl != that.cacheTtl) {
+            return false;
+        }
+        if (retryMaxAttempts != that.retryMaxAttempts) {
+            return false;
+        }
+        if (retryInitialBackoff != that.retryInitialBackoff) {
+            return false;
+        }
+        if (retryMaxBackoff != that.retryMaxBackoff) {
+            return false;
+        }
+        if (circuitBreakerEnabled != that.circuitBreakerEnabled) {
+            return false;
+        }
+        if (circuitBreakerFailureThreshold != that.circuitBreakerFailureThreshold) {
+            return false;
+        }
+        if (circuitBreakerOpenDuration != that.circuitBreakerOpenDuration) {
+            return false;
+        }
+        if (hedgeEnabled != that.hedgeEnabled) {
+            return false;
+        }
+        if (hedgePercentile != that.hedgePercentile) {
+            return false;
+        }
+        if (hedgeMinDelay != that.hedgeMinDelay) {
+            return false;
+        }
+        if (lazyEnabled != that.lazyEnabled) {
+            return false;
+        }
+        if (discoveryEnabled != that.discoveryEnabled) {
+            return false;
+        }
+        if (discoveryMaxDepth != that.discoveryMaxDepth) {
+            return false;
+        }
+        if (discoveryMaxPaths != that.discoveryMaxPaths) {
+            return false;
+        }
+        if (kvVersion != that.kvVersion) {
+            return false;
+        }
+        if (nodeCacheEnabled != that.nodeCacheEnabled) {
+            return false;
+        }
+        if (nodeCacheSlots != that.nodeCacheSlots) {
+            return false;
+        }
+        if (nodeCacheSlotSize != that.nodeCacheSlotSize) {
+            return false;
+        }
+        if (nodeCacheTtl != that.nodeCacheTtl) {
+            return false;
+        }
+        if (tokenWatchEnabled != that.tokenWatchEnabled) {
+            return false;
+        }
+        if (tokenWatchDebounce != that.tokenWatchDebounce) {
+            return false;
+        }
+        if (leaseRenewalEnabled != that.leaseRenewalEnabled) {
+            return false;
+        }
+        if (leaseRenewalTick != that.leaseRenewalTick) {
+            return false;
+        }
+        if (leaseRenewalWheelSize != that.leaseRenewalWheelSize) {
+            return false;
+        }
+        if (tokenCacheEnabled != that.tokenCacheEnabled) {
+            return false;
+        }
+        if (tokenCacheMinTtl != that.tokenCacheMinTtl) {
+            return false;
+        }
+        if (limiterEnabled != that.limiterEnabled) {
+            return false;
+        }
+        if (limiterRate != that.limiterRate) {
+            return false;
+        }
+        if (limiterBurst != that.limiterBurst) {
+            return false;
+        }
+        if (limiterInitialConcurrency != that.limiterInitialConcurrency) {
+            return false;
+        }
+        if (limiterMaxConcurrency != that.limiterMaxConcurrency) {
+            return false;
+        }
+        if (limiterLatencyThreshold != that.limiterLatencyThreshold) {
+            return false;
+        }
+        if (limiterStartupDelay != that.limiterStartupDelay) {
+            return false;
+        }
+        if (!baseUrls.equals(that.baseUrls)) {
             return false;
         }
         if (secretPath != null ? !secretPath.equals(that.secretPath) : that.secretPath != null) {
@@ -126,13 +668,34 @@ public class ConfigProperties {
         if (userId != null ? !userId.equals(that.userId) : that.userId != null) {
             return false;
         }
+        if (snapshotFile != null ? !snapshotFile.equals(that.snapshotFile) : that.snapshotFile != null) {
+            return false;
+        }
+        if (snapshotKeyFile != null ? !snapshotKeyFile.equals(that.snapshotKeyFile) : that.snapshotKeyFile != null) {
+            return false;
+        }
+        if (nodeCacheFile != null ? !nodeCacheFile.equals(that.nodeCacheFile) : that.nodeCacheFile != null) {
+            return false;
+        }
+        if (nodeCacheKeyFile != null ? !nodeCacheKeyFile.equals(that.nodeCacheKeyFile) : that.nodeCacheKeyFile != null) {
+            return false;
+        }
+        if (tokenCacheFile != null ? !tokenCacheFile.equals(that.tokenCacheFile) : that.tokenCacheFile != null) {
+            return false;
+        }
+        if (tokenCacheKeyFile != null ? !tokenCacheKeyFile.equals(that.tokenCacheKeyFile) : that.tokenCacheKeyFile != null) {
+            return false;
+        }
+        if (httpTransport != null ? !httpTransport.equals(that.httpTransport) : that.httpTransport != null) {
+            return false;
+        }
         return defaultVaultToken != null ? defaultVaultToken.equals(that.defaultVaultToken) : that.defaultVaultToken == null;
     }
 
     @Override
     public int hashCode() {
         int result = (enabled ? 1 : 0);
-        result = 31 * result + (baseUrl != null ? baseUrl.hashCode() : 0);
+        result = 31 * result + baseUrls.hashCode();
         result = 31 * result + (secretPath != null ? secretPath.hashCode() : 0);
         result = 31 * result + (properties != null ? properties.hashCode() : 0);
         result = 31 * result + (tokenSource != null ? tokenSource.hashCode() : 0);
@@ -141,6 +704,61 @@ public class ConfigProperties {
         result = 31 * result + (appId != null ? appId.hashCode() : 0);
         result = 31 * result + (userId != null ? userId.hashCode() : 0);
         result = 31 * result + (defaultVaultToken != null ? defaultVaultToken.hashCode() : 0);
+        result = 31 * result + maxConcurrentReads;
+        result = 31 * result + httpConnectTimeout;
+        result = 31 * result + httpReadTimeout;
+        result = 31 * result + httpRequestTimeout;
+        result = 31 * result + httpMaxConnections;
+        result = 31 * result + (httpKeepAlive ? 1 : 0);
+        result = 31 * result + httpPooledConnectionIdleTimeout;
+        result = 31 * result + (snapshotEnabled ? 1 : 0);
+        result = 31 * result + (snapshotFile != null ? snapshotFile.hashCode() : 0);
+        result = 31 * result + snapshotTtl;
+        result = 31 * result + (snapshotKeyFile != null ? snapshotKeyFile.hashCode() : 0);
+        result = 31 * result + (refreshEnabled ? 1 : 0);
+        result = 31 * result + refreshInterval;
+        result = 31 * result + refreshJitter;
+        result = 31 * result + (tokenRenewalEnabled ? 1 : 0);
+        result = 31 * result + (cacheEnabled ? 1 : 0);
+        result = 31 * result + cacheMaxEntries;
+        result = 31 * result + cacheTtl;
+        result = 31 * result + retryMaxAttempts;
+        result = 31 * result + retryInitialBackoff;
+        result = 31 * result + retryMaxBackoff;
+        result = 31 * result + (circuitBreakerEnabled ? 1 : 0);
+        result = 31 * result + circuitBreakerFailureThreshold;
+        result = 31 * result + circuitBreakerOpenDuration;
+        result = 31 * result + (hedgeEnabled ? 1 : 0);
+        result = 31 * result + hedgePercentile;
+        result = 31 * result + hedgeMinDelay;
+        result = 31 * result + (lazyEnabled ? 1 : 0);
+        result = 31 * result + (discoveryEnabled ? 1 : 0);
+        result = 31 * result + discoveryMaxDepth;
+        result = 31 * result + discoveryMaxPaths;
+        result = 31 * result + kvVersion;
+        result = 31 * result + (nodeCacheEnabled ? 1 : 0);
+        result = 31 * result + (nodeCacheFile != null ? nodeCacheFile.hashCode() : 0);
+        result = 31 * result + (nodeCacheKeyFile != null ? nodeCacheKeyFile.hashCode() : 0);
+        result = 31 * result + nodeCacheSlots;
+        result = 31 * result + nodeCacheSlotSize;
+        result = 31 * result + nodeCacheTtl;
+        result = 31 * result + (tokenWatchEnabled ? 1 : 0);
+        result = 31 * result + tokenWatchDebounce;
+        result = 31 * result + (leaseRenewalEnabled ? 1 : 0);
+        result = 31 * result + leaseRenewalTick;
+        result = 31 * result + leaseRenewalWheelSize;
+        result = 31 * result + (tokenCacheEnabled ? 1 : 0);
+        result = 31 * result + (tokenCacheFile != null ? tokenCacheFile.hashCode() : 0);
+        result = 31 * result + (tokenCacheKeyFile != null ? tokenCacheKeyFile.hashCode() : 0);
+        result = 31 * result + tokenCacheMinTtl;
+        result = 31 * result + (limiterEnabled ? 1 : 0);
+        result = 31 * result + limiterRate;
+        result = 31 * result + limiterBurst;
+        result = 31 * result + limiterInitialConcurrency;
+        result = 31 * result + limiterMaxConcurrency;
+        result = 31 * result + limiterLatencyThreshold;
+        result = 31 * result + limiterStartupDelay;
+        result = 31 * result + (httpTransport != null ? httpTransport.hashCode() : 0);
         return result;
     }
 
@@ -148,7 +766,7 @@ public class ConfigProperties {
     public String toString() {
         return "ConfigProperties{" +
                 "enabled=" + enabled +
-                ", baseUrl='" + baseUrl + '\'' +
+                ", baseUrls=" + baseUrls +
                 ", secretPath='" + secretPath + '\'' +
                 ", properties=" + properties +
                 ", tokenSource='" + tokenSource + '\'' +
@@ -157,6 +775,61 @@ public class ConfigProperties {
                 ", appId='" + appId + '\'' +
                 ", userId='" + userId + '\'' +
                 ", defaultVaultToken='" + defaultVaultToken + '\'' +
+                ", maxConcurrentReads=" + maxConcurrentReads +
+                ", httpConnectTimeout=" + httpConnectTimeout +
+                ", httpReadTimeout=" + httpReadTimeout +
+                ", httpRequestTimeout=" + httpRequestTimeout +
+                ", httpMaxConnections=" + httpMaxConnections +
+                ", httpKeepAlive=" + httpKeepAlive +
+                ", httpPooledConnectionIdleTimeout=" + httpPooledConnectionIdleTimeout +
+                ", snapshotEnabled=" + snapshotEnabled +
+                ", snapshotFile='" + snapshotFile + '\'' +
+                ", snapshotTtl=" + snapshotTtl +
+                ", snapshotKeyFile='" + snapshotKeyFile + '\'' +
+                ", refreshEnabled=" + refreshEnabled +
+                ", refreshInterval=" + refreshInterval +
+                ", refreshJitter=" + refreshJitter +
+                ", tokenRenewalEnabled=" + tokenRenewalEnabled +
+                ", cacheEnabled=" + cacheEnabled +
+                ", cacheMaxEntries=" + cacheMaxEntries +
+                ", cacheTtl=" + cacheTtl +
+                ", retryMaxAttempts=" + retryMaxAttempts +
+                ", retryInitialBackoff=" + retryInitialBackoff +
+                ", retryMaxBackoff=" + retryMaxBackoff +
+                ", circuitBreakerEnabled=" + circuitBreakerEnabled +
+                ", circuitBreakerFailureThreshold=" + circuitBreakerFailureThreshold +
+                ", circuitBreakerOpenDuration=" + circuitBreakerOpenDuration +
+                ", hedgeEnabled=" + hedgeEnabled +
+                ", hedgePercentile=" + hedgePercentile +
+                ", hedgeMinDelay=" + hedgeMinDelay +
+                ", lazyEnabled=" + lazyEnabled +
+                ", discoveryEnabled=" + discoveryEnabled +
+                ", discoveryMaxDepth=" + discoveryMaxDepth +
+                ", discoveryMaxPaths=" + discoveryMaxPaths +
+                ", kvVersion=" + kvVersion +
+                ", nodeCacheEnabled=" + nodeCacheEnabled +
+                ", nodeCacheFile='" + nodeCacheFile + '\'' +
+                ", nodeCacheKeyFile='" + nodeCacheKeyFile + '\'' +
+                ", nodeCacheSlots=" + nodeCacheSlots +
+                ", nodeCacheSlotSize=" + nodeCacheSlotSize +
+                ", nodeCacheTtl=" + nodeCacheTtl +
+                ", tokenWatchEnabled=" + tokenWatchEnabled +
+                ", tokenWatchDebounce=" + tokenWatchDebounce +
+                ", leaseRenewalEnabled=" + leaseRenewalEnabled +
+                ", leaseRenewalTick=" + leaseRenewalTick +
+                ", leaseRenewalWheelSize=" + leaseRenewalWheelSize +
+                ", tokenCacheEnabled=" + tokenCacheEnabled +
+                ", tokenCacheFile='" + tokenCacheFile + '\'' +
+                ", tokenCacheKeyFile='" + tokenCacheKeyFile + '\'' +
+                ", tokenCacheMinTtl=" + tokenCacheMinTtl +
+                ", limiterEnabled=" + limiterEnabled +
+                ", limiterRate=" + limiterRate +
+                ", limiterBurst=" + limiterBurst +
+                ", limiterInitialConcurrency=" + limiterInitialConcurrency +
+                ", limiterMaxConcurrency=" + limiterMaxConcurrency +
+                ", limiterLatencyThreshold=" + limiterLatencyThreshold +
+                ", limiterStartupDelay=" + limiterStartupDelay +
+                ", httpTransport='" + httpTransport + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,86 @@
+package de.otto.edison.vault;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Passes measurements on to a {@link VaultMetrics} that is only known later. The vault property source is created
+ * while the bean factory is post-processed, when the {@link VaultMetrics} bean must not be created yet: a bean created
+ * that early is neither autowired nor proxied. Measurements taken until {@link #delegateTo(VaultMetrics)} is called,
+ * e.g. those of the startup, are buffered and handed over then, at most {@link #MAX_BUFFERED} of them.
+ */
+class DeferredVaultMetrics implements VaultMetrics {
+
+    static final int MAX_BUFFERED = 1024;
+
+    private final Queue<Consumer<VaultMetrics>> buffered = new ArrayDeque<>();
+    private volatile VaultMetrics delegate;
+
+    /**
+     * Hands the buffered measurements and all further ones to the given metrics. Only the first call has an effect.
+     */
+    synchronized void delegateTo(final VaultMetrics metrics) {
+        if (delegate != null) {
+            return;
+        }
+        buffered.forEach(measurement -> measurement.accept(metrics));
+        buffered.clear();
+        delegate = metrics;
+    }
+
+    @Override
+    public void recordLogin(final boolean success, final long durationNanos) {
+        record(metrics -> metrics.recordLogin(success, durationNanos));
+    }
+
+    @Override
+    public void recordRead(final String path, final int statusCode, final long durationNanos) {
+        record(metrics -> metrics.recordRead(path, statusCode, durationNanos));
+    }
+
+    @Override
+    public void recordResponseSize(final String path, final long bytes) {
+        record(metrics -> metrics.recordResponseSize(path, bytes));
+    }
+
+    @Override
+    public void recordRetry(final String operation) {
+        record(metrics -> metrics.recordRetry(operation));
+    }
+
+    @Override
+    public void recordHedgedRead(final String path) {
+        record(metrics -> metrics.recordHedgedRead(path));
+    }
+
+    @Override
+    public void recordPropertySourceInitialization(final long durationNanos) {
+        record(metrics -> metrics.recordPropertySourceInitialization(durationNanos));
+    }
+
+    @Override
+    public void recordLimiterQueueTime(final long durationNanos) {
+        record(metrics -> metrics.recordLimiterQueueTime(durationNanos));
+    }
+
+    @Override
+    public void recordConcurrencyLimit(final int limit) {
+        record(metrics -> metrics.recordConcurrencyLimit(limit));
+    }
+
+    private void record(final Consumer<VaultMetrics> measurement) {
+        final VaultMetrics metrics = delegate;
+        if (metrics != null) {
+            measurement.accept(metrics);
+            return;
+        }
+        synchronized (this) {
+            if (delegate != null) {
+                measurement.accept(delegate);
+            } else if (buffered.size() < MAX_BUFFERED) {
+                buffered.add(measurement);
+            }
+        }
+    }
+}
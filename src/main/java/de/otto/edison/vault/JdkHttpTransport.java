@@ -0,0 +1,234 @@
+package de.otto.edison.vault;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the requests with the {@link HttpURLConnection} of the JDK, without further dependencies. Blocking requests are
+ * sent on the calling thread. Asynchronous requests are sent on up to {@code maxConnections} threads, which are only
+ * started when needed and stop after a second without work, so an application that reads its secrets once at startup
+ * is left without threads of the transport.
+ * <p>
+ * Connections are reused by the keep-alive cache of the JDK, which takes a connection back once the response body has
+ * been read completely; see the {@code http.keepAlive} and {@code http.maxConnections} system properties. Redirects are
+ * followed, 307 and 308 with the same method and body, so that requests to a standby vault node reach the active one.
+ * <p>
+ * The request timeout bounds the whole request including redirects: connect and read timeouts are shortened to the
+ * time that is left, which is also checked between the reads of the response body.
+ */
+public class JdkHttpTransport implements VaultTransport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdkHttpTransport.class);
+
+    static final String THREAD_POOL_NAME = "edison-vault-jdk-http";
+
+    private static final int MAX_REDIRECTS = 5;
+    private static final long IDLE_THREAD_TIMEOUT_MILLIS = 1000;
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int requestTimeout;
+    private final boolean keepAlive;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout    maximum time in milliseconds without data from vault
+     * @param requestTimeout maximum time in milliseconds of a request, not limited if not positive
+     * @param maxConnections maximum number of asynchronous requests in flight
+     * @param keepAlive      keep connections alive and reuse them
+     */
+    public JdkHttpTransport(final int connectTimeout, final int readTimeout, final int requestTimeout,
+                            final int maxConnections, final boolean keepAlive) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.requestTimeout = requestTimeout;
+        this.keepAlive = keepAlive;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConnections, maxConnections, IDLE_THREAD_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_POOL_NAME + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates a transport with the connect, read and request timeouts, the maximum number of connections and the
+     * keep-alive setting of the configuration.
+     */
+    public static JdkHttpTransport jdkHttpTransport(final ConfigProperties configProperties) {
+        return new JdkHttpTransport(configProperties.getHttpConnectTimeout(), configProperties.getHttpReadTimeout(),
+                configProperties.getHttpRequestTimeout(), configProperties.getHttpMaxConnections(),
+                configProperties.isHttpKeepAlive());
+    }
+
+    @Override
+    public VaultResponse execute(final VaultRequest request) throws ExecutionException {
+        if (isClosed()) {
+            throw new IllegalStateException("vault http transport is closed");
+        }
+        try {
+            return send(request);
+        } catch (IOException e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<VaultResponse> executeAsync(final VaultRequest request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return send(request);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            final CompletableFuture<VaultResponse> closed = new CompletableFuture<>();
+            closed.completeExceptionally(new IllegalStateException("vault http transport is closed", e));
+            return closed;
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Stops the threads of the transport once the asynchronous requests in flight are done.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private VaultResponse send(final VaultRequest request) throws IOException {
+        final long startNanos = System.nanoTime();
+        URL url = new URL(request.getUrl());
+        String method = request.getMethod();
+        String body = request.getBody();
+        for (int redirects = 0; ; redirects++) {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(remainingTimeout(connectTimeout, startNanos));
+            connection.setReadTimeout(remainingTimeout(readTimeout, startNanos));
+            connection.setInstanceFollowRedirects(false);
+            connection.setUseCaches(false);
+            connection.setRequestMethod(method);
+            request.getHeaders().forEach(connection::setRequestProperty);
+            if (!keepAlive) {
+                connection.setRequestProperty("Connection", "close");
+            }
+            if (body != null) {
+                final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(bytes.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(bytes);
+                }
+            }
+            final int statusCode = connection.getResponseCode();
+            final byte[] responseBody = readBody(connection, statusCode, startNanos);
+            final String location = connection.getHeaderField("Location");
+            if (!isRedirect(statusCode) || location == null || redirects >= MAX_REDIRECTS) {
+                return new ByteArrayResponse(statusCode, responseBody);
+            }
+            LOG.debug("{} {} redirected to {}", method, url, location);
+            url = new URL(url, location);
+            if (statusCode != 307 && statusCode != 308) {
+                method = "GET";
+                body = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the timeout shortened to the time left of the request timeout, 0 meaning no timeout as for
+     * {@link HttpURLConnection}.
+     *
+     * @throws SocketTimeoutException if the request timeout has passed
+     */
+    private int remainingTimeout(final int timeout, final long startNanos) throws SocketTimeoutException {
+        if (requestTimeout <= 0) {
+            return timeout;
+        }
+        final long remaining = requestTimeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("vault request timed out after " + requestTimeout + " ms");
+        }
+        return timeout > 0 ? (int) Math.min(timeout, remaining) : (int) remaining;
+    }
+
+    /**
+     * Reads the body completely and closes its stream, which hands the connection back to the keep-alive cache.
+     */
+    private byte[] readBody(final HttpURLConnection connection, final int statusCode,
+                            final long startNanos) throws IOException {
+        final InputStream stream = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (stream == null) {
+            return NO_BODY;
+        }
+        try (InputStream in = stream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                remainingTimeout(0, startNanos);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static boolean isRedirect(final int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+    }
+
+    private static class ByteArrayResponse implements VaultResponse {
+
+        private final int statusCode;
+        private final byte[] body;
+
+        ByteArrayResponse(final int statusCode, final byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getResponseBody() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream getResponseBodyAsStream() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+}
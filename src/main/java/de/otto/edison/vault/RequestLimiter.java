@@ -0,0 +1,289 @@
+package de.otto.edison.vault;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the requests to vault of one instance, so that many instances starting at once do not overload vault. A
+ * request is sent when a token bucket allows it and fewer requests than the concurrency limit are in flight; otherwise
+ * it waits in a queue. The concurrency limit adapts like TCP congestion control: every fast successful response
+ * raises it by {@code 1 / limit}, a 429 or 503 halves it, and a response slower than the latency threshold lowers it
+ * by a tenth. The limit is lowered at most once per latency threshold, so a burst of rejections counts once.
+ * <p>
+ * Requests that wait for the bucket or the startup delay are sent from a timer thread of the limiter, never from the
+ * caller, so blocking callers on a scheduler can not starve the limiter.
+ */
+public class RequestLimiter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestLimiter.class);
+
+    private static final int MIN_CONCURRENCY = 1;
+    private static final double OVERLOAD_BACKOFF = 0.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxConcurrency;
+    private final long latencyThresholdNanos;
+    private final VaultMetrics metrics;
+    private final LongSupplier nanoTime;
+    private final ScheduledExecutorService timer;
+    private final Queue<Pending> queue = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private double tokens;
+    private long refilledAt;
+    private long notBefore;
+    private long lastDecreaseAt;
+    private boolean drainScheduled;
+
+    /**
+     * @param ratePerSecond      requests per second, 0 for no rate limit
+     * @param burst              requests that may be sent at once after a quiet period
+     * @param initialConcurrency concurrency limit at start
+     * @param maxConcurrency     upper bound of the concurrency limit
+     * @param latencyThreshold   responses slower than this many milliseconds lower the concurrency limit
+     * @param startupDelay       milliseconds before the first request is sent
+     */
+    public RequestLimiter(final double ratePerSecond, final int burst, final int initialConcurrency,
+                          final int maxConcurrency, final long latencyThreshold, final long startupDelay,
+                          final VaultMetrics metrics) {
+        this(ratePerSecond, burst, initialConcurrency, maxConcurrency, latencyThreshold, startupDelay, metrics,
+                System::nanoTime);
+    }
+
+    RequestLimiter(final double ratePerSecond, final int burst, final int initialConcurrency, final int maxConcurrency,
+                   final long latencyThreshold, final long startupDelay, final VaultMetrics metrics,
+                   final LongSupplier nanoTime) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxConcurrency = Math.max(MIN_CONCURRENCY, maxConcurrency);
+        this.limit = Math.max(MIN_CONCURRENCY, Math.min(initialConcurrency, this.maxConcurrency));
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+        this.metrics = metrics;
+        this.nanoTime = nanoTime;
+        this.tokens = this.burst;
+        this.refilledAt = nanoTime.getAsLong();
+        this.notBefore = refilledAt + TimeUnit.MILLISECONDS.toNanos(startupDelay);
+        this.lastDecreaseAt = refilledAt - latencyThresholdNanos;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "edison-vault-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (startupDelay > 0) {
+            LOG.info("delaying first request to vault by {} ms", startupDelay);
+        }
+    }
+
+    /**
+     * @return a limiter if it is enabled, otherwise null. The startup delay is a random value up to the configured one.
+     */
+    public static RequestLimiter requestLimiter(final ConfigProperties configProperties, final VaultMetrics metrics) {
+        if (!configProperties.isLimiterEnabled()) {
+            return null;
+        }
+        final int maxStartupDelay = configProperties.getLimiterStartupDelay();
+        return new RequestLimiter(configProperties.getLimiterRate(), configProperties.getLimiterBurst(),
+                configProperties.getLimiterInitialConcurrency(), configProperties.getLimiterMaxConcurrency(),
+                configProperties.getLimiterLatencyThreshold(),
+                maxStartupDelay > 0 ? ThreadLocalRandom.current().nextLong(maxStartupDelay + 1L) : 0,
+                metrics);
+    }
+
+    /**
+     * Sends the request as soon as the limits allow it.
+     *
+     * @param request sends the request, called once on the caller, an http client or the limiter thread
+     */
+    public CompletableFuture<VaultResponse> execute(final Supplier<CompletableFuture<VaultResponse>> request) {
+        final Pending pending = new Pending(request, nanoTime.getAsLong());
+        if (timer.isShutdown()) {
+            pending.result.completeExceptionally(new RuntimeException("vault request limiter is closed, request is not sent"));
+            return pending.result;
+        }
+        synchronized (this) {
+            queue.add(pending);
+        }
+        drain();
+        return pending.result;
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Stops the timer thread. Requests that are still queued fail.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        failQueued(new RuntimeException("vault request limiter is closed, request is not sent"));
+    }
+
+    /**
+     * Sends queued requests while the limits allow it, and schedules another attempt if the bucket or the startup
+     * delay hold them back.
+     */
+    void drain() {
+        final List<Pending> ready = new ArrayList<>();
+        long waitNanos = 0;
+        synchronized (this) {
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                waitNanos = nanosUntilPermit(nanoTime.getAsLong());
+                if (waitNanos > 0) {
+                    break;
+                }
+                inFlight++;
+                ready.add(queue.poll());
+            }
+            if (waitNanos > 0 && !drainScheduled) {
+                drainScheduled = scheduleDrain(waitNanos);
+            }
+        }
+        ready.forEach(this::send);
+    }
+
+    private boolean scheduleDrain(final long waitNanos) {
+        try {
+            timer.schedule(() -> {
+                synchronized (this) {
+                    drainScheduled = false;
+                }
+                drain();
+            }, waitNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return 0 if a request may be sent now and takes a token, otherwise the nanos to wait for the next token
+     */
+    private long nanosUntilPermit(final long now) {
+        if (now < notBefore) {
+            return notBefore - now;
+        }
+        if (ratePerSecond <= 0) {
+            return 0;
+        }
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    }
+
+    private void send(final Pending pending) {
+        final long sentAt = nanoTime.getAsLong();
+        metrics.recordLimiterQueueTime(sentAt - pending.queuedAt);
+        final CompletableFuture<VaultResponse> response;
+        try {
+            response = pending.request.get();
+        } catch (RuntimeException e) {
+            release();
+            pending.result.completeExceptionally(e);
+            drain();
+            return;
+        }
+        response.whenComplete((received, throwable) -> {
+            if (received != null) {
+                onResponse(received.getStatusCode(), nanoTime.getAsLong() - sentAt);
+            } else {
+                release();
+            }
+            if (throwable != null) {
+                pending.result.completeExceptionally(throwable);
+            } else {
+                pending.result.complete(received);
+            }
+            drain();
+        });
+    }
+
+    synchronized void onResponse(final int statusCode, final long latencyNanos) {
+        inFlight--;
+        final int before = (int) limit;
+        if (statusCode == 429 || statusCode == 503) {
+            decrease(OVERLOAD_BACKOFF);
+        } else if (latencyThresholdNanos > 0 && latencyNanos > latencyThresholdNanos) {
+            decrease(LATENCY_BACKOFF);
+        } else if (statusCode < 500) {
+            limit = Math.min(maxConcurrency, limit + 1 / limit);
+        }
+        if ((int) limit != before) {
+            LOG.debug("vault concurrency limit changed from {} to {}", before, (int) limit);
+            metrics.recordConcurrencyLimit((int) limit);
+        }
+    }
+
+    private void decrease(final double backoff) {
+        final long now = nanoTime.getAsLong();
+        if (now - lastDecreaseAt >= latencyThresholdNanos) {
+            limit = Math.max(MIN_CONCURRENCY, limit * backoff);
+            lastDecreaseAt = now;
+        }
+    }
+
+    private synchronized void release() {
+        inFlight--;
+    }
+
+    private void failQueued(final RuntimeException e) {
+        final List<Pending> failed;
+        synchronized (this) {
+            failed = new ArrayList<>(queue);
+            queue.clear();
+        }
+        failed.forEach(pending -> pending.result.completeExceptionally(e));
+    }
+
+    private static class Pending {
+        final Supplier<CompletableFuture<VaultResponse>> request;
+        final long queuedAt;
+        final CompletableFuture<VaultResponse> result = new CompletableFuture<>();
+
+        Pending(final Supplier<CompletableFuture<VaultResponse>> request, final long queuedAt) {
+            this.request = request;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
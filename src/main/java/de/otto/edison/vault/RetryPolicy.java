@@ -0,0 +1,127 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides which failed requests to vault are retried and how long to wait before the next attempt. Only transient
+ * failures are retried: 429, 500, 502, 503 and 504 responses, timeouts and connection errors. The backoff grows
+ * exponentially up to a maximum, and the actual delay is a random value below it ("full jitter"), so that many
+ * instances do not retry in lockstep.
+ */
+public class RetryPolicy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryPolicy.class);
+
+    public static final RetryPolicy NO_RETRIES = new RetryPolicy(1, 0, 0);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * @param maxAttempts          the number of attempts including the first one
+     * @param initialBackoffMillis the maximum delay before the second attempt
+     * @param maxBackoffMillis     the maximum delay before any attempt
+     */
+    public RetryPolicy(final int maxAttempts, final long initialBackoffMillis, final long maxBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public static RetryPolicy retryPolicy(final ConfigProperties configProperties) {
+        return new RetryPolicy(configProperties.getRetryMaxAttempts(), configProperties.getRetryInitialBackoff(),
+                configProperties.getRetryMaxBackoff());
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt the attempt that failed, starting with 1
+     * @return the delay before the next attempt, between 0 and min(maxBackoff, initialBackoff * 2^(attempt - 1))
+     */
+    public long backoffMillis(final int attempt) {
+        final long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    public static boolean isTransient(final int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    public static boolean isTransient(final Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof IOException || cause instanceof TimeoutException;
+    }
+
+    /**
+     * Executes an idempotent request, retrying transient failures with a blocking backoff.
+     *
+     * @param operation      the name of the request for logs and metrics
+     * @param circuitBreaker rejects the request while vault is down, may be null
+     */
+    VaultResponse execute(final String operation, final CircuitBreaker circuitBreaker, final VaultMetrics metrics,
+                     final Request request) throws ExecutionException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null) {
+                circuitBreaker.acquire();
+            }
+            final VaultResponse response;
+            try {
+                response = request.execute();
+            } catch (ExecutionException e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                onFailure(circuitBreaker);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                waitBeforeRetry(operation, attempt, metrics, e.getCause());
+                continue;
+            }
+            if (!isTransient(response.getStatusCode())) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess();
+                }
+                return response;
+            }
+            onFailure(circuitBreaker);
+            if (attempt >= maxAttempts) {
+                return response;
+            }
+            waitBeforeRetry(operation, attempt, metrics, "return code " + response.getStatusCode());
+        }
+    }
+
+    private void waitBeforeRetry(final String operation, final int attempt, final VaultMetrics metrics,
+                                 final Object reason) throws InterruptedException {
+        final long backoff = backoffMillis(attempt);
+        LOG.warn("{} failed with {}, retrying in {} ms", operation, reason, backoff);
+        metrics.recordRetry(operation);
+        Thread.sleep(backoff);
+    }
+
+    private static void onFailure(final CircuitBreaker circuitBreaker) {
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    @FunctionalInterface
+    interface Request {
+        VaultResponse execute() throws ExecutionException, InterruptedException;
+    }
+}
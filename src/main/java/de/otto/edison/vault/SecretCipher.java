@@ -0,0 +1,82 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts data that edison-vault keeps on local disk with AES-GCM. The AES key is the SHA-256 hash of the given key
+ * material, i.e. the content of a key file or a vault token.
+ */
+public class SecretCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    private SecretCipher(final byte[] keyMaterial) {
+        this.key = new SecretKeySpec(sha256(keyMaterial), "AES");
+    }
+
+    public static SecretCipher fromKeyFile(final Path keyFile) {
+        try {
+            return new SecretCipher(Files.readAllBytes(keyFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Can not read key file from %s", keyFile), e);
+        }
+    }
+
+    public static SecretCipher fromToken(final String vaultToken) {
+        return new SecretCipher(vaultToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return a random IV followed by the cipher text and the authentication tag
+     */
+    public byte[] encrypt(final byte[] plainText) {
+        try {
+            final byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            final byte[] cipherText = cipher.doFinal(plainText);
+            return ByteBuffer.allocate(IV_LENGTH + cipherText.length).put(iv).put(cipherText).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("encryption failed", e);
+        }
+    }
+
+    /**
+     * @throws GeneralSecurityException if the data was encrypted with another key or has been tampered with
+     */
+    public byte[] decrypt(final byte[] encrypted) throws GeneralSecurityException {
+        if (encrypted.length < IV_LENGTH) {
+            throw new GeneralSecurityException("encrypted data is too short");
+        }
+        final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, encrypted, 0, IV_LENGTH));
+        return cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+    }
+
+    private static byte[] sha256(final byte[] keyMaterial) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(keyMaterial);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
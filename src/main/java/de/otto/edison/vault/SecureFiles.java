@@ -0,0 +1,50 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers for the files that hold secrets on local disk: the snapshot, the token cache and the node cache.
+ */
+final class SecureFiles {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SecureFiles.class);
+
+    private SecureFiles() {
+    }
+
+    /**
+     * Writes the content to a temporary file next to the target, which only the owner may read, and moves it over the
+     * target in one step, so that readers never see a partly written file.
+     */
+    static void writeAtomically(final Path file, final byte[] content) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(tempFile);
+            Files.write(tempFile, content);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Makes the file readable and writable by its owner only. On file systems without posix permissions, the
+     * permissions are left as they are.
+     */
+    static void restrictToOwner(final Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            LOG.debug("file system does not support posix permissions, permissions of '{}' are not restricted", file);
+        }
+    }
+}
@@ -1,79 +1,807 @@
 package de.otto.edison.vault;
 
-import java.nio.charset.Charset;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.DefaultAsyncHttpClient;
-import org.asynchttpclient.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
-import com.google.gson.Gson;
-
-public class VaultClient {
+public class VaultClient implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(VaultClient.class);
+    private static final String LIST_QUERY = "?list=true";
+    private static final String KV2_DATA = "data";
+    private static final String KV2_METADATA = "metadata";
 
-    private final String vaultBaseUrl;
+    private final VaultNodes nodes;
     private final String secretPath;
-    private final String vaultToken;
+    private final Supplier<String> vaultToken;
 
-    protected AsyncHttpClient asyncHttpClient = new DefaultAsyncHttpClient();
+    private final VaultTransport transport;
+    private final boolean ownsTransport;
+    private final int maxConcurrentReads;
+    private VaultSecretCache cache;
+    private VaultNodeCache nodeCache;
+    private Predicate<String> nodeCacheTokenCheck;
+    private Executor tokenCheckExecutor;
+    private volatile String checkedToken;
+    private final AtomicBoolean checkingToken = new AtomicBoolean();
+    private VaultMetrics metrics = VaultMetrics.NOOP;
+    private RetryPolicy retryPolicy = RetryPolicy.NO_RETRIES;
+    private CircuitBreaker circuitBreaker;
+    private ScheduledExecutorService retryScheduler;
+    private int hedgePercentile;
+    private long hedgeMinDelayMillis;
+    private ScheduledExecutorService hedgeScheduler;
+    private int kvVersion = 1;
+    private RequestLimiter limiter;
 
+    /**
+     * Creates a client with its own transport, selected by {@code edison.vault.http.transport}. The returned client
+     * has to be closed.
+     */
     public static VaultClient vaultClient(final ConfigProperties configProperties, String vaultToken) {
-        return vaultClient(configProperties.getBaseUrl(), configProperties.getSecretPath(), vaultToken);
+        return vaultClient(configProperties, () -> vaultToken, VaultTransport.vaultTransport(configProperties), true);
     }
 
+    /**
+     * Creates a client with its own {@link AsyncHttpClient}. The returned client has to be closed.
+     */
     public static VaultClient vaultClient(final String vaultBaseUrl, final String secretPath, final String vaultToken) {
-        return new VaultClient(vaultBaseUrl, secretPath, vaultToken);
+        return new VaultClient(singletonList(vaultBaseUrl), secretPath, () -> vaultToken,
+                new AsyncHttpClientTransport(new DefaultAsyncHttpClient()), true,
+                ConfigProperties.DEFAULT_MAX_CONCURRENT_READS);
+    }
+
+    /**
+     * Creates a client that uses the given, shared {@link AsyncHttpClient}. Closing the returned client does not close
+     * the shared one.
+     */
+    public static VaultClient vaultClient(final ConfigProperties configProperties, final String vaultToken,
+                                          final AsyncHttpClient asyncHttpClient) {
+        return vaultClient(configProperties, () -> vaultToken, asyncHttpClient);
+    }
+
+    /**
+     * Creates a client that uses the given, shared {@link AsyncHttpClient} and asks the supplier for the token of every
+     * request, e.g. a {@link VaultTokenManager} that renews the token.
+     */
+    public static VaultClient vaultClient(final ConfigProperties configProperties, final Supplier<String> vaultToken,
+                                          final AsyncHttpClient asyncHttpClient) {
+        return vaultClient(configProperties, vaultToken, new AsyncHttpClientTransport(asyncHttpClient));
+    }
+
+    /**
+     * Creates a client that sends its requests with the given, shared transport and asks the supplier for the token of
+     * every request. Closing the returned client does not close the shared transport.
+     */
+    public static VaultClient vaultClient(final ConfigProperties configProperties, final Supplier<String> vaultToken,
+                                          final VaultTransport transport) {
+        return vaultClient(configProperties, vaultToken, transport, false);
+    }
+
+    private static VaultClient vaultClient(final ConfigProperties configProperties, final Supplier<String> vaultToken,
+                                           final VaultTransport transport, final boolean ownsTransport) {
+        final VaultClient vaultClient = new VaultClient(configProperties.getBaseUrls(), configProperties.getSecretPath(),
+                vaultToken, transport, ownsTransport, configProperties.getMaxConcurrentReads())
+                .withKvVersion(configProperties.getKvVersion());
+        if (configProperties.isCacheEnabled()) {
+            vaultClient.withCache(new VaultSecretCache(configProperties.getCacheMaxEntries(), configProperties.getCacheTtl()));
+        }
+        return vaultClient;
     }
 
-    private VaultClient(final String vaultBaseUrl, final String secretPath, final String vaultToken) {
-        this.vaultBaseUrl = removeTrailingSlash(vaultBaseUrl);
+    private VaultClient(final List<String> vaultBaseUrls, final String secretPath, final Supplier<String> vaultToken,
+                        final VaultTransport transport, final boolean ownsTransport, final int maxConcurrentReads) {
+        this.nodes = new VaultNodes(vaultBaseUrls.stream().map(this::removeTrailingSlash).collect(toList()));
         this.secretPath = removeLeadingSlash(removeTrailingSlash(secretPath));
         this.vaultToken = vaultToken;
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.maxConcurrentReads = maxConcurrentReads;
     }
 
     public Map<String, String> readFields(final String key) {
+        return readSecret(key).getFields();
+    }
+
+    public VaultSecret readSecret(final String key) {
+        if (cache != null || nodeCache != null) {
+            return join(readSecretAsync(key));
+        }
+        final String url = urlFor(key);
         try {
-            final StringBuilder urlBuilder = new StringBuilder();
-            urlBuilder.append(vaultBaseUrl).append("/v1");
+            final VaultResponse response = retryPolicy.execute("read", circuitBreaker, metrics, () -> get(key));
+            return extractSecret(key, url, response, null);
+        } catch (ExecutionException | InterruptedException e) {
+            LOG.error(String.format("extract of vault property '%s' failed", key), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the fields of all given keys, keeping at most {@code maxConcurrentReads} requests in flight at once.
+     * The first failing read is rethrown after all reads have completed.
+     *
+     * @return the fields of every key, in the iteration order of {@code keys}
+     */
+    public Map<String, Map<String, String>> readFields(final Collection<String> keys, final int maxConcurrentReads) {
+        final Map<String, Map<String, String>> fields = new LinkedHashMap<>();
+        readSecrets(keys, maxConcurrentReads).forEach((key, secret) -> fields.put(key, secret.getFields()));
+        return fields;
+    }
+
+    /**
+     * Reads the secrets of all given keys like {@link #readFields(Collection, int)}, including their lease information.
+     */
+    public Map<String, VaultSecret> readSecrets(final Collection<String> keys, final int maxConcurrentReads) {
+        return readSecrets(keys, maxConcurrentReads, this::readSecretAsync);
+    }
+
+    /**
+     * Reads the secrets of all given keys like {@link #readSecrets(Collection, int)}, but keeps only the named fields
+     * of every secret. If this client has a cache, the complete secrets are read and cached.
+     *
+     * @param fieldNamesByKey the names of the fields to read, by key
+     */
+    public Map<String, VaultSecret> readSecrets(final Map<String, Set<String>> fieldNamesByKey, final int maxConcurrentReads) {
+        return readSecrets(fieldNamesByKey.keySet(), maxConcurrentReads,
+                key -> readSecretAsync(key, fieldNamesByKey.get(key)));
+    }
+
+    /**
+     * Reads the given version of the secret from a KV v2 secrets engine. Versioned reads are not cached.
+     */
+    public VaultSecret readSecret(final String key, final long version) {
+        return join(readSecretVersionAsync(key, version));
+    }
+
+    /**
+     * Reads the given version of the secret from a KV v2 secrets engine without blocking.
+     */
+    public CompletableFuture<VaultSecret> readSecretVersionAsync(final String key, final long version) {
+        requireKvVersion2();
+        final String path = pathFor(key, KV2_DATA) + "?version=" + version;
+        return fetchSecret(key, path, nodes.primary() + path, null);
+    }
+
+    /**
+     * Reads the current version of the secret from the metadata of a KV v2 secrets engine, without the secret itself.
+     */
+    public CompletableFuture<Long> readCurrentVersionAsync(final String key) {
+        requireKvVersion2();
+        final String path = pathFor(key, KV2_METADATA);
+        final String url = nodes.primary() + path;
+        final CompletableFuture<VaultResponse> response = new CompletableFuture<>();
+        fetchResponse(key, path, url, 1, response);
+        return response.thenApply(received -> extractCurrentVersion(key, url, received));
+    }
+
+    /**
+     * Reads the secrets like {@link #readSecrets(Map, int)}, but keeps the previous secret of a key if its version in
+     * a KV v2 secrets engine has not changed. Only the metadata of unchanged secrets is read. Keys without a previous
+     * secret, and all keys of a KV v1 secrets engine, are read in full.
+     *
+     * @param fieldNamesByKey the names of the fields to read by key, a null value reads all fields
+     * @param previous        the secrets of the last read, by key
+     */
+    public Map<String, VaultSecret> readSecretsIfChanged(final Map<String, Set<String>> fieldNamesByKey,
+                                                         final Map<String, VaultSecret> previous,
+                                                         final int maxConcurrentReads) {
+        return readSecrets(fieldNamesByKey.keySet(), maxConcurrentReads, key -> {
+            final VaultSecret last = previous.get(key);
+            if (kvVersion != 2 || last == null || last.getVersion() == 0) {
+                return readSecretAsync(key, fieldNamesByKey.get(key));
+            }
+            return readCurrentVersionAsync(key).thenCompose(currentVersion -> {
+                if (currentVersion == last.getVersion()) {
+                    return CompletableFuture.completedFuture(last);
+                }
+                LOG.info("vault property '{}' changed from version {} to {}", key, last.getVersion(), currentVersion);
+                if (cache != null) {
+                    cache.invalidate(urlFor(key));
+                }
+                return readSecretAsync(key, fieldNamesByKey.get(key));
+            });
+        });
+    }
+
+    private Map<String, VaultSecret> readSecrets(final Collection<String> keys, final int maxConcurrentReads,
+                                                 final Function<String, CompletableFuture<VaultSecret>> read) {
+        final Map<String, CompletableFuture<VaultSecret>> futures = BoundedFanOut.fanOut(keys, maxConcurrentReads, read);
+        join(CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])));
+        final Map<String, VaultSecret> secrets = new LinkedHashMap<>();
+        futures.forEach((key, future) -> secrets.put(key, future.join()));
+        return secrets;
+    }
+
+    /**
+     * Reads the fields of the key without blocking. The returned future is completed on a thread of the http client,
+     * so dependent stages must not block; use {@link #readFieldsAsync(String, Executor)} to run them elsewhere.
+     */
+    public CompletableFuture<Map<String, String>> readFieldsAsync(final String key) {
+        return readSecretAsync(key).thenApply(VaultSecret::getFields);
+    }
+
+    /**
+     * Reads the fields of the key like {@link #readFieldsAsync(String)}, but completes the returned future on the given
+     * executor.
+     */
+    public CompletableFuture<Map<String, String>> readFieldsAsync(final String key, final Executor executor) {
+        return readSecretAsync(key).thenApplyAsync(VaultSecret::getFields, executor);
+    }
+
+    /**
+     * Reads the fields of all keys without blocking, keeping at most edison.vault.max-concurrent-reads requests in
+     * flight. The returned future completes once every read has finished and is never completed exceptionally; keys
+     * that could not be read are reported in {@link VaultReadResult#getFailures()}.
+     */
+    public CompletableFuture<VaultReadResult> readAllAsync(final Collection<String> keys) {
+        return readAll(keys);
+    }
+
+    /**
+     * Reads the fields of all keys like {@link #readAllAsync(Collection)}, but completes the returned future on the
+     * given executor.
+     */
+    public CompletableFuture<VaultReadResult> readAllAsync(final Collection<String> keys, final Executor executor) {
+        return readAll(keys).thenApplyAsync(Function.identity(), executor);
+    }
 
-            if (!StringUtils.isEmpty(secretPath)) {
-                urlBuilder.append("/").append(secretPath);
+    private CompletableFuture<VaultReadResult> readAll(final Collection<String> keys) {
+        final Map<String, CompletableFuture<VaultSecret>> futures =
+                BoundedFanOut.fanOut(keys, maxConcurrentReads, this::readSecretAsync);
+        return CompletableFuture
+                .allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, throwable) -> {
+                    final Map<String, Map<String, String>> fields = new LinkedHashMap<>();
+                    final Map<String, Throwable> failures = new LinkedHashMap<>();
+                    futures.forEach((key, future) -> future.handle((secret, failure) -> {
+                        if (failure != null) {
+                            failures.put(key, failure instanceof CompletionException ? failure.getCause() : failure);
+                        } else {
+                            fields.put(key, secret.getFields());
+                        }
+                        return null;
+                    }));
+                    return new VaultReadResult(fields, failures);
+                });
+    }
+
+    CompletableFuture<VaultSecret> readSecretAsync(final String key) {
+        return readSecretAsync(key, null);
+    }
+
+    private CompletableFuture<VaultSecret> readSecretAsync(final String key, final Set<String> fieldNames) {
+        final String url = urlFor(key);
+        if (cache != null) {
+            return cache.get(url, cacheMiss -> loadSecret(key, url, null));
+        }
+        return loadSecret(key, url, fieldNames);
+    }
+
+    /**
+     * Takes the secret from the node cache if there is one and the token has passed the token check, otherwise reads
+     * the complete secret from vault and stores it in the node cache.
+     */
+    private CompletableFuture<VaultSecret> loadSecret(final String key, final String url, final Set<String> fieldNames) {
+        if (nodeCache == null) {
+            return fetchSecret(key, pathFor(key), url, fieldNames);
+        }
+        if (isTokenChecked()) {
+            final VaultSecret shared = nodeCache.get(url);
+            if (shared != null) {
+                return CompletableFuture.completedFuture(shared);
             }
+        }
+        return fetchSecret(key, pathFor(key), url, null).thenApply(secret -> {
+            nodeCache.put(url, secret);
+            return secret;
+        });
+    }
 
-            if (!StringUtils.isEmpty(key)) {
-                urlBuilder.append("/").append(key);
+    /**
+     * Checks a changed token on the token check executor, so the check does not block an http client thread.
+     */
+    private boolean isTokenChecked() {
+        final String token = vaultToken.get();
+        if (token.equals(checkedToken)) {
+            return true;
+        }
+        if (checkingToken.compareAndSet(false, true)) {
+            try {
+                tokenCheckExecutor.execute(() -> {
+                    try {
+                        checkToken(token);
+                    } finally {
+                        checkingToken.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                checkingToken.set(false);
+                LOG.debug("token check executor is shut down, changed vault token is not checked");
             }
+        }
+        return false;
+    }
+
+    private void checkToken(final String token) {
+        if (nodeCacheTokenCheck.test(token)) {
+            checkedToken = token;
+        }
+    }
 
-            final String url = urlBuilder.toString();
-            final Response response = asyncHttpClient
-                    .prepareGet(url)
-                    .setHeader("X-Vault-Token", vaultToken)
-                    .execute()
-                    .get();
-            if ((response.getStatusCode() != 200)) {
-                LOG.error("can't read vault property '{}' with token '{}' from url '{}'", key, vaultToken, url);
-                throw new RuntimeException(
-                        String.format("read of vault property '%s' with token '%s' from url '%s' failed, return code is '%s'",
-                                key, vaultToken, url, response.getStatusCode()));
+    /**
+     * Reads the secret from vault, bypassing the caches, and replaces the cached secret. Used to get new credentials
+     * of a dynamic secret whose lease can not be renewed any more.
+     */
+    public CompletableFuture<VaultSecret> readFreshSecretAsync(final String key) {
+        final String url = urlFor(key);
+        if (cache != null) {
+            cache.invalidate(url);
+        }
+        return fetchSecret(key, pathFor(key), url, null).thenApply(secret -> {
+            if (nodeCache != null) {
+                nodeCache.put(url, secret);
             }
-            LOG.info("read of vault property '{}' successful", key);
+            return secret;
+        });
+    }
 
-            return extractFields(response.getResponseBody(Charset.forName("utf-8")));
-        } catch (ExecutionException | InterruptedException e) {
-            LOG.error(String.format("extract of vault property '%s' failed", key), e);
-            throw new RuntimeException(e);
+    /**
+     * Extends the lease of a dynamic secret by {@code sys/leases/renew}. The returned secret only carries the renewed
+     * lease, not the fields of the secret. Vault may grant a shorter lease than requested, e.g. at the max ttl.
+     *
+     * @param increment the requested lease duration in seconds
+     */
+    public CompletableFuture<VaultSecret> renewLeaseAsync(final String leaseId, final long increment) {
+        final String baseUrl = nodes.primary();
+        final String body = "{\"lease_id\":\"" + leaseId + "\",\"increment\":" + increment + "}";
+        return limited(() -> {
+            final long startedAt = System.nanoTime();
+            return transport
+                    .executeAsync(VaultRequest.put(baseUrl + "/v1/sys/leases/renew")
+                            .withHeader("X-Vault-Token", vaultToken.get())
+                            .withBody(body))
+                    .whenComplete((response, throwable) -> metrics.recordRead("sys/leases/renew",
+                            response != null ? response.getStatusCode() : 0, System.nanoTime() - startedAt));
+        }).thenApply(response -> extractLease(leaseId, response));
+    }
+
+    /**
+     * Lists the keys below the key without blocking, like {@code vault list}. Keys of sub directories end with a slash.
+     * The returned future is completed with an empty list if there are no keys below the key.
+     */
+    public CompletableFuture<List<String>> listKeysAsync(final String key) {
+        final String path = pathFor(key, KV2_METADATA) + LIST_QUERY;
+        final String url = nodes.primary() + path;
+        final CompletableFuture<VaultResponse> response = new CompletableFuture<>();
+        fetchResponse(key, path, url, 1, response);
+        return response
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        LOG.error(String.format("list of vault path '%s' failed", key), throwable);
+                    }
+                })
+                .thenApply(received -> extractKeys(key, url, received));
+    }
+
+    /**
+     * Sends all requests of this client through the limiter.
+     */
+    public VaultClient withLimiter(final RequestLimiter limiter) {
+        this.limiter = limiter;
+        return this;
+    }
+
+    /**
+     * Puts a cache in front of all reads of this client.
+     */
+    public VaultClient withCache(final VaultSecretCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Shares the secrets read by this client with the other processes on this host. Secrets are only taken from the
+     * node cache while the current token has passed the token check, e.g. a lookup of the token in vault. The current
+     * token is checked right away, tokens that change later on are checked on the given executor.
+     */
+    public VaultClient withNodeCache(final VaultNodeCache nodeCache, final Predicate<String> tokenCheck,
+                                     final Executor tokenCheckExecutor) {
+        this.nodeCache = nodeCache;
+        this.nodeCacheTokenCheck = tokenCheck;
+        this.tokenCheckExecutor = tokenCheckExecutor;
+        checkToken(vaultToken.get());
+        return this;
+    }
+
+    /**
+     * Reports the latency, status and response size of every read to the given metrics.
+     */
+    public VaultClient withMetrics(final VaultMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Retries reads that failed with a transient error. Blocking reads wait on the calling thread, asynchronous reads
+     * are retried on the given scheduler.
+     *
+     * @param circuitBreaker rejects reads while vault is down, may be null
+     */
+    public VaultClient withRetries(final RetryPolicy retryPolicy, final CircuitBreaker circuitBreaker,
+                                   final ScheduledExecutorService retryScheduler) {
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.retryScheduler = retryScheduler;
+        return this;
+    }
+
+    /**
+     * Sends a second read to another vault node if the fastest node has not answered within the given percentile of
+     * the recently measured latencies, and uses whichever response arrives first. A read that failed on one node is
+     * sent to the next one right away. Has no effect if only one node is configured.
+     *
+     * @param percentile     the percentile of the latencies after which the second read is sent
+     * @param minDelayMillis the minimum time to wait for the first node
+     * @param hedgeScheduler schedules the second reads
+     */
+    public VaultClient withHedgedReads(final int percentile, final long minDelayMillis,
+                                       final ScheduledExecutorService hedgeScheduler) {
+        this.hedgePercentile = percentile;
+        this.hedgeMinDelayMillis = minDelayMillis;
+        this.hedgeScheduler = hedgeScheduler;
+        return this;
+    }
+
+    /**
+     * Reads from a KV v2 secrets engine if the version is 2. The first segment of the secret path is then taken as the
+     * mount of the secrets engine, e.g. the key db of the secret path secret/app is read from secret/data/app/db.
+     */
+    public VaultClient withKvVersion(final int kvVersion) {
+        if (kvVersion == 2 && StringUtils.isEmpty(secretPath)) {
+            throw new IllegalArgumentException("a secret path starting with the mount is required for kv version 2");
+        }
+        this.kvVersion = kvVersion;
+        return this;
+    }
+
+    /**
+     * @return the cache of this client, or null if reads are not cached
+     */
+    public VaultSecretCache getCache() {
+        return cache;
+    }
+
+    private CompletableFuture<VaultSecret> fetchSecret(final String key, final String path, final String url,
+                                                       final Set<String> fieldNames) {
+        final CompletableFuture<VaultResponse> response = new CompletableFuture<>();
+        fetchResponse(key, path, url, 1, response);
+        return response
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        LOG.error(String.format("extract of vault property '%s' failed", key), throwable);
+                    }
+                })
+                .thenApply(received -> extractSecret(key, url, received, fieldNames));
+    }
+
+    /**
+     * Sends the read and completes the result with its response. Transient failures are retried on the retry scheduler.
+     */
+    private void fetchResponse(final String key, final String path, final String url, final int attempt,
+                               final CompletableFuture<VaultResponse> result) {
+        if (circuitBreaker != null) {
+            try {
+                circuitBreaker.acquire();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+        }
+        sendHedged(key, path)
+                .whenComplete((response, throwable) -> {
+                    final boolean transientFailure = throwable != null
+                            ? RetryPolicy.isTransient(throwable)
+                            : RetryPolicy.isTransient(response.getStatusCode());
+                    if (circuitBreaker != null) {
+                        if (transientFailure) {
+                            circuitBreaker.onFailure();
+                        } else if (throwable == null) {
+                            circuitBreaker.onSuccess();
+                        }
+                    }
+                    if (transientFailure && attempt < retryPolicy.getMaxAttempts() && scheduleRetry(key, path, url, attempt, result)) {
+                        return;
+                    }
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+    }
+
+    private boolean scheduleRetry(final String key, final String path, final String url, final int attempt,
+                                  final CompletableFuture<VaultResponse> result) {
+        if (retryScheduler == null) {
+            return false;
+        }
+        final long backoff = retryPolicy.backoffMillis(attempt);
+        try {
+            retryScheduler.schedule(() -> fetchResponse(key, path, url, attempt + 1, result), backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        LOG.warn("read of vault property '{}' failed, retrying in {} ms", key, backoff);
+        metrics.recordRetry("read");
+        return true;
+    }
+
+    /**
+     * Sends the read to the fastest node and, if hedged reads are enabled, to the next fastest one after the hedge
+     * delay or as soon as the first node failed. The returned future is completed with the first response that is not
+     * a transient failure, or with the last failure if no node answered. The slower read is not aborted, because that
+     * would close its connection.
+     */
+    private CompletableFuture<VaultResponse> sendHedged(final String key, final String path) {
+        final List<String> baseUrls = nodes.byLatency();
+        if (hedgeScheduler == null || baseUrls.size() < 2) {
+            return send(key, baseUrls.get(0), path);
+        }
+        final CompletableFuture<VaultResponse> result = new CompletableFuture<>();
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final AtomicBoolean hedgeSent = new AtomicBoolean();
+        final Runnable hedge = () -> {
+            outstanding.incrementAndGet();
+            if (result.isDone() || !hedgeSent.compareAndSet(false, true)) {
+                outstanding.decrementAndGet();
+                return;
+            }
+            send(key, baseUrls.get(1), path).whenComplete(
+                    (response, throwable) -> completeHedged(result, outstanding, null, response, throwable));
+        };
+        final long delay = nodes.hedgeDelayMillis(hedgePercentile, hedgeMinDelayMillis);
+        ScheduledFuture<?> timer;
+        try {
+            timer = hedgeScheduler.schedule(() -> {
+                if (!result.isDone()) {
+                    LOG.debug("no answer for vault property '{}' after {} ms, sending hedged read to {}", key, delay, baseUrls.get(1));
+                    metrics.recordHedgedRead(key);
+                    hedge.run();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return send(key, baseUrls.get(0), path);
+        }
+        send(key, baseUrls.get(0), path).whenComplete((response, throwable) -> {
+            if (!isUsable(response, throwable)) {
+                timer.cancel(false);
+                hedge.run();
+            }
+            completeHedged(result, outstanding, timer, response, throwable);
+        });
+        return result;
+    }
+
+    private static void completeHedged(final CompletableFuture<VaultResponse> result, final AtomicInteger outstanding,
+                                       final ScheduledFuture<?> timer, final VaultResponse response, final Throwable throwable) {
+        if (isUsable(response, throwable)) {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            result.complete(response);
+        } else if (outstanding.decrementAndGet() == 0) {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(response);
+            }
+        }
+    }
+
+    private static boolean isUsable(final VaultResponse response, final Throwable throwable) {
+        return throwable == null && !RetryPolicy.isTransient(response.getStatusCode());
+    }
+
+    private CompletableFuture<VaultResponse> send(final String key, final String baseUrl, final String path) {
+        return limited(() -> {
+            final long startedAt = System.nanoTime();
+            return transport
+                    .executeAsync(VaultRequest.get(baseUrl + path).withHeader("X-Vault-Token", vaultToken.get()))
+                    .whenComplete((response, throwable) -> onResponse(key, baseUrl, startedAt, response));
+        });
+    }
+
+    /**
+     * Sends the request through the limiter, if there is one. The token is read when the request is actually sent.
+     */
+    private CompletableFuture<VaultResponse> limited(final Supplier<CompletableFuture<VaultResponse>> request) {
+        return limiter != null ? limiter.execute(request) : request.get();
+    }
+
+    private VaultResponse get(final String key) throws ExecutionException, InterruptedException {
+        if (limiter != null) {
+            return send(key, nodes.byLatency().get(0), pathFor(key)).get();
+        }
+        final String baseUrl = nodes.byLatency().get(0);
+        final long startedAt = System.nanoTime();
+        VaultResponse response = null;
+        try {
+            response = transport.execute(VaultRequest.get(baseUrl + pathFor(key))
+                    .withHeader("X-Vault-Token", vaultToken.get()));
+            return response;
+        } finally {
+            onResponse(key, baseUrl, startedAt, response);
+        }
+    }
+
+    private void onResponse(final String key, final String baseUrl, final long startedAt, final VaultResponse response) {
+        final long duration = System.nanoTime() - startedAt;
+        metrics.recordRead(key, response != null ? response.getStatusCode() : 0, duration);
+        if (response == null || RetryPolicy.isTransient(response.getStatusCode())) {
+            nodes.onFailure(baseUrl);
+        } else {
+            nodes.onSuccess(baseUrl, duration);
+        }
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the url of the key on the first configured node, which identifies the secret in the cache and in
+     * error messages regardless of the node it is read from
+     */
+    private String urlFor(final String key) {
+        return nodes.primary() + pathFor(key);
+    }
+
+    private String pathFor(final String key) {
+        return pathFor(key, KV2_DATA);
+    }
+
+    /**
+     * @param kv2Segment the segment that is inserted after the mount of a KV v2 secrets engine
+     */
+    private String pathFor(final String key, final String kv2Segment) {
+        final StringBuilder urlBuilder = new StringBuilder();
+        urlBuilder.append("/v1");
+
+        if (kvVersion == 2) {
+            final int mountEnd = secretPath.indexOf('/');
+            if (mountEnd < 0) {
+                urlBuilder.append("/").append(secretPath).append("/").append(kv2Segment);
+            } else {
+                urlBuilder.append("/").append(secretPath, 0, mountEnd).append("/").append(kv2Segment)
+                        .append(secretPath, mountEnd, secretPath.length());
+            }
+        } else if (!StringUtils.isEmpty(secretPath)) {
+            urlBuilder.append("/").append(secretPath);
+        }
+
+        if (!StringUtils.isEmpty(key)) {
+            urlBuilder.append("/").append(key);
+        }
+
+        return urlBuilder.toString();
+    }
+
+    private VaultSecret extractSecret(final String key, final String url, final VaultResponse response,
+                                      final Set<String> fieldNames) {
+        if ((response.getStatusCode() != 200)) {
+            final String vaultToken = this.vaultToken.get();
+            LOG.error("can't read vault property '{}' with token '{}' from url '{}'", key, vaultToken, url);
+            throw new RuntimeException(
+                    String.format("read of vault property '%s' with token '%s' from url '%s' failed, return code is '%s'",
+                            key, vaultToken, url, response.getStatusCode()));
+        }
+        LOG.info("read of vault property '{}' successful", key);
+
+        final CountingInputStream body = new CountingInputStream(response.getResponseBodyAsStream());
+        try {
+            return kvVersion == 2
+                    ? VaultResponseParser.parseVersionedSecret(body, fieldNames)
+                    : VaultResponseParser.parseSecret(body, fieldNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("could not parse vault property '%s'", key), e);
+        } finally {
+            metrics.recordResponseSize(key, body.count);
+        }
+    }
+
+    private VaultSecret extractLease(final String leaseId, final VaultResponse response) {
+        if (response.getStatusCode() != 200) {
+            throw new RuntimeException(String.format("renewal of vault lease '%s' failed, return code is '%s'",
+                    leaseId, response.getStatusCode()));
+        }
+        try {
+            return VaultResponseParser.parseSecret(response.getResponseBodyAsStream(), Collections.emptySet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("could not parse renewal of vault lease '%s'", leaseId), e);
+        }
+    }
+
+    private long extractCurrentVersion(final String key, final String url, final VaultResponse response) {
+        if (response.getStatusCode() != 200) {
+            LOG.error("can't read metadata of vault property '{}' from url '{}'", key, url);
+            throw new RuntimeException(String.format("read of metadata of vault property '%s' from url '%s' failed, return code is '%s'",
+                    key, url, response.getStatusCode()));
+        }
+        try {
+            return VaultResponseParser.parseCurrentVersion(response.getResponseBodyAsStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("could not parse metadata of vault property '%s'", key), e);
+        }
+    }
+
+    private void requireKvVersion2() {
+        if (kvVersion != 2) {
+            throw new IllegalStateException("versions can only be read from a kv version 2 secrets engine");
         }
     }
 
-    private Map<String, String> extractFields(final String responseBody) {
-        Map<String, Object> responseMap = new Gson().fromJson(responseBody, Map.class);
-        return (Map<String, String>) responseMap.get("data");
+    private List<String> extractKeys(final String key, final String url, final VaultResponse response) {
+        if (response.getStatusCode() == 404) {
+            return Collections.emptyList();
+        }
+        if (response.getStatusCode() != 200) {
+            LOG.error("can't list vault path '{}' from url '{}'", key, url);
+            throw new RuntimeException(String.format("list of vault path '%s' from url '%s' failed, return code is '%s'",
+                    key, url, response.getStatusCode()));
+        }
+        final CountingInputStream body = new CountingInputStream(response.getResponseBodyAsStream());
+        try {
+            return VaultResponseParser.parseKeys(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("could not parse list of vault path '%s'", key), e);
+        } finally {
+            metrics.recordResponseSize(key, body.count);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsTransport) {
+            transport.close();
+        }
     }
 
     private String removeTrailingSlash(final String url) {
@@ -89,4 +817,38 @@ public class VaultClient {
         }
         return url;
     }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
 }
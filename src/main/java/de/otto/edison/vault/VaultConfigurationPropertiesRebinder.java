@@ -0,0 +1,103 @@
+package de.otto.edison.vault;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationBeanFactoryMetaData;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBindingPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the {@link ConfigurationProperties} beans whose prefix overlaps the changed vault properties again, instead of
+ * refreshing the whole context. Both annotated classes and {@code @Bean} methods annotated with
+ * {@link ConfigurationProperties} are found. Beans that have copied a value at construction time keep the old value;
+ * only the properties of the annotated beans themselves are updated.
+ * <p>
+ * Prefixes and property names are compared after removing dashes and underscores and ignoring case, similar to the
+ * relaxed binding of Spring Boot, so that a bean is rather bound once too often than missed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "edison.vault", name = "enableconfigurer", matchIfMissing = true)
+public class VaultConfigurationPropertiesRebinder implements ApplicationListener<VaultPropertiesChangedEvent>, BeanFactoryAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultConfigurationPropertiesRebinder.class);
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(final BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public void onApplicationEvent(final VaultPropertiesChangedEvent event) {
+        final Map<String, ConfigurationPropertiesBindingPostProcessor> binders =
+                beanFactory.getBeansOfType(ConfigurationPropertiesBindingPostProcessor.class, false, false);
+        if (binders.isEmpty()) {
+            LOG.debug("configuration properties binding is not enabled, no beans are bound again");
+            return;
+        }
+        final ConfigurationPropertiesBindingPostProcessor binder = binders.values().iterator().next();
+        configurationPropertiesBeans().forEach((beanName, annotation) -> {
+            if (beanFactory.containsSingleton(beanName) && overlaps(prefix(annotation), event.getChangedProperties())) {
+                binder.postProcessBeforeInitialization(beanFactory.getBean(beanName), beanName);
+                LOG.info("bound configuration properties bean '{}' again after vault properties have changed", beanName);
+            }
+        });
+    }
+
+    /**
+     * @return the annotation of every bean whose class or {@code @Bean} method is annotated with
+     * {@link ConfigurationProperties}, by bean name. The annotation of the method wins, like in the binder.
+     */
+    private Map<String, ConfigurationProperties> configurationPropertiesBeans() {
+        final Map<String, ConfigurationProperties> annotations = new LinkedHashMap<>();
+        for (final String beanName : beanFactory.getBeanNamesForAnnotation(ConfigurationProperties.class)) {
+            annotations.put(beanName, beanFactory.findAnnotationOnBean(beanName, ConfigurationProperties.class));
+        }
+        final Map<String, ConfigurationBeanFactoryMetaData> factoryMetaData =
+                beanFactory.getBeansOfType(ConfigurationBeanFactoryMetaData.class, false, false);
+        for (final ConfigurationBeanFactoryMetaData metaData : factoryMetaData.values()) {
+            for (final String beanName : beanFactory.getBeanDefinitionNames()) {
+                final ConfigurationProperties annotation = metaData.findFactoryAnnotation(beanName, ConfigurationProperties.class);
+                if (annotation != null) {
+                    annotations.put(beanName, annotation);
+                }
+            }
+        }
+        return annotations;
+    }
+
+    private static String prefix(final ConfigurationProperties annotation) {
+        return annotation.prefix().isEmpty() ? annotation.value() : annotation.prefix();
+    }
+
+    /**
+     * @return true if one of the properties is below the prefix. An empty prefix overlaps all properties.
+     */
+    static boolean overlaps(final String prefix, final Collection<String> properties) {
+        final String relaxedPrefix = relaxed(prefix);
+        if (relaxedPrefix.isEmpty()) {
+            return !properties.isEmpty();
+        }
+        return properties
+                .stream()
+                .map(VaultConfigurationPropertiesRebinder::relaxed)
+                .anyMatch(property -> property.equals(relaxedPrefix) || property.startsWith(relaxedPrefix + "."));
+    }
+
+    private static String relaxed(final String name) {
+        return name.replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
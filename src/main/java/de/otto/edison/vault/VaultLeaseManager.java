@@ -0,0 +1,232 @@
+package de.otto.edison.vault;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the leases of dynamic secrets, e.g. database credentials, alive. Renewable leases are renewed after two thirds
+ * of their duration. Leases that are not renewable, can not be extended any further or fail to renew are replaced by
+ * reading new credentials before the old ones expire, and the new secret is handed to the rotation listeners.
+ * <p>
+ * Leases are kept in a hashed timing wheel that is advanced once per tick on the given scheduler. A tick only looks at
+ * one bucket of the wheel, so its cost does not grow with the number of leases but with leases per bucket. The leases
+ * that are due in the same tick are renewed or replaced concurrently, with at most {@code maxConcurrentRequests}
+ * requests in flight.
+ */
+public class VaultLeaseManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultLeaseManager.class);
+
+    static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MIN_RENEWAL_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final VaultClient vaultClient;
+    private final ScheduledExecutorService scheduler;
+    private final long tickMillis;
+    private final int maxConcurrentRequests;
+    private final List<ArrayDeque<Lease>> wheel;
+    private final Map<String, Lease> leasesByPath = new HashMap<>();
+    private final List<BiConsumer<String, VaultSecret>> rotationListeners = new CopyOnWriteArrayList<>();
+    private long currentTick;
+
+    public VaultLeaseManager(final VaultClient vaultClient, final ScheduledExecutorService scheduler,
+                             final long tickMillis, final int wheelSize) {
+        this(vaultClient, scheduler, tickMillis, wheelSize, ConfigProperties.DEFAULT_MAX_CONCURRENT_READS);
+    }
+
+    /**
+     * @param tickMillis            the resolution of renewals in milliseconds
+     * @param wheelSize             the number of buckets of the timing wheel, leases due later than wheelSize ticks
+     *                              wait for further turns of the wheel
+     * @param maxConcurrentRequests the maximum number of renewals and reads of new credentials in flight
+     */
+    public VaultLeaseManager(final VaultClient vaultClient, final ScheduledExecutorService scheduler,
+                             final long tickMillis, final int wheelSize, final int maxConcurrentRequests) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheel size of the lease manager must be positive");
+        }
+        this.vaultClient = vaultClient;
+        this.scheduler = scheduler;
+        this.tickMillis = tickMillis;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Starts advancing the timing wheel on the scheduler.
+     */
+    public void start() {
+        try {
+            scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("scheduler is shut down, vault leases are not renewed");
+        }
+    }
+
+    /**
+     * Registers a listener that is called with the secret path and the new secret whenever a secret had to be read
+     * again because its lease could not be renewed.
+     */
+    public void addRotationListener(final BiConsumer<String, VaultSecret> listener) {
+        rotationListeners.add(listener);
+    }
+
+    /**
+     * Tracks the lease of the secret that has been read from the path, replacing the lease of a former read of the
+     * same path. Secrets without a lease, like static kv secrets, are not tracked.
+     */
+    public synchronized void track(final String path, final VaultSecret secret) {
+        final Lease former = leasesByPath.remove(path);
+        if (former != null) {
+            former.cancelled = true;
+        }
+        if (!hasLease(secret)) {
+            return;
+        }
+        final Lease lease = new Lease(path, secret);
+        leasesByPath.put(path, lease);
+        schedule(lease, lease.renewable ? Action.RENEW : Action.ROTATE, renewalDelayInMillis(secret.getLeaseDuration()));
+    }
+
+    public synchronized int getLeaseCount() {
+        return leasesByPath.size();
+    }
+
+    /**
+     * Advances the wheel by one tick and renews or replaces the leases that are due.
+     */
+    void tick() {
+        final Map<String, Lease> due = new LinkedHashMap<>();
+        synchronized (this) {
+            currentTick++;
+            final Iterator<Lease> bucket = wheel.get((int) (currentTick % wheel.size())).iterator();
+            while (bucket.hasNext()) {
+                final Lease lease = bucket.next();
+                if (lease.cancelled) {
+                    bucket.remove();
+                } else if (lease.dueTick <= currentTick) {
+                    bucket.remove();
+                    due.put(lease.path, lease);
+                }
+            }
+        }
+        if (!due.isEmpty()) {
+            LOG.debug("{} vault leases are due", due.size());
+            BoundedFanOut.fanOut(due.keySet(), maxConcurrentRequests, path -> process(due.get(path)));
+        }
+    }
+
+    private CompletableFuture<Void> process(final Lease lease) {
+        return lease.action == Action.RENEW ? renew(lease) : rotate(lease);
+    }
+
+    /**
+     * @return a future that is completed once the lease is renewed or, if that failed, replaced
+     */
+    private CompletableFuture<Void> renew(final Lease lease) {
+        final VaultSecret secret = lease.secret;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        vaultClient.renewLeaseAsync(secret.getLeaseId(), lease.increment).whenComplete((renewed, throwable) -> {
+            if (throwable != null || renewed.getLeaseDuration() <= 0) {
+                LOG.warn("renewal of vault lease of '{}' failed, reading new credentials: {}", lease.path,
+                        throwable != null ? throwable.toString() : "no lease returned");
+                rotate(lease).whenComplete((ignored, rotationFailure) -> done.complete(null));
+                return;
+            }
+            lease.secret = new VaultSecret(secret.getFields(), secret.getLeaseId(), renewed.getLeaseDuration(),
+                    renewed.isRenewable(), secret.getVersion());
+            final boolean extensible = renewed.isRenewable() && renewed.getLeaseDuration() >= lease.increment;
+            if (!extensible) {
+                LOG.info("vault lease of '{}' reaches its max ttl, new credentials are read before it expires", lease.path);
+            }
+            schedule(lease, extensible ? Action.RENEW : Action.ROTATE, renewalDelayInMillis(renewed.getLeaseDuration()));
+            done.complete(null);
+        });
+        return done;
+    }
+
+    private CompletableFuture<Void> rotate(final Lease lease) {
+        return vaultClient.readFreshSecretAsync(lease.path).handle((secret, throwable) -> {
+            if (throwable != null) {
+                LOG.warn("could not read new credentials of '{}', trying again in {} ms: {}", lease.path,
+                        RETRY_DELAY_MILLIS, throwable.toString());
+                schedule(lease, Action.ROTATE, RETRY_DELAY_MILLIS);
+                return null;
+            }
+            synchronized (this) {
+                if (lease.cancelled) {
+                    return null;
+                }
+                track(lease.path, secret);
+            }
+            LOG.info("read new credentials of '{}'", lease.path);
+            rotationListeners.forEach(listener -> {
+                try {
+                    listener.accept(lease.path, secret);
+                } catch (RuntimeException e) {
+                    LOG.warn("listener for new credentials of '" + lease.path + "' failed", e);
+                }
+            });
+            return null;
+        });
+    }
+
+    private synchronized void schedule(final Lease lease, final Action action, final long delayInMillis) {
+        if (lease.cancelled) {
+            return;
+        }
+        final long ticks = Math.max(1, (delayInMillis + tickMillis - 1) / tickMillis);
+        lease.action = action;
+        lease.dueTick = currentTick + ticks;
+        wheel.get((int) (lease.dueTick % wheel.size())).add(lease);
+    }
+
+    /**
+     * A lease is renewed or replaced after two thirds of its duration, so that there is time left for retries.
+     */
+    static long renewalDelayInMillis(final long leaseDuration) {
+        return Math.max(MIN_RENEWAL_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(leaseDuration) * 2 / 3);
+    }
+
+    private static boolean hasLease(final VaultSecret secret) {
+        return secret.getLeaseId() != null && !secret.getLeaseId().isEmpty() && secret.getLeaseDuration() > 0;
+    }
+
+    private enum Action {
+        RENEW, ROTATE
+    }
+
+    private static class Lease {
+        final String path;
+        final long increment;
+        final boolean renewable;
+        volatile VaultSecret secret;
+        Action action;
+        long dueTick;
+        boolean cancelled;
+
+        Lease(final String path, final VaultSecret secret) {
+            this.path = path;
+            this.secret = secret;
+            this.increment = secret.getLeaseDuration();
+            this.renewable = secret.isRenewable();
+        }
+    }
+}
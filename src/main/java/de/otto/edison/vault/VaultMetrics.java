@@ -0,0 +1,63 @@
+package de.otto.edison.vault;
+
+/**
+ * Receives measurements of the requests to vault. All methods do nothing by default, so implementations only override
+ * what they want to record. Implementations are called from http client threads and must not block.
+ */
+public interface VaultMetrics {
+
+    VaultMetrics NOOP = new VaultMetrics() {
+    };
+
+    /**
+     * @param success       whether vault returned a token
+     * @param durationNanos time from sending the login request until the response was received
+     */
+    default void recordLogin(final boolean success, final long durationNanos) {
+    }
+
+    /**
+     * @param path          the path of the secret, relative to the secret path
+     * @param statusCode    the http status of the response, or 0 if no response was received
+     * @param durationNanos time from sending the request until the response was received
+     */
+    default void recordRead(final String path, final int statusCode, final long durationNanos) {
+    }
+
+    /**
+     * @param path  the path of the secret, relative to the secret path
+     * @param bytes the size of the response body
+     */
+    default void recordResponseSize(final String path, final long bytes) {
+    }
+
+    /**
+     * @param operation the operation that is retried, e.g. {@code token-renewal}
+     */
+    default void recordRetry(final String operation) {
+    }
+
+    /**
+     * @param path the path of the secret that was read from a second vault node because the first was slow
+     */
+    default void recordHedgedRead(final String path) {
+    }
+
+    /**
+     * @param durationNanos time spent in the constructor of the {@link VaultPropertySource}
+     */
+    default void recordPropertySourceInitialization(final long durationNanos) {
+    }
+
+    /**
+     * @param durationNanos time a request waited in the {@link RequestLimiter} before it was sent
+     */
+    default void recordLimiterQueueTime(final long durationNanos) {
+    }
+
+    /**
+     * @param limit the new concurrency limit of the {@link RequestLimiter}
+     */
+    default void recordConcurrencyLimit(final int limit) {
+    }
+}
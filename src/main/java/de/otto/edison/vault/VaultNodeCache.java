@@ -0,0 +1,294 @@
+package de.otto.edison.vault;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * A cache of vault secrets that is shared by all processes on a host through a memory-mapped file, so that only the
+ * first process reads a secret from vault. Entries are encrypted with a {@link SecretCipher} and expire after the
+ * configured ttl, or earlier if the lease of the secret is shorter.
+ * <p>
+ * The file starts with a header (magic, slot count, slot size), followed by fixed-size slots. Each slot holds a
+ * sequence number, the hash of the url, the expiry in epoch millis, the length of the entry and the encrypted entry.
+ * Writers lock the slot in the file and make the sequence number odd while they write it; readers do not lock, they
+ * retry if the sequence number was odd or has changed while they read the slot. Torn reads that slip through are
+ * rejected by the authentication tag of the encrypted entry.
+ */
+public class VaultNodeCache implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultNodeCache.class);
+
+    private static final int MAGIC = 0x45564e43;
+    private static final int HEADER_SIZE = 16;
+    private static final int SEQUENCE = 0;
+    private static final int KEY_HASH = 8;
+    private static final int EXPIRES_AT = 16;
+    private static final int LENGTH = 24;
+    private static final int SLOT_HEADER_SIZE = 28;
+    private static final int PROBES = 4;
+    private static final int READ_ATTEMPTS = 3;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+    private final long ttlMillis;
+    private final SecretCipher cipher;
+    private final LongSupplier clock;
+    private final Gson gson = new Gson();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private VaultNodeCache(final Path file, final FileChannel channel, final int slotCount, final int slotSize,
+                           final long ttlMillis, final SecretCipher cipher, final LongSupplier clock) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.ttlMillis = ttlMillis;
+        this.cipher = cipher;
+        this.clock = clock;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * slotSize);
+    }
+
+    /**
+     * Opens the cache file, or creates it if it does not exist yet. If another process has created the file with a
+     * different number or size of slots, the layout of the file is used.
+     *
+     * @param slots    the number of cached secrets
+     * @param slotSize the size of a slot in bytes, secrets that do not fit into a slot are not cached
+     * @param ttl      maximum time in seconds a secret is cached
+     */
+    public static VaultNodeCache open(final Path file, final int slots, final int slotSize, final int ttl,
+                                      final SecretCipher cipher) throws IOException {
+        return open(file, slots, slotSize, ttl, cipher, System::currentTimeMillis);
+    }
+
+    static VaultNodeCache open(final Path file, final int slots, final int slotSize, final int ttl,
+                               final SecretCipher cipher, final LongSupplier clock) throws IOException {
+        if (slots <= 0 || slotSize <= SLOT_HEADER_SIZE) {
+            throw new IllegalArgumentException("node cache needs at least one slot larger than " + SLOT_HEADER_SIZE + " bytes");
+        }
+        if (HEADER_SIZE + (long) slots * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("node cache must not be larger than 2 GB");
+        }
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final boolean created = !Files.exists(file);
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (created) {
+                SecureFiles.restrictToOwner(file);
+            }
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            final FileLock lock = channel.lock(0, HEADER_SIZE, false);
+            try {
+                channel.read(header, 0);
+                header.flip();
+                if (header.remaining() == HEADER_SIZE && header.getInt(0) == MAGIC) {
+                    return new VaultNodeCache(file, channel, header.getInt(4), header.getInt(8),
+                            TimeUnit.SECONDS.toMillis(ttl), cipher, clock);
+                }
+                header.clear();
+                header.putInt(MAGIC).putInt(slots).putInt(slotSize).putInt(0).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                LOG.info("created vault node cache '{}' with {} slots of {} bytes", file, slots, slotSize);
+                return new VaultNodeCache(file, channel, slots, slotSize, TimeUnit.SECONDS.toMillis(ttl), cipher, clock);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the cached secret of the url, or null if it is not cached, has expired or can not be decrypted
+     */
+    public VaultSecret get(final String url) {
+        final long keyHash = hash(url);
+        final long now = clock.getAsLong();
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int offset = offset(slot(keyHash, probe));
+            for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+                final long sequence = buffer.getLong(offset + SEQUENCE);
+                if ((sequence & 1) != 0) {
+                    continue;
+                }
+                if (buffer.getLong(offset + KEY_HASH) != keyHash) {
+                    break;
+                }
+                final long expiresAt = buffer.getLong(offset + EXPIRES_AT);
+                final int length = buffer.getInt(offset + LENGTH);
+                if (expiresAt <= now || length <= 0 || length > slotSize - SLOT_HEADER_SIZE) {
+                    break;
+                }
+                final byte[] encrypted = new byte[length];
+                final ByteBuffer slot = buffer.duplicate();
+                slot.position(offset + SLOT_HEADER_SIZE);
+                slot.get(encrypted);
+                if (buffer.getLong(offset + SEQUENCE) != sequence) {
+                    continue;
+                }
+                final Entry entry = decrypt(encrypted);
+                if (entry != null && url.equals(entry.url) && entry.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return new VaultSecret(entry.fields, entry.leaseId, entry.leaseDuration, entry.renewable, entry.version);
+                }
+                if (entry != null) {
+                    break;
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the secret of the url for the other processes on this host.
+     */
+    public void put(final String url, final VaultSecret secret) {
+        final long leaseMillis = TimeUnit.SECONDS.toMillis(secret.getLeaseDuration());
+        final long expiresAfter = leaseMillis > 0 ? Math.min(ttlMillis, leaseMillis) : ttlMillis;
+        if (expiresAfter <= 0) {
+            return;
+        }
+        final Entry entry = new Entry();
+        entry.url = url;
+        entry.fields = secret.getFields();
+        entry.leaseId = secret.getLeaseId();
+        entry.leaseDuration = secret.getLeaseDuration();
+        entry.renewable = secret.isRenewable();
+        entry.version = secret.getVersion();
+        entry.expiresAt = clock.getAsLong() + expiresAfter;
+        final byte[] encrypted = cipher.encrypt(gson.toJson(entry).getBytes(StandardCharsets.UTF_8));
+        if (encrypted.length > slotSize - SLOT_HEADER_SIZE) {
+            LOG.debug("vault secret '{}' does not fit into a node cache slot of {} bytes", url, slotSize);
+            return;
+        }
+        final long keyHash = hash(url);
+        synchronized (this) {
+            final int offset = offset(slotForWrite(keyHash, clock.getAsLong()));
+            try {
+                final FileLock lock = channel.lock(offset, slotSize, false);
+                try {
+                    final long writing = (buffer.getLong(offset + SEQUENCE) & ~1L) + 1;
+                    buffer.putLong(offset + SEQUENCE, writing);
+                    buffer.putLong(offset + KEY_HASH, keyHash);
+                    buffer.putLong(offset + EXPIRES_AT, entry.expiresAt);
+                    buffer.putInt(offset + LENGTH, encrypted.length);
+                    final ByteBuffer slot = buffer.duplicate();
+                    slot.position(offset + SLOT_HEADER_SIZE);
+                    slot.put(encrypted);
+                    buffer.putLong(offset + SEQUENCE, writing + 1);
+                } finally {
+                    lock.release();
+                }
+            } catch (OverlappingFileLockException e) {
+                LOG.debug("slot of vault node cache '{}' is written by another cache in this process", file);
+            } catch (IOException e) {
+                LOG.warn("could not lock slot of vault node cache '{}': {}", file, e.toString());
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Prefers the slot that already holds the url, then an empty or expired slot, then the slot that expires first.
+     */
+    private int slotForWrite(final long keyHash, final long now) {
+        int candidate = slot(keyHash, 0);
+        long candidateExpiresAt = Long.MAX_VALUE;
+        for (int probe = 0; probe < PROBES; probe++) {
+            final int slot = slot(keyHash, probe);
+            final int offset = offset(slot);
+            if (buffer.getLong(offset + KEY_HASH) == keyHash) {
+                return slot;
+            }
+            final long expiresAt = buffer.getLong(offset + EXPIRES_AT);
+            if (expiresAt <= now) {
+                return slot;
+            }
+            if (expiresAt < candidateExpiresAt) {
+                candidate = slot;
+                candidateExpiresAt = expiresAt;
+            }
+        }
+        return candidate;
+    }
+
+    private Entry decrypt(final byte[] encrypted) {
+        try {
+            return gson.fromJson(new String(cipher.decrypt(encrypted), StandardCharsets.UTF_8), Entry.class);
+        } catch (GeneralSecurityException | JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    private int slot(final long keyHash, final int probe) {
+        return (int) (((keyHash >>> 1) + probe) % slotCount);
+    }
+
+    private int offset(final int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    /**
+     * FNV-1a, which unlike {@link String#hashCode()} has 64 bits. Never 0, which marks an empty slot.
+     */
+    static long hash(final String url) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static class Entry {
+        String url;
+        Map<String, String> fields;
+        String leaseId;
+        long leaseDuration;
+        boolean renewable;
+        long version;
+        long expiresAt;
+    }
+}
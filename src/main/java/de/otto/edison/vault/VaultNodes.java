@@ -0,0 +1,127 @@
+package de.otto.edison.vault;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The nodes of a vault cluster together with the latency measured for each of them. Nodes are ordered by an
+ * exponentially weighted moving average of their latency; a node whose last request failed is put behind all others
+ * for a while. The latencies of all nodes are also kept in a small ring buffer, from which the delay of hedged reads
+ * is taken.
+ */
+final class VaultNodes {
+
+    static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    static final int SAMPLES = 256;
+    static final int MIN_SAMPLES_FOR_PERCENTILE = 10;
+    private static final double SMOOTHING = 0.2;
+
+    private final List<Node> nodes;
+    private final LongSupplier nanoTime;
+    private final long[] samples = new long[SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+
+    VaultNodes(final List<String> baseUrls) {
+        this(baseUrls, System::nanoTime);
+    }
+
+    VaultNodes(final List<String> baseUrls, final LongSupplier nanoTime) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("at least one vault base url is required");
+        }
+        this.nanoTime = nanoTime;
+        this.nodes = new ArrayList<>(baseUrls.size());
+        for (int i = 0; i < baseUrls.size(); i++) {
+            nodes.add(new Node(baseUrls.get(i), i));
+        }
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the base url of the first configured node
+     */
+    String primary() {
+        return nodes.get(0).baseUrl;
+    }
+
+    /**
+     * @return the base urls of all nodes, fastest first. Nodes without a measurement come before measured ones, so
+     * every node is tried once, and nodes that failed recently come last.
+     */
+    synchronized List<String> byLatency() {
+        final long now = nanoTime.getAsLong();
+        final List<Node> ordered = new ArrayList<>(nodes);
+        ordered.sort(Comparator
+                .comparing((Node node) -> node.isPenalized(now))
+                .thenComparing(node -> node.latencyNanos >= 0)
+                .thenComparingDouble(node -> node.latencyNanos)
+                .thenComparingInt(node -> node.index));
+        final List<String> baseUrls = new ArrayList<>(ordered.size());
+        ordered.forEach(node -> baseUrls.add(node.baseUrl));
+        return baseUrls;
+    }
+
+    synchronized void onSuccess(final String baseUrl, final long latencyNanos) {
+        final Node node = find(baseUrl);
+        node.latencyNanos = node.latencyNanos < 0
+                ? latencyNanos
+                : SMOOTHING * latencyNanos + (1 - SMOOTHING) * node.latencyNanos;
+        node.failedAt = null;
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, SAMPLES);
+    }
+
+    synchronized void onFailure(final String baseUrl) {
+        find(baseUrl).failedAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * @return the given percentile of the recent latencies of all nodes, but at least {@code minDelayMillis}. Until
+     * enough latencies are known, the slowest of them is used.
+     */
+    synchronized long hedgeDelayMillis(final int percentile, final long minDelayMillis) {
+        if (sampleCount == 0) {
+            return minDelayMillis;
+        }
+        final long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        final long delayNanos = sampleCount < MIN_SAMPLES_FOR_PERCENTILE
+                ? sorted[sampleCount - 1]
+                : sorted[Math.min(sampleCount - 1, (int) Math.ceil(percentile / 100.0 * sampleCount) - 1)];
+        return Math.max(minDelayMillis, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+    }
+
+    private Node find(final String baseUrl) {
+        for (final Node node : nodes) {
+            if (node.baseUrl.equals(baseUrl)) {
+                return node;
+            }
+        }
+        throw new IllegalArgumentException("unknown vault node " + baseUrl);
+    }
+
+    private static class Node {
+        private final String baseUrl;
+        private final int index;
+        private double latencyNanos = -1;
+        private Long failedAt;
+
+        Node(final String baseUrl, final int index) {
+            this.baseUrl = baseUrl;
+            this.index = index;
+        }
+
+        boolean isPenalized(final long now) {
+            return failedAt != null && now - failedAt < FAILURE_PENALTY_NANOS;
+        }
+    }
+}
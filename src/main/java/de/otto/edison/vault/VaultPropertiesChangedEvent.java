@@ -0,0 +1,40 @@
+package de.otto.edison.vault;
+
+import java.util.Set;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the values of vault properties have changed after a refresh or reload of the
+ * {@link VaultPropertySource}. Only the changed property names are listed, not their values.
+ */
+public class VaultPropertiesChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> changedProperties;
+
+    public VaultPropertiesChangedEvent(final VaultPropertySource source, final Set<String> changedProperties) {
+        super(source);
+        this.changedProperties = changedProperties;
+    }
+
+    @Override
+    public VaultPropertySource getSource() {
+        return (VaultPropertySource) super.getSource();
+    }
+
+    /**
+     * @return the names of the properties that have been added, removed or have a different value
+     */
+    public Set<String> getChangedProperties() {
+        return changedProperties;
+    }
+
+    @Override
+    public String toString() {
+        return "VaultPropertiesChangedEvent{" +
+                "changedProperties=" + changedProperties +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+package de.otto.edison.vault;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable index of the published vault properties. As the vault property source is the last one, it is asked
+ * for every property that no other source knows, and Spring Boot's relaxed binding probes many names that do not
+ * exist. Such misses are answered by a Bloom filter over the cached {@link String#hashCode()} in a few nanoseconds and
+ * without allocation. Hits are found in an open addressing table, and the property names are kept in a sorted array.
+ */
+final class VaultPropertyIndex {
+
+    static final VaultPropertyIndex EMPTY = new VaultPropertyIndex(Collections.emptyMap());
+
+    private static final int BITS_PER_NAME = 16;
+    private static final int HASHES = 3;
+
+    private final Map<String, Object> properties;
+    private final String[] names;
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final long[] filter;
+    private final int filterMask;
+
+    private VaultPropertyIndex(final Map<String, ?> properties) {
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+        this.names = properties.keySet().toArray(new String[properties.size()]);
+        Arrays.sort(names);
+        final int capacity = powerOfTwoAtLeast(Math.max(2, names.length * 2));
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        final int filterBits = powerOfTwoAtLeast(Math.max(64, names.length * BITS_PER_NAME));
+        this.filter = new long[filterBits / 64];
+        this.filterMask = filterBits - 1;
+        for (final String name : names) {
+            int slot = spread(name.hashCode()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = name;
+            values[slot] = properties.get(name);
+            addToFilter(name.hashCode());
+        }
+    }
+
+    static VaultPropertyIndex of(final Map<String, ?> properties) {
+        return properties.isEmpty() ? EMPTY : new VaultPropertyIndex(properties);
+    }
+
+    Object get(final String name) {
+        if (name == null || !mightContain(name.hashCode())) {
+            return null;
+        }
+        int slot = spread(name.hashCode()) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.equals(name)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    boolean contains(final String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * @return the sorted property names. The array is shared and must not be modified.
+     */
+    String[] names() {
+        return names;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @return an unmodifiable map of the indexed properties
+     */
+    Map<String, Object> asMap() {
+        return properties;
+    }
+
+    private void addToFilter(final int hashCode) {
+        final int second = spread(hashCode) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            final int bit = (hashCode + i * second) & filterMask;
+            filter[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean mightContain(final int hashCode) {
+        final int second = spread(hashCode) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            final int bit = (hashCode + i * second) & filterMask;
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mixes the high bits of the hash code into the low bits, which are used for the table and the filter.
+     */
+    private static int spread(final int hashCode) {
+        final int h = hashCode * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int powerOfTwoAtLeast(final int n) {
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+}
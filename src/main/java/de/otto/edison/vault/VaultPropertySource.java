@@ -2,55 +2,690 @@ package de.otto.edison.vault;
 
 import static de.otto.edison.vault.VaultClient.vaultClient;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import org.asynchttpclient.DefaultAsyncHttpClient;
+import org.asynchttpclient.AsyncHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.StringUtils;
 
-public class VaultPropertySource extends MapPropertySource {
+public class VaultPropertySource extends MapPropertySource implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(VaultPropertySource.class);
 
+    private final ConfigProperties configProperties;
+    private final VaultMetrics metrics;
+    private final Map<String, List<VaultFieldInfo>> fieldsByPath;
+    private final VaultPropertyIndex pathByProperty;
+    private final ConcurrentMap<String, CompletableFuture<Void>> lazyLoads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, VaultSecret> lastSecrets = new ConcurrentHashMap<>();
+    private final AtomicReference<VaultPropertyIndex> properties = new AtomicReference<>(VaultPropertyIndex.EMPTY);
+    private final List<Consumer<Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
+    private final VaultTransport transport;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService requestTimer;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final RequestLimiter requestLimiter;
+    private VaultSnapshotStore snapshotStore;
+    private VaultNodeCache nodeCache;
+    private VaultTokenManager tokenManager;
+    private VaultTokenFileWatcher tokenFileWatcher;
+    private VaultLeaseManager leaseManager;
+    private VaultClient vaultClient;
+
     public VaultPropertySource(final String name, final ConfigProperties configProperties) {
-        super(name, new HashMap<>());
+        this(name, configProperties, VaultMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics receives the latencies of all requests to vault and the time spent in this constructor
+     */
+    public VaultPropertySource(final String name, final ConfigProperties configProperties, final VaultMetrics metrics) {
+        super(name, Collections.emptyMap());
+        this.configProperties = configProperties;
+        this.metrics = metrics;
+        this.fieldsByPath = groupBySecretPath(configProperties.getProperties());
+        final Map<String, String> paths = new HashMap<>();
+        fieldsByPath.forEach((path, fields) -> fields.forEach(field -> paths.put(field.getSpringPropertyPath(), path)));
+        this.pathByProperty = VaultPropertyIndex.of(paths);
         if (configProperties.isEnabled()) {
-            loadPropertiesFromVault(createVaultClient(configProperties), configProperties.getProperties());
+            final long startedAt = System.nanoTime();
+            transport = createTransport(configProperties);
+            retryPolicy = RetryPolicy.retryPolicy(configProperties);
+            circuitBreaker = CircuitBreaker.circuitBreaker(configProperties);
+            requestLimiter = RequestLimiter.requestLimiter(configProperties, metrics);
+            scheduler = configProperties.isRefreshEnabled() || configProperties.isTokenRenewalEnabled()
+                    || configProperties.isLeaseRenewalEnabled() ? createScheduler("edison-vault-scheduler") : null;
+            requestTimer = retryPolicy.getMaxAttempts() > 1 || isHedgingEnabled()
+                    ? createScheduler("edison-vault-request-timer") : null;
+            boolean keepOpen = false;
+            try {
+                keepOpen = initialize();
+            } finally {
+                if (!keepOpen) {
+                    close();
+                }
+                metrics.recordPropertySourceInitialization(System.nanoTime() - startedAt);
+            }
+        } else {
+            transport = null;
+            retryPolicy = RetryPolicy.NO_RETRIES;
+            circuitBreaker = null;
+            requestLimiter = null;
+            scheduler = null;
+            requestTimer = null;
+        }
+    }
+
+    /**
+     * Returns the value of the property. In lazy mode, the secret path of the property is read from vault first if it
+     * has not been read yet.
+     */
+    @Override
+    public Object getProperty(final String name) {
+        final Object value = properties.get().get(name);
+        if (value == null && isLazy() && pathByProperty.contains(name)) {
+            loadLazily((String) pathByProperty.get(name));
+            return properties.get().get(name);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsProperty(final String name) {
+        return isLazy() ? pathByProperty.contains(name) : properties.get().contains(name);
+    }
+
+    /**
+     * @return the sorted property names, from an array that is shared by all callers and must not be modified
+     */
+    @Override
+    public String[] getPropertyNames() {
+        return isLazy() ? pathByProperty.names() : properties.get().names();
+    }
+
+    /**
+     * @return an immutable view of the properties that are currently published. In lazy mode, these are only the
+     * properties of the secret paths that have been read so far.
+     */
+    @Override
+    public Map<String, Object> getSource() {
+        return properties.get().asMap();
+    }
+
+    /**
+     * Registers a listener that is called with the names of the properties whose values have changed after a refresh
+     * or {@link #reload()}. Properties that are read for the first time in lazy mode are not reported as changed.
+     */
+    public void addChangeListener(final Consumer<Set<String>> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Reads the secrets from vault again and publishes the new values. The http client is only kept open if refresh,
+     * token renewal, lease renewal or the token watch is enabled, otherwise the property source can not be reloaded.
+     *
+     * @return the names of the properties whose values have changed
+     */
+    public Set<String> reload() {
+        if (transport == null || transport.isClosed()) {
+            throw new IllegalStateException("vault property source is closed, enable refresh or token renewal to reload it");
+        }
+        final Set<String> changedProperties = publishAndStore(readSecrets(pathsToRead()));
+        LOG.info("reloaded vault properties, {} changed", changedProperties.size());
+        return changedProperties;
+    }
+
+    /**
+     * @return true if the http client is still needed after the constructor, for a background revalidation, refresh or
+     * token renewal
+     */
+    private boolean initialize() {
+        if (isLazy()) {
+            if (configProperties.isRefreshEnabled()) {
+                scheduleRefresh(refreshDelayInMillis(Collections.emptyList(), configProperties.getRefreshInterval(),
+                        configProperties.getRefreshJitter()));
+            }
+            return true;
+        }
+        snapshotStore = configProperties.isSnapshotEnabled() ? createSnapshotStore(configProperties) : null;
+        if (snapshotStore != null) {
+            final Optional<VaultSnapshotStore.Snapshot> snapshot = snapshotStore.read()
+                    .filter(candidate -> isDiscovery() || candidate.getProperties().keySet().equals(configProperties.getProperties()))
+                    .filter(candidate -> candidate.isYoungerThan(Duration.ofSeconds(configProperties.getSnapshotTtl())));
+            if (snapshot.isPresent()) {
+                LOG.info("starting with vault snapshot from {}", snapshot.get().getCreatedAt());
+                publish(snapshot.get().getProperties());
+                if (configProperties.isRefreshEnabled()) {
+                    scheduler.execute(this::refresh);
+                } else {
+                    revalidateInBackground();
+                }
+                return true;
+            }
+        }
+        final Map<String, VaultSecret> secrets = readSecrets(pathsToRead());
+        publishAndStore(secrets);
+        if (configProperties.isRefreshEnabled()) {
+            scheduleRefresh(refreshDelayInMillis(secrets.values(), configProperties.getRefreshInterval(),
+                    configProperties.getRefreshJitter()));
+        }
+        return isKeptOpen();
+    }
+
+    /**
+     * @return true if the http client and the scheduler are still needed once the secrets are loaded, for refresh,
+     * token renewal, lease renewal or watching the token file
+     */
+    private boolean isKeptOpen() {
+        return configProperties.isRefreshEnabled() || configProperties.isTokenRenewalEnabled()
+                || configProperties.isLeaseRenewalEnabled() || isTokenWatchEnabled();
+    }
+
+    private boolean isTokenWatchEnabled() {
+        return configProperties.isTokenWatchEnabled() && "file".equals(configProperties.getTokenSource());
+    }
+
+    private void revalidateInBackground() {
+        final Thread revalidation = new Thread(() -> {
+            try {
+                publishAndStore(readSecrets(pathsToRead()));
+                LOG.info("revalidated vault snapshot");
+            } catch (RuntimeException e) {
+                LOG.warn("could not revalidate vault snapshot, keeping the values of the snapshot", e);
+            } finally {
+                if (!isKeptOpen()) {
+                    close();
+                }
+            }
+        }, "edison-vault-snapshot-revalidation");
+        revalidation.setDaemon(true);
+        revalidation.start();
+    }
+
+    /**
+     * Reads the secret path and publishes its properties. Concurrent first accesses of a path share one read; a failed
+     * read is tried again on the next access.
+     */
+    private void loadLazily(final String path) {
+        final CompletableFuture<Void> load = new CompletableFuture<>();
+        final CompletableFuture<Void> running = lazyLoads.putIfAbsent(path, load);
+        if (running != null) {
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            return;
+        }
+        try {
+            final Map<String, VaultSecret> secrets = readSecrets(Collections.singleton(path));
+            publishAndStore(secrets);
+            LOG.info("read vault secret path '{}' on first access", path);
+            load.complete(null);
+        } catch (RuntimeException e) {
+            lazyLoads.remove(path, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private boolean isLazy() {
+        return configProperties.isEnabled() && configProperties.isLazyEnabled() && !configProperties.isDiscoveryEnabled();
+    }
+
+    private boolean isDiscovery() {
+        return configProperties.isEnabled() && configProperties.isDiscoveryEnabled();
+    }
+
+    /**
+     * @return the secret paths that are read at startup and on refresh. In lazy mode, these are the paths that have
+     * been read successfully so far, with discovery all secrets that are currently found below the secret path.
+     */
+    private Set<String> pathsToRead() {
+        if (isDiscovery()) {
+            return new VaultSecretDiscovery(sharedVaultClient(), configProperties.getDiscoveryMaxDepth(),
+                    configProperties.getDiscoveryMaxPaths(), configProperties.getMaxConcurrentReads()).discover();
+        }
+        if (!isLazy()) {
+            return fieldsByPath.keySet();
+        }
+        return lazyLoads.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().isDone() && !entry.getValue().isCompletedExceptionally())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private void refresh() {
+        try {
+            final Map<String, VaultSecret> secrets = readSecrets(pathsToRead());
+            publishAndStore(secrets);
+            LOG.info("refreshed vault properties");
+            scheduleRefresh(refreshDelayInMillis(secrets.values(), configProperties.getRefreshInterval(),
+                    configProperties.getRefreshJitter()));
+        } catch (RuntimeException e) {
+            LOG.warn("refresh of vault properties failed, keeping the last values", e);
+            scheduleRefresh(refreshDelayInMillis(Collections.emptyList(), configProperties.getRefreshInterval(),
+                    configProperties.getRefreshJitter()));
+        }
+    }
+
+    private void scheduleRefresh(final long delayInMillis) {
+        try {
+            scheduler.schedule(this::refresh, delayInMillis, TimeUnit.MILLISECONDS);
+            LOG.debug("next refresh of vault properties in {} ms", delayInMillis);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("vault property source is closed, no further refresh is scheduled");
+        }
+    }
+
+    /**
+     * The refresh interval is shortened to the smallest lease duration returned by vault. A random jitter is subtracted,
+     * so that refreshes of many instances are spread and never happen after a lease has expired.
+     */
+    static long refreshDelayInMillis(final Collection<VaultSecret> secrets, final int refreshInterval, final int refreshJitter) {
+        final long leaseDuration = secrets
+                .stream()
+                .mapToLong(VaultSecret::getLeaseDuration)
+                .filter(duration -> duration > 0)
+                .min()
+                .orElse(refreshInterval);
+        final long delay = TimeUnit.SECONDS.toMillis(Math.min(leaseDuration, refreshInterval));
+        final long jitter = refreshJitter > 0
+                ? ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(refreshJitter) + 1)
+                : 0;
+        return Math.max(TimeUnit.SECONDS.toMillis(1), delay - jitter);
+    }
+
+    private Set<String> publishAndStore(final Map<String, VaultSecret> secrets) {
+        final Map<String, String> values = toProperties(secrets);
+        if (configProperties.isLeaseRenewalEnabled()) {
+            secrets.forEach(leaseManager()::track);
+        }
+        if (isLazy()) {
+            return merge(values);
+        }
+        final Set<String> changedProperties = publish(values);
+        if (snapshotStore != null) {
+            snapshotStore.write(values);
+        }
+        return changedProperties;
+    }
+
+    /**
+     * Publishes the new credentials of a dynamic secret whose lease could not be renewed.
+     */
+    private void publishRotatedSecret(final String path, final VaultSecret secret) {
+        merge(toProperties(Collections.singletonMap(path, secret)));
+    }
+
+    /**
+     * Adds the values to the published properties. Properties that have not been published before are not reported
+     * as changed.
+     */
+    private Set<String> merge(final Map<String, String> values) {
+        final Map<String, Object> previous = properties.getAndUpdate(current -> {
+            final Map<String, Object> merged = new HashMap<>(current.asMap());
+            merged.putAll(values);
+            return VaultPropertyIndex.of(merged);
+        }).asMap();
+        final Set<String> changedProperties = values.keySet()
+                .stream()
+                .filter(name -> previous.containsKey(name) && !values.get(name).equals(previous.get(name)))
+                .collect(Collectors.toSet());
+        return notifyChangeListeners(changedProperties);
+    }
+
+    private Set<String> publish(final Map<String, String> values) {
+        final Map<String, Object> previous = properties.getAndSet(VaultPropertyIndex.of(values)).asMap();
+        return notifyChangeListeners(changedProperties(previous, values));
+    }
+
+    private Set<String> notifyChangeListeners(final Set<String> changedProperties) {
+        if (!changedProperties.isEmpty()) {
+            final Set<String> unmodifiable = Collections.unmodifiableSet(changedProperties);
+            changeListeners.forEach(listener -> {
+                try {
+                    listener.accept(unmodifiable);
+                } catch (RuntimeException e) {
+                    LOG.warn("listener for changed vault properties failed", e);
+                }
+            });
+        }
+        return changedProperties;
+    }
+
+    /**
+     * @return the names of the properties that have been added, removed or have a different value
+     */
+    static Set<String> changedProperties(final Map<String, ?> previous, final Map<String, ?> current) {
+        final Set<String> changed = new HashSet<>();
+        current.forEach((name, value) -> {
+            if (!value.equals(previous.get(name))) {
+                changed.add(name);
+            }
+        });
+        previous.keySet().forEach(name -> {
+            if (!current.containsKey(name)) {
+                changed.add(name);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Creates the transport that is shared by all requests of this property source, selected by
+     * {@code edison.vault.http.transport}.
+     */
+    protected VaultTransport createTransport(final ConfigProperties configProperties) {
+        if (VaultTransport.ASYNC_HTTP_CLIENT.equals(configProperties.getHttpTransport())) {
+            return new AsyncHttpClientTransport(createAsyncHttpClient(configProperties));
         }
+        return VaultTransport.vaultTransport(configProperties);
+    }
+
+    protected AsyncHttpClient createAsyncHttpClient(final ConfigProperties configProperties) {
+        return AsyncHttpClientFactory.asyncHttpClient(configProperties);
     }
 
     protected VaultClient createVaultClient(final ConfigProperties configProperties) {
-        return vaultClient(configProperties, new VaultTokenReader(new DefaultAsyncHttpClient()).readVaultToken(configProperties));
+        final VaultClient vaultClient = vaultClient(configProperties, tokenManager(), transport)
+                .withMetrics(metrics)
+                .withRetries(retryPolicy, circuitBreaker, requestTimer)
+                .withLimiter(requestLimiter);
+        if (isHedgingEnabled()) {
+            vaultClient.withHedgedReads(configProperties.getHedgePercentile(), configProperties.getHedgeMinDelay(), requestTimer);
+        }
+        if (configProperties.isNodeCacheEnabled()) {
+            nodeCache = createNodeCache(configProperties);
+            if (nodeCache != null) {
+                // a changed token is looked up on the scheduler, or on the reading thread if there is none
+                vaultClient.withNodeCache(nodeCache, this::isValidToken, scheduler != null ? scheduler : Runnable::run);
+            }
+        }
+        return vaultClient;
+    }
+
+    /**
+     * Opens the node cache that is shared by the processes on this host. Like the snapshot, it is encrypted with the
+     * configured key file or, if there is none, with the vault token, which only works if all processes use the same
+     * token.
+     *
+     * @return the node cache, or null if it can not be opened
+     */
+    protected VaultNodeCache createNodeCache(final ConfigProperties configProperties) {
+        final SecretCipher cipher = StringUtils.isEmpty(configProperties.getNodeCacheKeyFile())
+                ? SecretCipher.fromToken(tokenManager().get())
+                : SecretCipher.fromKeyFile(Paths.get(configProperties.getNodeCacheKeyFile()));
+        try {
+            return VaultNodeCache.open(Paths.get(configProperties.getNodeCacheFile()), configProperties.getNodeCacheSlots(),
+                    configProperties.getNodeCacheSlotSize(), configProperties.getNodeCacheTtl(), cipher);
+        } catch (IOException e) {
+            LOG.warn(String.format("could not open vault node cache '%s', reading from vault only",
+                    configProperties.getNodeCacheFile()), e);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up the token in vault, so that a revoked or expired token does not get secrets from the node cache.
+     */
+    private boolean isValidToken(final String token) {
+        try {
+            new VaultTokenReader(transport, metrics, retryPolicy, circuitBreaker)
+                    .withLimiter(requestLimiter)
+                    .lookupSelf(configProperties.getBaseUrls(), token);
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("vault token lookup failed, not using the node cache: {}", e.toString());
+            return false;
+        }
+    }
+
+    private boolean isHedgingEnabled() {
+        return configProperties.isHedgeEnabled() && configProperties.getBaseUrls().size() > 1;
+    }
+
+    /**
+     * Creates the snapshot store. The snapshot is encrypted with the configured key file or, if there is none, with the
+     * vault token. Token based keys only work for tokens that survive a restart, i.e. not for token-source=login.
+     */
+    protected VaultSnapshotStore createSnapshotStore(final ConfigProperties configProperties) {
+        final SecretCipher cipher = StringUtils.isEmpty(configProperties.getSnapshotKeyFile())
+                ? SecretCipher.fromToken(tokenManager().get())
+                : SecretCipher.fromKeyFile(Paths.get(configProperties.getSnapshotKeyFile()));
+        return new VaultSnapshotStore(Paths.get(configProperties.getSnapshotFile()), cipher);
+    }
+
+    /**
+     * Creates the token cache. The token is encrypted with the configured key file or, if there is none, with a key
+     * derived from app-id and user-id, which grant a login anyway.
+     */
+    protected VaultTokenCache createTokenCache(final ConfigProperties configProperties) {
+        final SecretCipher cipher = StringUtils.isEmpty(configProperties.getTokenCacheKeyFile())
+                ? SecretCipher.fromToken(configProperties.getAppId() + ":" + configProperties.getUserId())
+                : SecretCipher.fromKeyFile(Paths.get(configProperties.getTokenCacheKeyFile()));
+        return new VaultTokenCache(Paths.get(configProperties.getTokenCacheFile()), cipher);
+    }
+
+    /**
+     * The scheduler runs refresh, token renewal and lease renewal, which block until their requests are answered.
+     * Retries and hedged reads are scheduled on a separate request timer, so that a retry of a read that a blocked
+     * refresh waits for is not queued behind that refresh.
+     */
+    private static ScheduledExecutorService createScheduler(final String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the vault token on first use. If token renewal is enabled, the token is renewed on the scheduler from then on.
+     */
+    private synchronized VaultTokenManager tokenManager() {
+        if (tokenManager == null) {
+            final VaultTokenReader tokenReader = new VaultTokenReader(transport, metrics, retryPolicy, circuitBreaker)
+                    .withLimiter(requestLimiter);
+            if (configProperties.isTokenCacheEnabled() && "login".equals(configProperties.getTokenSource())) {
+                tokenReader.withTokenCache(createTokenCache(configProperties), configProperties.getTokenCacheMinTtl());
+            }
+            tokenManager = new VaultTokenManager(tokenReader.readToken(configProperties), tokenReader, configProperties,
+                    scheduler, metrics);
+            if (configProperties.isTokenRenewalEnabled()) {
+                tokenManager.start();
+            }
+            if (isTokenWatchEnabled()) {
+                tokenFileWatcher = watchTokenFile(tokenReader, tokenManager);
+            }
+        }
+        return tokenManager;
     }
 
-    private void loadPropertiesFromVault(final VaultClient vaultClient, Set<String> properties) {
-        properties
+    private VaultTokenFileWatcher watchTokenFile(final VaultTokenReader tokenReader, final VaultTokenManager tokenManager) {
+        final String tokenFile = VaultTokenReader.tokenFileName(configProperties);
+        try {
+            return new VaultTokenFileWatcher(Paths.get(tokenFile), configProperties.getTokenWatchDebounce(), tokenReader,
+                    tokenManager);
+        } catch (IOException e) {
+            LOG.warn(String.format("could not watch vault token file '%s', changes of the token are not noticed", tokenFile), e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the lease manager on first use, which renews the leases of dynamic secrets and publishes new credentials
+     * if a lease can not be renewed.
+     */
+    private synchronized VaultLeaseManager leaseManager() {
+        if (leaseManager == null) {
+            leaseManager = new VaultLeaseManager(sharedVaultClient(), scheduler, configProperties.getLeaseRenewalTick(),
+                    configProperties.getLeaseRenewalWheelSize(), configProperties.getMaxConcurrentReads());
+            leaseManager.addRotationListener(this::publishRotatedSecret);
+            leaseManager.start();
+        }
+        return leaseManager;
+    }
+
+    private synchronized VaultClient sharedVaultClient() {
+        if (vaultClient == null) {
+            vaultClient = createVaultClient(configProperties);
+        }
+        return vaultClient;
+    }
+
+    /**
+     * Stops the background refresh and token renewal and releases the http client and its threads. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (requestTimer != null) {
+            requestTimer.shutdownNow();
+        }
+        if (tokenFileWatcher != null) {
+            try {
+                tokenFileWatcher.close();
+            } catch (IOException e) {
+                LOG.warn("could not stop watching vault token file", e);
+            }
+        }
+        if (requestLimiter != null) {
+            requestLimiter.close();
+        }
+        if (nodeCache != null) {
+            try {
+                nodeCache.close();
+            } catch (IOException e) {
+                LOG.warn("could not close vault node cache", e);
+            }
+        }
+        if (transport != null && !transport.isClosed()) {
+            try {
+                transport.close();
+            } catch (IOException e) {
+                LOG.warn("could not close vault http client", e);
+            }
+        }
+    }
+
+    private Map<String, VaultSecret> readSecrets(final Set<String> paths) {
+        if (paths.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (configProperties.getKvVersion() == 2) {
+            return readChangedSecrets(paths);
+        }
+        if (isDiscovery()) {
+            return sharedVaultClient().readSecrets(paths, configProperties.getMaxConcurrentReads());
+        }
+        return sharedVaultClient().readSecrets(fieldNamesByPath(paths), configProperties.getMaxConcurrentReads());
+    }
+
+    /**
+     * Reads only the secrets whose version has changed since they were last read, and keeps the others.
+     */
+    private Map<String, VaultSecret> readChangedSecrets(final Set<String> paths) {
+        final Map<String, Set<String>> fieldNamesByPath;
+        if (isDiscovery()) {
+            fieldNamesByPath = new HashMap<>();
+            paths.forEach(path -> fieldNamesByPath.put(path, null));
+        } else {
+            fieldNamesByPath = fieldNamesByPath(paths);
+        }
+        final Map<String, VaultSecret> secrets = sharedVaultClient().readSecretsIfChanged(fieldNamesByPath, lastSecrets,
+                configProperties.getMaxConcurrentReads());
+        lastSecrets.putAll(secrets);
+        return secrets;
+    }
+
+    private Map<String, Set<String>> fieldNamesByPath(final Set<String> paths) {
+        final Map<String, Set<String>> fieldNamesByPath = new HashMap<>();
+        paths.forEach(vaultSecretPath -> fieldNamesByPath.put(vaultSecretPath, fieldsByPath.get(vaultSecretPath)
+                .stream()
+                .map(VaultFieldInfo::getVaultFieldName)
+                .collect(Collectors.toSet())));
+        return fieldNamesByPath;
+    }
+
+    private Map<String, String> toProperties(final Map<String, VaultSecret> secrets) {
+        return isDiscovery() ? toDiscoveredProperties(secrets) : toConfiguredProperties(secrets);
+    }
+
+    /**
+     * Maps every field of the discovered secrets to a property, e.g. the field password of the secret app/db to
+     * app.db.password.
+     */
+    private static Map<String, String> toDiscoveredProperties(final Map<String, VaultSecret> secrets) {
+        final Map<String, String> result = new HashMap<>();
+        secrets.forEach((vaultSecretPath, secret) -> {
+            final String prefix = vaultSecretPath.replace("/", ".") + ".";
+            if (secret.getFields() != null) {
+                secret.getFields().forEach((field, value) -> result.put(prefix + field, value));
+            }
+        });
+        return result;
+    }
+
+    private Map<String, String> toConfiguredProperties(final Map<String, VaultSecret> secrets) {
+        final Map<String, String> result = new HashMap<>();
+        secrets.forEach(
+                (vaultSecretPath, secret) -> {
+                    final Map<String, String> vaultFieldValues = secret.getFields();
+                    fieldsByPath.get(vaultSecretPath).forEach(field -> {
+                        final String vaultFieldValue = vaultFieldValues.get(field.getVaultFieldName());
+                        if (vaultFieldValue != null) {
+                            LOG.info("read of value '{}' from vault property '{}' successful",
+                                    field.getVaultFieldName(),
+                                    field.getVaultSecretPathName());
+                            result.put(field.getSpringPropertyPath(), vaultFieldValue);
+                        } else {
+                            throw new RuntimeException("unable read value '" + field.getVaultFieldName() +
+                                    "' from vault property '" + field.getVaultSecretPathName() + "' - value not found");
+                        }
+                    });
+                });
+        return result;
+    }
+
+    static Map<String, List<VaultFieldInfo>> groupBySecretPath(final Set<String> properties) {
+        return properties
                 .stream()
                 .map(VaultFieldInfo::new)
-                .collect(Collectors.groupingBy(VaultFieldInfo::getVaultSecretPathName))
-                .forEach(
-                        (vaultSecretPath, fields) -> {
-                            final Map<String, String> vaultFieldValues = vaultClient.readFields(vaultSecretPath);
-                            fields.forEach(field -> {
-                                final String vaultFieldValue = vaultFieldValues.get(field.getVaultFieldName());
-                                if (vaultFieldValue != null) {
-                                    LOG.info("read of value '{}' from vault property '{}' successful",
-                                            field.getVaultFieldName(),
-                                            field.getVaultSecretPathName());
-                                    source.put(field.getSpringPropertyPath(), vaultFieldValue);
-                                } else {
-                                    throw new RuntimeException("unable read value '" + field.getVaultFieldName() +
-                                            "' from vault property '" + field.getVaultSecretPathName() + "' - value not found");
-                                }
-                            });
-                        });
-    }
-
-    private static class VaultFieldInfo {
+                .collect(Collectors.groupingBy(VaultFieldInfo::getVaultSecretPathName));
+    }
+
+    static class VaultFieldInfo {
 
         private final String vaultSecretPathName;
         private final String vaultFieldName;
@@ -3,29 +3,76 @@ package de.otto.edison.vault;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.MutablePropertySources;
 import org.springframework.stereotype.Component;
 
 /**
- * Adds a new vault property source at the end of all property sources.
+ * Adds a new vault property source at the end of all property sources. If the context contains exactly one
+ * {@link VaultMetrics} bean, it receives the measurements of the property source once the context has been refreshed;
+ * measurements taken before, e.g. of the startup, are buffered until then. Changes of the vault properties are
+ * published as {@link VaultPropertiesChangedEvent}s.
  */
 @Component
 @ConditionalOnProperty(prefix = "edison.vault", name = "enableconfigurer", matchIfMissing = true)
-public class VaultPropertySourcePostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+public class VaultPropertySourcePostProcessor implements BeanFactoryPostProcessor, EnvironmentAware,
+        ApplicationEventPublisherAware, ApplicationListener<ContextRefreshedEvent>, DisposableBean {
 
+    private final DeferredVaultMetrics metrics = new DeferredVaultMetrics();
+    private ConfigurableListableBeanFactory beanFactory;
     private ConfigProperties configProperties;
+    private ApplicationEventPublisher eventPublisher;
+    private VaultPropertySource vaultPropertySource;
 
     @Override
     public void postProcessBeanFactory(final ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
         final ConfigurableEnvironment env = beanFactory.getBean(ConfigurableEnvironment.class);
         final MutablePropertySources propertySources = env.getPropertySources();
-        propertySources.addLast(new VaultPropertySource("vaultPropertySource", configProperties));
+        vaultPropertySource = new VaultPropertySource("vaultPropertySource", configProperties, metrics);
+        propertySources.addLast(vaultPropertySource);
+        if (eventPublisher != null) {
+            final VaultPropertySource source = vaultPropertySource;
+            source.addChangeListener(changedProperties ->
+                    eventPublisher.publishEvent(new VaultPropertiesChangedEvent(source, changedProperties)));
+        }
+    }
+
+    /**
+     * Looks up the {@link VaultMetrics} bean only now, so that it is created and post-processed like any other bean.
+     */
+    @Override
+    public void onApplicationEvent(final ContextRefreshedEvent event) {
+        if (beanFactory != null) {
+            metrics.delegateTo(metrics(beanFactory));
+        }
+    }
+
+    private static VaultMetrics metrics(final ConfigurableListableBeanFactory beanFactory) {
+        final String[] names = beanFactory.getBeanNamesForType(VaultMetrics.class);
+        return names.length == 1 ? beanFactory.getBean(names[0], VaultMetrics.class) : VaultMetrics.NOOP;
+    }
+
+    @Override
+    public void destroy() {
+        if (vaultPropertySource != null) {
+            vaultPropertySource.close();
+        }
+    }
+
+    @Override
+    public void setApplicationEventPublisher(final ApplicationEventPublisher applicationEventPublisher) {
+        this.eventPublisher = applicationEventPublisher;
     }
 
     @Override
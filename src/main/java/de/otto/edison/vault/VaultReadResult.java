@@ -0,0 +1,45 @@
+package de.otto.edison.vault;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The outcome of reading a set of secret paths: the fields of every path that could be read, and the error of every
+ * path that could not.
+ */
+public class VaultReadResult {
+
+    private final Map<String, Map<String, String>> fields;
+    private final Map<String, Throwable> failures;
+
+    public VaultReadResult(final Map<String, Map<String, String>> fields, final Map<String, Throwable> failures) {
+        this.fields = Collections.unmodifiableMap(fields);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the fields of every path that was read successfully, by path
+     */
+    public Map<String, Map<String, String>> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the error of every path that could not be read, by path
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "VaultReadResult{" +
+                "fields=" + fields.keySet() +
+                ", failures=" + failures.keySet() +
+                '}';
+    }
+}
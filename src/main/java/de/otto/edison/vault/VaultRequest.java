@@ -0,0 +1,67 @@
+package de.otto.edison.vault;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An http request to vault, independent of the {@link VaultTransport} that sends it.
+ */
+public final class VaultRequest {
+
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private String body;
+
+    private VaultRequest(final String method, final String url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    public static VaultRequest get(final String url) {
+        return new VaultRequest("GET", url);
+    }
+
+    public static VaultRequest post(final String url) {
+        return new VaultRequest("POST", url);
+    }
+
+    public static VaultRequest put(final String url) {
+        return new VaultRequest("PUT", url);
+    }
+
+    public VaultRequest withHeader(final String name, final String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public VaultRequest withBody(final String body) {
+        this.body = body;
+        return this;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * @return the body, or null if the request has none
+     */
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
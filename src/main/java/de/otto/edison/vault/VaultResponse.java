@@ -0,0 +1,15 @@
+package de.otto.edison.vault;
+
+import java.io.InputStream;
+
+/**
+ * The response of vault to a {@link VaultRequest}. Its body has been received completely.
+ */
+public interface VaultResponse {
+
+    int getStatusCode();
+
+    String getResponseBody();
+
+    InputStream getResponseBodyAsStream();
+}
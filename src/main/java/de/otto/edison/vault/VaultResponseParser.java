@@ -0,0 +1,208 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads vault secret responses with a streaming {@link JsonReader}, so the response body is never materialized as a
+ * string or as a map of all its values.
+ */
+final class VaultResponseParser {
+
+    private VaultResponseParser() {
+    }
+
+    /**
+     * Parses the body of a secret read.
+     * <p>
+     * Numbers and booleans are returned as their json text, nested objects and arrays as json. Fields with a null value
+     * are left out.
+     *
+     * @param body       the response body, utf-8 encoded
+     * @param fieldNames the fields of the secret to keep, or null to keep all of them
+     */
+    static VaultSecret parseSecret(final InputStream body, final Set<String> fieldNames) throws IOException {
+        return parseSecret(body, fieldNames, false);
+    }
+
+    /**
+     * Parses the body of a read from a KV v2 secrets engine, whose fields and version are nested in {@code data}.
+     *
+     * @param body       the response body, utf-8 encoded
+     * @param fieldNames the fields of the secret to keep, or null to keep all of them
+     */
+    static VaultSecret parseVersionedSecret(final InputStream body, final Set<String> fieldNames) throws IOException {
+        return parseSecret(body, fieldNames, true);
+    }
+
+    /**
+     * Parses the body of a KV v2 metadata read.
+     *
+     * @return the current version of the secret, or 0 if the response does not contain one
+     */
+    static long parseCurrentVersion(final InputStream body) throws IOException {
+        long currentVersion = 0;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("data") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    currentVersion = readLong(reader, "current_version");
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return currentVersion;
+    }
+
+    private static VaultSecret parseSecret(final InputStream body, final Set<String> fieldNames,
+                                           final boolean versioned) throws IOException {
+        Map<String, String> fields = null;
+        String leaseId = null;
+        long leaseDuration = 0;
+        boolean renewable = false;
+        long version = 0;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "data":
+                        if (!versioned) {
+                            fields = readFields(reader, fieldNames);
+                            break;
+                        }
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            final String dataName = reader.nextName();
+                            if (reader.peek() == JsonToken.NULL) {
+                                reader.nextNull();
+                            } else if (dataName.equals("data")) {
+                                fields = readFields(reader, fieldNames);
+                            } else if (dataName.equals("metadata")) {
+                                version = readLong(reader, "version");
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                        break;
+                    case "lease_id":
+                        leaseId = reader.nextString();
+                        break;
+                    case "lease_duration":
+                        leaseDuration = reader.nextLong();
+                        break;
+                    case "renewable":
+                        renewable = reader.nextBoolean();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return new VaultSecret(fields, leaseId, leaseDuration, renewable, version);
+    }
+
+    /**
+     * Parses the body of a list request.
+     *
+     * @param body the response body, utf-8 encoded
+     * @return the listed keys, keys of sub directories end with a slash
+     */
+    static List<String> parseKeys(final InputStream body) throws IOException {
+        final List<String> keys = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("data") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!reader.nextName().equals("keys") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        keys.add(reader.nextString());
+                    }
+                    reader.endArray();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+        return keys;
+    }
+
+    private static Map<String, String> readFields(final JsonReader reader, final Set<String> fieldNames) throws IOException {
+        final Map<String, String> fields = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fieldNames != null && !fieldNames.contains(name)) {
+                reader.skipValue();
+                continue;
+            }
+            final String value = readValue(reader);
+            if (value != null) {
+                fields.put(name, value);
+            }
+        }
+        reader.endObject();
+        return fields;
+    }
+
+    /**
+     * Reads an object and returns the number with the given name, or 0 if it has none.
+     */
+    private static long readLong(final JsonReader reader, final String name) throws IOException {
+        long value = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(name) && reader.peek() == JsonToken.NUMBER) {
+                value = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    private static String readValue(final JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                return new JsonParser().parse(reader).toString();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.otto.edison.vault;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The fields of a vault secret together with the lease information of the read response.
+ */
+public class VaultSecret {
+
+    private final Map<String, String> fields;
+    private final String leaseId;
+    private final long leaseDuration;
+    private final boolean renewable;
+    private final long version;
+
+    public VaultSecret(final Map<String, String> fields, final String leaseId, final long leaseDuration, final boolean renewable) {
+        this(fields, leaseId, leaseDuration, renewable, 0);
+    }
+
+    public VaultSecret(final Map<String, String> fields, final String leaseId, final long leaseDuration,
+                       final boolean renewable, final long version) {
+        this.fields = fields != null ? Collections.unmodifiableMap(fields) : null;
+        this.leaseId = leaseId;
+        this.leaseDuration = leaseDuration;
+        this.renewable = renewable;
+        this.version = version;
+    }
+
+    /**
+     * @return the fields of the secret, or null if the response did not contain any data
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public String getLeaseId() {
+        return leaseId;
+    }
+
+    /**
+     * @return the lease duration in seconds, or 0 if vault did not return one
+     */
+    public long getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public boolean isRenewable() {
+        return renewable;
+    }
+
+    /**
+     * @return the version of a secret of a KV v2 secrets engine, or 0 for KV v1
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "VaultSecret{" +
+                "fields=" + (fields != null ? fields.keySet() : null) +
+                ", leaseId='" + leaseId + '\'' +
+                ", leaseDuration=" + leaseDuration +
+                ", renewable=" + renewable +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,168 @@
+package de.otto.edison.vault;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded LRU cache of vault secrets, keyed by the url they were read from. Entries expire after the configured ttl,
+ * or earlier if the lease of the secret is shorter. Concurrent reads of a url that is not cached share one request.
+ */
+public class VaultSecretCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, CacheEntry> entries;
+    private final ConcurrentMap<String, CompletableFuture<VaultSecret>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum number of cached secrets
+     * @param ttl        maximum time in seconds a secret is cached
+     */
+    public VaultSecretCache(final int maxEntries, final int ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    VaultSecretCache(final int maxEntries, final int ttl, final LongSupplier nanoTime) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttl);
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                if (size() > VaultSecretCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached secret of the url, or reads it with the loader. If a read of the url is already in flight, its
+     * result is shared instead of starting another one. Failed reads are not cached.
+     */
+    public CompletableFuture<VaultSecret> get(final String url, final Function<String, CompletableFuture<VaultSecret>> loader) {
+        final VaultSecret cached = lookup(url);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<VaultSecret> result = new CompletableFuture<>();
+        final CompletableFuture<VaultSecret> running = inFlight.putIfAbsent(url, result);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running;
+        }
+        final VaultSecret loadedMeanwhile = lookup(url);
+        if (loadedMeanwhile != null) {
+            inFlight.remove(url, result);
+            hits.incrementAndGet();
+            result.complete(loadedMeanwhile);
+            return result;
+        }
+        misses.incrementAndGet();
+        CompletableFuture<VaultSecret> load;
+        try {
+            load = loader.apply(url);
+        } catch (RuntimeException e) {
+            load = new CompletableFuture<>();
+            load.completeExceptionally(e);
+        }
+        load.whenComplete((secret, throwable) -> {
+            if (throwable == null) {
+                put(url, secret);
+            }
+            inFlight.remove(url, result);
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else {
+                result.complete(secret);
+            }
+        });
+        return result;
+    }
+
+    public synchronized void invalidate(final String url) {
+        entries.remove(url);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that started a request to vault
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of lookups that joined a request that was already in flight
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the number of entries that were removed because the cache was full or the entry had expired
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private synchronized VaultSecret lookup(final String url) {
+        final CacheEntry entry = entries.get(url);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoTime.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(url);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.secret;
+    }
+
+    private synchronized void put(final String url, final VaultSecret secret) {
+        final long leaseNanos = TimeUnit.SECONDS.toNanos(secret.getLeaseDuration());
+        final long expiresAfter = leaseNanos > 0 ? Math.min(ttlNanos, leaseNanos) : ttlNanos;
+        if (expiresAfter > 0) {
+            entries.put(url, new CacheEntry(secret, nanoTime.getAsLong() + expiresAfter));
+        }
+    }
+
+    private static class CacheEntry {
+        private final VaultSecret secret;
+        private final long expiresAt;
+
+        CacheEntry(final VaultSecret secret, final long expiresAt) {
+            this.secret = secret;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
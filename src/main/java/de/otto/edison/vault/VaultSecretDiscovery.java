@@ -0,0 +1,89 @@
+package de.otto.edison.vault;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the secrets below the secret path by listing it breadth-first. The directories of one level are listed in
+ * parallel, keeping at most {@code maxConcurrentLists} requests in flight.
+ */
+class VaultSecretDiscovery {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultSecretDiscovery.class);
+
+    private final VaultClient vaultClient;
+    private final int maxDepth;
+    private final int maxPaths;
+    private final int maxConcurrentLists;
+
+    /**
+     * @param maxDepth           the number of directory levels below the secret path that are listed
+     * @param maxPaths           the maximum number of secrets that are returned
+     * @param maxConcurrentLists the maximum number of list requests in flight
+     */
+    VaultSecretDiscovery(final VaultClient vaultClient, final int maxDepth, final int maxPaths,
+                         final int maxConcurrentLists) {
+        this.vaultClient = vaultClient;
+        this.maxDepth = maxDepth;
+        this.maxPaths = maxPaths;
+        this.maxConcurrentLists = maxConcurrentLists;
+    }
+
+    /**
+     * @return the paths of all secrets below the secret path, relative to it and without leading slash, in
+     * breadth-first order
+     */
+    Set<String> discover() {
+        final Set<String> secretPaths = new LinkedHashSet<>();
+        List<String> directories = Collections.singletonList("");
+        for (int depth = 0; !directories.isEmpty(); depth++) {
+            if (secretPaths.size() >= maxPaths) {
+                LOG.warn("found {} vault secrets, not listing {} further directories", maxPaths, directories.size());
+                return secretPaths;
+            }
+            final Map<String, CompletableFuture<List<String>>> listings =
+                    BoundedFanOut.fanOut(directories, maxConcurrentLists, vaultClient::listKeysAsync);
+            final List<String> subDirectories = new ArrayList<>();
+            for (final Map.Entry<String, CompletableFuture<List<String>>> listing : listings.entrySet()) {
+                final String prefix = listing.getKey().isEmpty() ? "" : listing.getKey() + "/";
+                for (final String key : join(listing.getValue())) {
+                    if (key.endsWith("/")) {
+                        if (depth < maxDepth) {
+                            subDirectories.add(prefix + key.substring(0, key.length() - 1));
+                        } else {
+                            LOG.warn("not listing vault path '{}{}', it is deeper than {} levels", prefix, key, maxDepth);
+                        }
+                    } else if (secretPaths.size() < maxPaths) {
+                        secretPaths.add(prefix + key);
+                    } else {
+                        LOG.warn("found more than {} vault secrets, ignoring the rest", maxPaths);
+                        return secretPaths;
+                    }
+                }
+            }
+            directories = subDirectories;
+        }
+        LOG.info("found {} vault secrets", secretPaths.size());
+        return secretPaths;
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Keeps an encrypted copy of the properties read from vault on local disk, so that a restarting service can start
+ * from the snapshot instead of reading every secret again.
+ */
+public class VaultSnapshotStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultSnapshotStore.class);
+
+    private final Path snapshotFile;
+    private final SecretCipher cipher;
+
+    public VaultSnapshotStore(final Path snapshotFile, final SecretCipher cipher) {
+        this.snapshotFile = snapshotFile;
+        this.cipher = cipher;
+    }
+
+    public void write(final Map<String, String> properties) {
+        final SnapshotContent content = new SnapshotContent();
+        content.createdAt = Instant.now().toEpochMilli();
+        content.properties = new HashMap<>(properties);
+        final byte[] encrypted = cipher.encrypt(new Gson().toJson(content).getBytes(StandardCharsets.UTF_8));
+        try {
+            SecureFiles.writeAtomically(snapshotFile, encrypted);
+            LOG.info("wrote vault snapshot with {} properties to '{}'", properties.size(), snapshotFile);
+        } catch (IOException e) {
+            LOG.warn(String.format("could not write vault snapshot to '%s'", snapshotFile), e);
+        }
+    }
+
+    /**
+     * @return the snapshot, or an empty optional if there is none or it can not be decrypted with the configured key
+     */
+    public Optional<Snapshot> read() {
+        if (!Files.isReadable(snapshotFile)) {
+            return Optional.empty();
+        }
+        try {
+            final byte[] decrypted = cipher.decrypt(Files.readAllBytes(snapshotFile));
+            final SnapshotContent content = new Gson().fromJson(new String(decrypted, StandardCharsets.UTF_8), SnapshotContent.class);
+            if (content == null || content.properties == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(Instant.ofEpochMilli(content.createdAt), content.properties));
+        } catch (IOException | GeneralSecurityException | JsonSyntaxException e) {
+            LOG.warn("could not read vault snapshot from '{}': {}", snapshotFile, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    public static class Snapshot {
+
+        private final Instant createdAt;
+        private final Map<String, String> properties;
+
+        Snapshot(final Instant createdAt, final Map<String, String> properties) {
+            this.createdAt = createdAt;
+            this.properties = Collections.unmodifiableMap(properties);
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public boolean isYoungerThan(final Duration ttl) {
+            return Duration.between(createdAt, Instant.now()).compareTo(ttl) < 0;
+        }
+    }
+
+    private static class SnapshotContent {
+        long createdAt;
+        Map<String, String> properties;
+    }
+}
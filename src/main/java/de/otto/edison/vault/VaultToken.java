@@ -0,0 +1,40 @@
+package de.otto.edison.vault;
+
+/**
+ * A vault client token together with its time to live.
+ */
+public class VaultToken {
+
+    private final String token;
+    private final long leaseDuration;
+    private final boolean renewable;
+
+    public VaultToken(final String token, final long leaseDuration, final boolean renewable) {
+        this.token = token;
+        this.leaseDuration = leaseDuration;
+        this.renewable = renewable;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return the remaining time to live in seconds, or 0 if the token does not expire or its ttl is unknown
+     */
+    public long getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public boolean isRenewable() {
+        return renewable;
+    }
+
+    @Override
+    public String toString() {
+        return "VaultToken{" +
+                "leaseDuration=" + leaseDuration +
+                ", renewable=" + renewable +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package de.otto.edison.vault;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Keeps the token of the last login encrypted on local disk, so that restarting instances can reuse it instead of
+ * logging in again. Whether the token is still valid is not known here, it has to be looked up in vault.
+ */
+public class VaultTokenCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultTokenCache.class);
+
+    private final Path tokenCacheFile;
+    private final SecretCipher cipher;
+
+    public VaultTokenCache(final Path tokenCacheFile, final SecretCipher cipher) {
+        this.tokenCacheFile = tokenCacheFile;
+        this.cipher = cipher;
+    }
+
+    public void write(final VaultToken token) {
+        final TokenContent content = new TokenContent();
+        content.createdAt = Instant.now().toEpochMilli();
+        content.token = token.getToken();
+        final byte[] encrypted = cipher.encrypt(new Gson().toJson(content).getBytes(StandardCharsets.UTF_8));
+        try {
+            SecureFiles.writeAtomically(tokenCacheFile, encrypted);
+            LOG.info("wrote vault token to token cache '{}'", tokenCacheFile);
+        } catch (IOException e) {
+            LOG.warn(String.format("could not write vault token to token cache '%s'", tokenCacheFile), e);
+        }
+    }
+
+    /**
+     * @return the cached token, or an empty optional if there is none or it can not be decrypted with the configured key
+     */
+    public Optional<String> read() {
+        if (!Files.isReadable(tokenCacheFile)) {
+            return Optional.empty();
+        }
+        try {
+            final byte[] decrypted = cipher.decrypt(Files.readAllBytes(tokenCacheFile));
+            final TokenContent content = new Gson().fromJson(new String(decrypted, StandardCharsets.UTF_8), TokenContent.class);
+            if (content == null || content.token == null || content.token.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(content.token);
+        } catch (IOException | GeneralSecurityException | JsonSyntaxException e) {
+            LOG.warn("could not read vault token from token cache '{}': {}", tokenCacheFile, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private static class TokenContent {
+        long createdAt;
+        String token;
+    }
+}
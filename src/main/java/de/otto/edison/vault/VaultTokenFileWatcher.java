@@ -0,0 +1,118 @@
+package de.otto.edison.vault;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the directory of a token file and hands a changed token to the {@link VaultTokenManager}, from which all
+ * {@link VaultClient}s take the token of their next request. The whole directory is watched, so that tokens that are
+ * replaced by renaming a file or switching a symlink, as secret agents and Kubernetes do, are noticed as well. Only
+ * changes of the token file count, unless the token file is a symlink, whose target may be switched by changing any
+ * other entry of the directory. Changes are debounced: the file is read once no further change has happened for the
+ * debounce time.
+ */
+public class VaultTokenFileWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultTokenFileWatcher.class);
+
+    private final Path tokenFile;
+    private final long debounceMillis;
+    private final VaultTokenReader tokenReader;
+    private final VaultTokenManager tokenManager;
+    private final WatchService watchService;
+
+    /**
+     * Starts watching the token file on a daemon thread.
+     *
+     * @param debounceMillis time in milliseconds without further changes after which the token file is read
+     */
+    public VaultTokenFileWatcher(final Path tokenFile, final long debounceMillis, final VaultTokenReader tokenReader,
+                                 final VaultTokenManager tokenManager) throws IOException {
+        this.tokenFile = tokenFile.toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.tokenReader = tokenReader;
+        this.tokenManager = tokenManager;
+        this.watchService = this.tokenFile.getFileSystem().newWatchService();
+        try {
+            this.tokenFile.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        final Thread thread = new Thread(this::watch, "edison-vault-token-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("watching vault token file '{}'", this.tokenFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!consume(watchService.take())) {
+                    continue;
+                }
+                final long debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                long quietUntil = System.nanoTime() + debounceNanos;
+                long remaining;
+                while ((remaining = quietUntil - System.nanoTime()) > 0) {
+                    final WatchKey next = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null && consume(next)) {
+                        quietUntil = System.nanoTime() + debounceNanos;
+                    }
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            LOG.debug("stopped watching vault token file '{}'", tokenFile);
+        }
+    }
+
+    /**
+     * Consumes the events of the key and returns whether one of them may have changed the token file.
+     */
+    private boolean consume(final WatchKey key) {
+        boolean tokenFileChanged = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            tokenFileChanged |= event.kind() == OVERFLOW
+                    || tokenFile.getFileName().equals(event.context())
+                    || Files.isSymbolicLink(tokenFile);
+        }
+        key.reset();
+        return tokenFileChanged;
+    }
+
+    /**
+     * Reads the token file and replaces the token if it has changed. If the file can not be read, e.g. in the middle
+     * of a rotation, the current token is kept.
+     */
+    void reload() {
+        try {
+            final String token = tokenReader.readTokenFromFile(tokenFile.toString());
+            if (!token.isEmpty() && !token.equals(tokenManager.get())) {
+                tokenManager.replaceToken(token);
+                LOG.info("vault token file '{}' has changed, using the new token", tokenFile);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("could not read vault token file '{}', keeping the current token: {}", tokenFile, e.toString());
+        }
+    }
+}
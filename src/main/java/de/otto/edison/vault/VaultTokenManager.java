@@ -0,0 +1,183 @@
+package de.otto.edison.vault;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the current vault token and renews it before it expires. Tokens that can not be renewed are replaced by a new
+ * login if the token source is {@code login}.
+ * <p>
+ * {@link VaultClient}s read the token through {@link #get()}, which is a plain volatile read, so renewals never block
+ * requests. All renewals run on the given scheduler.
+ */
+public class VaultTokenManager implements Supplier<String> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VaultTokenManager.class);
+
+    static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MIN_RENEWAL_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final AtomicReference<VaultToken> token;
+    private final VaultTokenReader tokenReader;
+    private final ConfigProperties configProperties;
+    private final ScheduledExecutorService scheduler;
+    private final VaultMetrics metrics;
+    private volatile boolean started;
+    private ScheduledFuture<?> nextRenewal;
+
+    public VaultTokenManager(final VaultToken token,
+                             final VaultTokenReader tokenReader,
+                             final ConfigProperties configProperties,
+                             final ScheduledExecutorService scheduler) {
+        this(token, tokenReader, configProperties, scheduler, VaultMetrics.NOOP);
+    }
+
+    public VaultTokenManager(final VaultToken token,
+                             final VaultTokenReader tokenReader,
+                             final ConfigProperties configProperties,
+                             final ScheduledExecutorService scheduler,
+                             final VaultMetrics metrics) {
+        this.token = new AtomicReference<>(token);
+        this.tokenReader = tokenReader;
+        this.configProperties = configProperties;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String get() {
+        return token.get().getToken();
+    }
+
+    public VaultToken getToken() {
+        return token.get();
+    }
+
+    /**
+     * Replaces the token, e.g. after the token file has been rotated. Requests that are already in flight keep the
+     * token they were sent with. Once renewal is started, the ttl of the new token is looked up on the scheduler and
+     * its renewal replaces the renewal of the previous token.
+     */
+    public void replaceToken(final String newToken) {
+        final VaultToken replacement = new VaultToken(newToken, 0, false);
+        token.set(replacement);
+        if (started) {
+            try {
+                scheduler.execute(() -> lookUpAndScheduleRenewal(replacement));
+            } catch (RejectedExecutionException e) {
+                LOG.debug("scheduler is shut down, vault token is no longer renewed");
+            }
+        }
+    }
+
+    /**
+     * Looks up the ttl of tokens whose lease is unknown and schedules the first renewal.
+     */
+    public void start() {
+        started = true;
+        lookUpAndScheduleRenewal(token.get());
+    }
+
+    private void lookUpAndScheduleRenewal(final VaultToken current) {
+        VaultToken lookedUp = current;
+        if (current.getLeaseDuration() == 0 && !isLogin()) {
+            try {
+                lookedUp = tokenReader.lookupSelf(configProperties.getBaseUrls(), current.getToken());
+            } catch (RuntimeException e) {
+                LOG.warn("could not look up ttl of vault token, token will not be renewed", e);
+                return;
+            }
+            if (!token.compareAndSet(current, lookedUp)) {
+                LOG.debug("vault token was replaced during the lookup of its ttl");
+                return;
+            }
+        }
+        scheduleRenewal(lookedUp);
+    }
+
+    /**
+     * Renews the current token. If the token is replaced while the renewal is running, the replacement is kept and
+     * renewed on its own.
+     */
+    void renew() {
+        final VaultToken current = token.get();
+        try {
+            final VaultToken renewed;
+            if (current.isRenewable()) {
+                renewed = tokenReader.renewSelf(configProperties.getBaseUrls(), current.getToken());
+            } else if (isLogin()) {
+                renewed = login();
+            } else {
+                LOG.warn("vault token is not renewable and can not be replaced by a login, it will expire");
+                return;
+            }
+            swapAndScheduleRenewal(current, renewed);
+        } catch (RuntimeException e) {
+            if (current.isRenewable() && isLogin()) {
+                LOG.warn("renewal of vault token failed, logging in again", e);
+                try {
+                    swapAndScheduleRenewal(current, login());
+                    return;
+                } catch (RuntimeException loginException) {
+                    LOG.warn("login to vault failed", loginException);
+                }
+            } else {
+                LOG.warn("renewal of vault token failed", e);
+            }
+            if (token.get() != current) {
+                LOG.debug("vault token was replaced during its renewal, not retrying the renewal");
+                return;
+            }
+            metrics.recordRetry("token-renewal");
+            schedule(RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void swapAndScheduleRenewal(final VaultToken current, final VaultToken renewed) {
+        if (!token.compareAndSet(current, renewed)) {
+            LOG.debug("vault token was replaced during its renewal, keeping the new token");
+            return;
+        }
+        scheduleRenewal(renewed);
+    }
+
+    /**
+     * A token is renewed after two thirds of its lease duration. Tokens without a lease do not expire.
+     */
+    static long renewalDelayInMillis(final VaultToken token) {
+        return Math.max(MIN_RENEWAL_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(token.getLeaseDuration()) * 2 / 3);
+    }
+
+    private void scheduleRenewal(final VaultToken token) {
+        if (token.getLeaseDuration() > 0) {
+            schedule(renewalDelayInMillis(token));
+        }
+    }
+
+    private synchronized void schedule(final long delayInMillis) {
+        if (nextRenewal != null) {
+            nextRenewal.cancel(false);
+        }
+        try {
+            nextRenewal = scheduler.schedule(this::renew, delayInMillis, TimeUnit.MILLISECONDS);
+            LOG.debug("next renewal of vault token in {} ms", delayInMillis);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("scheduler is shut down, vault token is no longer renewed");
+        }
+    }
+
+    private VaultToken login() {
+        return tokenReader.login(configProperties.getBaseUrls(), configProperties.getAppId(), configProperties.getUserId());
+    }
+
+    private boolean isLogin() {
+        return "login".equals(configProperties.getTokenSource());
+    }
+}
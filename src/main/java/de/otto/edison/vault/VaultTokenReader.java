@@ -5,46 +5,139 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 import org.asynchttpclient.AsyncHttpClient;
-import org.asynchttpclient.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
 import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
 
 public class VaultTokenReader {
     private static final Logger LOG = LoggerFactory.getLogger(VaultTokenReader.class);
 
-    private final AsyncHttpClient asyncHttpClient;
+    private final VaultTransport transport;
+    private final VaultMetrics metrics;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private VaultTokenCache tokenCache;
+    private RequestLimiter limiter;
+    private long tokenCacheMinTtl;
 
     public VaultTokenReader(final AsyncHttpClient asyncHttpClient) {
-        this.asyncHttpClient = asyncHttpClient;
+        this(asyncHttpClient, VaultMetrics.NOOP);
+    }
+
+    public VaultTokenReader(final AsyncHttpClient asyncHttpClient, final VaultMetrics metrics) {
+        this(asyncHttpClient, metrics, RetryPolicy.NO_RETRIES, null);
+    }
+
+    /**
+     * Logins and token lookups that fail with a transient error are retried with the given policy. Renewals are not
+     * retried here, the {@link VaultTokenManager} schedules them again.
+     *
+     * @param circuitBreaker rejects requests while vault is down, may be null
+     */
+    public VaultTokenReader(final AsyncHttpClient asyncHttpClient, final VaultMetrics metrics,
+                            final RetryPolicy retryPolicy, final CircuitBreaker circuitBreaker) {
+        this(new AsyncHttpClientTransport(asyncHttpClient), metrics, retryPolicy, circuitBreaker);
+    }
+
+    /**
+     * Sends the requests with the given transport, retrying like
+     * {@link #VaultTokenReader(AsyncHttpClient, VaultMetrics, RetryPolicy, CircuitBreaker)}.
+     */
+    public VaultTokenReader(final VaultTransport transport, final VaultMetrics metrics,
+                            final RetryPolicy retryPolicy, final CircuitBreaker circuitBreaker) {
+        this.transport = transport;
+        this.metrics = metrics;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Reuses the token of the last login from the token cache if vault still knows it and it is valid for at least
+     * {@code minTtl} seconds. Every login stores its token in the cache.
+     */
+    public VaultTokenReader withTokenCache(final VaultTokenCache tokenCache, final long minTtl) {
+        this.tokenCache = tokenCache;
+        this.tokenCacheMinTtl = minTtl;
+        return this;
+    }
+
+    /**
+     * Sends all requests through the limiter.
+     */
+    public VaultTokenReader withLimiter(final RequestLimiter limiter) {
+        this.limiter = limiter;
+        return this;
     }
 
     public String readVaultToken(ConfigProperties configProperties) {
+        return readToken(configProperties).getToken();
+    }
+
+    /**
+     * Reads the token like {@link #readVaultToken(ConfigProperties)}. The lease duration is only known for tokens from a
+     * login and is 0 for tokens from a file or the environment.
+     */
+    public VaultToken readToken(ConfigProperties configProperties) {
         if(configProperties.getTokenSource() == null) {
             throw new IllegalArgumentException("tokenSource not set");
         }
         switch (configProperties.getTokenSource()) {
             case "login":
-                return readTokenFromLogin(configProperties.getBaseUrl(), configProperties.getAppId(), configProperties.getUserId());
+                final Optional<VaultToken> cachedToken = readCachedToken(configProperties.getBaseUrls());
+                return cachedToken.isPresent()
+                        ? cachedToken.get()
+                        : login(configProperties.getBaseUrls(), configProperties.getAppId(), configProperties.getUserId());
             case "file":
-                String fileToken = configProperties.getFileToken();
-                if (StringUtils.isEmpty(fileToken)) {
-                    fileToken = configProperties.getDefaultVaultTokenFileName();
-                }
-                return readTokenFromFile(fileToken);
+                return new VaultToken(readTokenFromFile(tokenFileName(configProperties)), 0, false);
             case "environment":
-                return readTokenFromEnv(configProperties.getEnvironmentToken());
+                return new VaultToken(readTokenFromEnv(configProperties.getEnvironmentToken()), 0, false);
             default:
                 throw new IllegalArgumentException("tokenSource is undefined");
         }
     }
 
+    /**
+     * Looks up the cached token with {@code auth/token/lookup-self}, which is much cheaper for vault than a login.
+     */
+    private Optional<VaultToken> readCachedToken(final List<String> vaultBaseUrls) {
+        if (tokenCache == null) {
+            return Optional.empty();
+        }
+        final Optional<String> cachedToken = tokenCache.read();
+        if (!cachedToken.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            final VaultToken token = lookupSelf(vaultBaseUrls, cachedToken.get());
+            if (token.getLeaseDuration() > 0 && token.getLeaseDuration() < tokenCacheMinTtl) {
+                LOG.info("cached vault token expires in {} s, logging in again", token.getLeaseDuration());
+                return Optional.empty();
+            }
+            LOG.info("reusing cached vault token");
+            return Optional.of(token);
+        } catch (RuntimeException e) {
+            LOG.info("cached vault token is not valid any more, logging in again: {}", e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the configured token file, or $HOME/.vault-token if there is none
+     */
+    static String tokenFileName(final ConfigProperties configProperties) {
+        final String fileToken = configProperties.getFileToken();
+        return StringUtils.isEmpty(fileToken) ? configProperties.getDefaultVaultTokenFileName() : fileToken;
+    }
+
     protected String readTokenFromFile(String fileName) {
         try {
             File tokenFile = new File(fileName);
@@ -62,33 +155,166 @@ public class VaultTokenReader {
     }
 
     public String readTokenFromLogin(final String vaultBaseUrl, final String appId, final String userId) {
+        return login(vaultBaseUrl, appId, userId).getToken();
+    }
+
+    /**
+     * Logs in at the first of the given vault nodes that answers.
+     */
+    public VaultToken login(final List<String> vaultBaseUrls, final String appId, final String userId) {
+        return onFirstAvailableNode(vaultBaseUrls, baseUrl -> login(baseUrl, appId, userId));
+    }
+
+    public VaultToken login(final String vaultBaseUrl, final String appId, final String userId) {
+        final long startedAt = System.nanoTime();
         try {
-            final Response response = asyncHttpClient
-                    .preparePost(vaultBaseUrl + "/v1/auth/app-id/login")
-                    .setBody(createAuthBody(appId, userId))
-                    .execute()
-                    .get();
+            final VaultResponse response = retryPolicy.execute("login", circuitBreaker, metrics, () -> send(VaultRequest
+                    .post(vaultBaseUrl + "/v1/auth/app-id/login")
+                    .withBody(createAuthBody(appId, userId))));
+            metrics.recordLogin(response.getStatusCode() == 200, System.nanoTime() - startedAt);
 
             if ((response.getStatusCode() != 200)) {
                 throw new RuntimeException("login to vault failed, return code is " + response.getStatusCode());
             }
             LOG.info("login to vault successful");
 
-            return extractToken(response.getResponseBody());
+            final VaultToken token = extractToken(response.getResponseBody());
+            if (tokenCache != null) {
+                tokenCache.write(token);
+            }
+            return token;
         } catch (ExecutionException | InterruptedException e) {
+            metrics.recordLogin(false, System.nanoTime() - startedAt);
             LOG.error("could not retrieve token from vault", e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Renews the token like {@link #renewSelf(String, String)} at the first of the given vault nodes that answers.
+     */
+    public VaultToken renewSelf(final List<String> vaultBaseUrls, final String token) {
+        return onFirstAvailableNode(vaultBaseUrls, baseUrl -> renewSelf(baseUrl, token));
+    }
+
+    /**
+     * Extends the lease of the given token by calling {@code auth/token/renew-self}.
+     */
+    public VaultToken renewSelf(final String vaultBaseUrl, final String token) {
+        try {
+            final VaultResponse response = send(VaultRequest
+                    .post(vaultBaseUrl + "/v1/auth/token/renew-self")
+                    .withHeader("X-Vault-Token", token));
+
+            if ((response.getStatusCode() != 200)) {
+                throw new RuntimeException("renewal of vault token failed, return code is " + response.getStatusCode());
+            }
+            LOG.info("renewal of vault token successful");
+
+            return extractToken(response.getResponseBody());
+        } catch (ExecutionException | InterruptedException e) {
+            LOG.error("could not renew vault token", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Looks up the token like {@link #lookupSelf(String, String)} at the first of the given vault nodes that answers.
+     */
+    public VaultToken lookupSelf(final List<String> vaultBaseUrls, final String token) {
+        return onFirstAvailableNode(vaultBaseUrls, baseUrl -> lookupSelf(baseUrl, token));
+    }
+
+    /**
+     * Reads the remaining ttl of the given token by calling {@code auth/token/lookup-self}.
+     */
+    public VaultToken lookupSelf(final String vaultBaseUrl, final String token) {
+        try {
+            final VaultResponse response = retryPolicy.execute("lookup-self", circuitBreaker, metrics, () -> send(VaultRequest
+                    .get(vaultBaseUrl + "/v1/auth/token/lookup-self")
+                    .withHeader("X-Vault-Token", token)));
+
+            if ((response.getStatusCode() != 200)) {
+                throw new RuntimeException("lookup of vault token failed, return code is " + response.getStatusCode());
+            }
+
+            final LookupResponse lookup = new Gson().fromJson(response.getResponseBody(), LookupResponse.class);
+            if (lookup == null || lookup.data == null) {
+                throw new RuntimeException("lookup of vault token failed, response contains no data");
+            }
+            return new VaultToken(token, lookup.data.ttl, lookup.data.renewable);
+        } catch (ExecutionException | InterruptedException e) {
+            LOG.error("could not look up vault token", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sends the request to the vault nodes in the configured order until one of them succeeds, so that logins and token
+     * requests keep working while the first node is down.
+     */
+    private static VaultToken onFirstAvailableNode(final List<String> vaultBaseUrls,
+                                                   final Function<String, VaultToken> request) {
+        if (vaultBaseUrls.isEmpty()) {
+            throw new IllegalArgumentException("no vault base url configured");
+        }
+        RuntimeException failure = null;
+        for (final String baseUrl : vaultBaseUrls) {
+            try {
+                return request.apply(baseUrl);
+            } catch (RuntimeException e) {
+                if (failure != null) {
+                    e.addSuppressed(failure);
+                }
+                failure = e;
+                LOG.warn("request to vault node {} failed: {}", baseUrl, e.toString());
+            }
+        }
+        throw failure;
+    }
+
+    private VaultResponse send(final VaultRequest request) throws ExecutionException, InterruptedException {
+        return limiter != null
+                ? limiter.execute(() -> transport.executeAsync(request)).get()
+                : transport.execute(request);
+    }
+
     private static String createAuthBody(final String appId, final String userId) {
         return String.format("{\"app_id\":\"%s\", \"user_id\": \"%s\"}", appId, userId);
     }
 
-    private static String extractToken(final String responseBody) {
-        Map<String, Object> responseMap = new Gson().fromJson(responseBody, Map.class);
-        Map<String, String> auth = (Map<String, String>) responseMap.get("auth");
+    private static VaultToken extractToken(final String responseBody) {
+        final AuthResponse response = new Gson().fromJson(responseBody, AuthResponse.class);
+        if (response == null || response.auth == null) {
+            throw new RuntimeException("vault response contains no auth");
+        }
+        return new VaultToken(response.auth.clientToken, response.auth.leaseDuration, response.auth.renewable);
+    }
+
+    /**
+     * Body of a login or {@code auth/token/renew-self}.
+     */
+    private static class AuthResponse {
+        Auth auth;
+    }
+
+    private static class Auth {
+        @SerializedName("client_token")
+        String clientToken;
+        @SerializedName("lease_duration")
+        long leaseDuration;
+        boolean renewable;
+    }
+
+    /**
+     * Body of {@code auth/token/lookup-self}.
+     */
+    private static class LookupResponse {
+        LookupData data;
+    }
 
-        return auth.get("client_token");
+    private static class LookupData {
+        long ttl;
+        boolean renewable;
     }
 }
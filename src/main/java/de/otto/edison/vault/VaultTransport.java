@@ -0,0 +1,48 @@
+package de.otto.edison.vault;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sends the http requests of the vault clients. {@link AsyncHttpClientTransport} is based on the AsyncHttpClient and
+ * Netty; {@link JdkHttpTransport} only needs the JDK and starts faster, which suits applications that read a few
+ * secrets at startup. Requests that fail with an {@link java.io.IOException} or a timeout are reported as such, so
+ * that {@link RetryPolicy} can tell transient failures apart.
+ */
+public interface VaultTransport extends Closeable {
+
+    String ASYNC_HTTP_CLIENT = "async-http-client";
+    String JDK = "jdk";
+
+    /**
+     * Sends the request and waits for the response.
+     *
+     * @throws ExecutionException if no response has been received, the cause is the failure
+     */
+    VaultResponse execute(VaultRequest request) throws ExecutionException, InterruptedException;
+
+    /**
+     * Sends the request without blocking. The returned future completes on a thread of the transport. Failures,
+     * including a closed transport, complete the future exceptionally instead of being thrown.
+     */
+    CompletableFuture<VaultResponse> executeAsync(VaultRequest request);
+
+    boolean isClosed();
+
+    /**
+     * Creates the transport selected by {@code edison.vault.http.transport}. The caller owns the returned transport and
+     * has to close it.
+     */
+    static VaultTransport vaultTransport(final ConfigProperties configProperties) {
+        switch (configProperties.getHttpTransport()) {
+            case ASYNC_HTTP_CLIENT:
+                return AsyncHttpClientTransport.asyncHttpClientTransport(configProperties);
+            case JDK:
+                return JdkHttpTransport.jdkHttpTransport(configProperties);
+            default:
+                throw new IllegalArgumentException(String.format("unknown vault http transport '%s', use '%s' or '%s'",
+                        configProperties.getHttpTransport(), ASYNC_HTTP_CLIENT, JDK));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.ListenableFuture;
+import org.asynchttpclient.Response;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AsyncHttpClientTransportTest {
+
+    private AsyncHttpClient asyncHttpClient;
+    private BoundRequestBuilder boundRequestBuilder;
+    private ListenableFuture<Response> listenableFuture;
+    private Response response;
+    private AsyncHttpClientTransport testee;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        asyncHttpClient = mock(AsyncHttpClient.class);
+        boundRequestBuilder = mock(BoundRequestBuilder.class);
+        listenableFuture = mock(ListenableFuture.class);
+        response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBody()).thenReturn("someBody");
+        when(boundRequestBuilder.setHeader("X-Vault-Token", "someToken")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setBody("{}")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        testee = new AsyncHttpClientTransport(asyncHttpClient);
+    }
+
+    @Test
+    public void shouldSendGetWithHeaders() throws Exception {
+        // given
+        when(asyncHttpClient.prepareGet("http://someBaseUrl/v1/secret/test")).thenReturn(boundRequestBuilder);
+        when(listenableFuture.get()).thenReturn(response);
+
+        // when
+        final VaultResponse vaultResponse = testee.execute(VaultRequest.get("http://someBaseUrl/v1/secret/test")
+                .withHeader("X-Vault-Token", "someToken"));
+
+        // then
+        verify(boundRequestBuilder).setHeader("X-Vault-Token", "someToken");
+        assertThat(vaultResponse.getStatusCode(), is(200));
+        assertThat(vaultResponse.getResponseBody(), is("someBody"));
+    }
+
+    @Test
+    public void shouldSendPutWithBodyAsynchronously() throws Exception {
+        // given
+        when(asyncHttpClient.preparePut("http://someBaseUrl/v1/sys/leases/renew")).thenReturn(boundRequestBuilder);
+        when(listenableFuture.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        final VaultResponse vaultResponse = testee.executeAsync(VaultRequest.put("http://someBaseUrl/v1/sys/leases/renew")
+                .withBody("{}")).get();
+
+        // then
+        verify(boundRequestBuilder).setBody("{}");
+        assertThat(vaultResponse.getStatusCode(), is(200));
+    }
+}
@@ -0,0 +1,93 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CircuitBreakerTest {
+
+    private AtomicLong now;
+    private CircuitBreaker testee;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        now = new AtomicLong();
+        testee = new CircuitBreaker(3, 1000, now::get);
+    }
+
+    @Test
+    public void shouldOpenAfterConsecutiveFailures() throws Exception {
+        // when
+        testee.onFailure();
+        testee.onFailure();
+        testee.onSuccess();
+        testee.onFailure();
+        testee.onFailure();
+        CircuitBreaker.State beforeThreshold = testee.getState();
+        testee.onFailure();
+
+        // then
+        assertThat(beforeThreshold, is(CircuitBreaker.State.CLOSED));
+        assertThat(testee.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void shouldLetRequestsThroughAfterOpenDuration() throws Exception {
+        // given
+        openBreaker();
+
+        // when
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        testee.acquire();
+
+        // then
+        assertThat(testee.getState(), is(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessInHalfOpenState() throws Exception {
+        // given
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // when
+        testee.onSuccess();
+
+        // then
+        assertThat(testee.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void shouldOpenAgainAfterFailureInHalfOpenState() throws Exception {
+        // given
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // when
+        testee.onFailure();
+
+        // then
+        assertThat(testee.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "vault circuit breaker is open, request is not sent")
+    public void shouldRejectRequestsWhileOpen() throws Exception {
+        // given
+        openBreaker();
+
+        // when
+        testee.acquire();
+    }
+
+    private void openBreaker() {
+        testee.onFailure();
+        testee.onFailure();
+        testee.onFailure();
+    }
+}
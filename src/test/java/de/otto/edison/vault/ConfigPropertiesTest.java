@@ -5,6 +5,7 @@ import org.springframework.core.env.Environment;
 import org.testng.annotations.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
@@ -39,6 +40,222 @@ public class ConfigPropertiesTest {
         assertThat(testee.getTokenSource(), is("file"));
         assertThat(testee.getAppId(), is("someAppId"));
         assertThat(testee.getUserId(), is("someUserId"));
+        assertThat(testee.getMaxConcurrentReads(), is(8));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldReadMaxConcurrentReads() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.max-concurrent-reads")).thenReturn("32");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.getMaxConcurrentReads(), is(32));
+    }
+
+    @Test
+    public void shouldReadHttpClientSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.http.connect-timeout")).thenReturn("100");
+        when(environment.getProperty("edison.vault.http.read-timeout")).thenReturn("200");
+        when(environment.getProperty("edison.vault.http.request-timeout")).thenReturn("300");
+        when(environment.getProperty("edison.vault.http.max-connections")).thenReturn("4");
+        when(environment.getProperty("edison.vault.http.keep-alive")).thenReturn("false");
+        when(environment.getProperty("edison.vault.http.pooled-connection-idle-timeout")).thenReturn("400");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.getHttpConnectTimeout(), is(100));
+        assertThat(testee.getHttpReadTimeout(), is(200));
+        assertThat(testee.getHttpRequestTimeout(), is(300));
+        assertThat(testee.getHttpMaxConnections(), is(4));
+        assertThat(testee.isHttpKeepAlive(), is(false));
+        assertThat(testee.getHttpPooledConnectionIdleTimeout(), is(400));
+    }
+
+    @Test
+    public void shouldReadCacheSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.cache.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.cache.max-entries")).thenReturn("50");
+        when(environment.getProperty("edison.vault.cache.ttl")).thenReturn("5");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isCacheEnabled(), is(true));
+        assertThat(testee.getCacheMaxEntries(), is(50));
+        assertThat(testee.getCacheTtl(), is(5));
+    }
+
+    @Test
+    public void shouldReadRetryAndCircuitBreakerSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.retry.max-attempts")).thenReturn("5");
+        when(environment.getProperty("edison.vault.retry.initial-backoff")).thenReturn("50");
+        when(environment.getProperty("edison.vault.retry.max-backoff")).thenReturn("500");
+        when(environment.getProperty("edison.vault.circuit-breaker.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.circuit-breaker.failure-threshold")).thenReturn("2");
+        when(environment.getProperty("edison.vault.circuit-breaker.open-duration")).thenReturn("3000");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.getRetryMaxAttempts(), is(5));
+        assertThat(testee.getRetryInitialBackoff(), is(50));
+        assertThat(testee.getRetryMaxBackoff(), is(500));
+        assertThat(testee.isCircuitBreakerEnabled(), is(true));
+        assertThat(testee.getCircuitBreakerFailureThreshold(), is(2));
+        assertThat(testee.getCircuitBreakerOpenDuration(), is(3000));
+    }
+
+    @Test
+    public void shouldReadSeveralBaseUrlsAndHedgeSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.base-url")).thenReturn("https://vault-1:8200, https://vault-2:8200,https://vault-3:8200");
+        when(environment.getProperty("edison.vault.hedge.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.hedge.percentile")).thenReturn("90");
+        when(environment.getProperty("edison.vault.hedge.min-delay")).thenReturn("15");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.getBaseUrls(), contains("https://vault-1:8200", "https://vault-2:8200", "https://vault-3:8200"));
+        assertThat(testee.getBaseUrl(), is("https://vault-1:8200"));
+        assertThat(testee.isHedgeEnabled(), is(true));
+        assertThat(testee.getHedgePercentile(), is(90));
+        assertThat(testee.getHedgeMinDelay(), is(15));
+    }
+
+    @Test
+    public void shouldReadDiscoverySettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.discovery.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.discovery.max-depth")).thenReturn("3");
+        when(environment.getProperty("edison.vault.discovery.max-paths")).thenReturn("50");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isDiscoveryEnabled(), is(true));
+        assertThat(testee.getDiscoveryMaxDepth(), is(3));
+        assertThat(testee.getDiscoveryMaxPaths(), is(50));
+    }
+
+    @Test
+    public void shouldReadNodeCacheSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("user.home")).thenReturn("/home/someUser");
+        when(environment.getProperty("edison.vault.node-cache.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.node-cache.key-file")).thenReturn("/etc/vault-cache-key");
+        when(environment.getProperty("edison.vault.node-cache.slots")).thenReturn("64");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isNodeCacheEnabled(), is(true));
+        assertThat(testee.getNodeCacheFile(), is("/home/someUser/.edison-vault-node-cache"));
+        assertThat(testee.getNodeCacheKeyFile(), is("/etc/vault-cache-key"));
+        assertThat(testee.getNodeCacheSlots(), is(64));
+        assertThat(testee.getNodeCacheSlotSize(), is(4096));
+        assertThat(testee.getNodeCacheTtl(), is(300));
+    }
+
+    @Test
+    public void shouldReadTokenWatchSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.token-watch.enabled")).thenReturn("true");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isTokenWatchEnabled(), is(true));
+        assertThat(testee.getTokenWatchDebounce(), is(500));
+    }
+
+    @Test
+    public void shouldReadLeaseRenewalSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.lease-renewal.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.lease-renewal.tick")).thenReturn("250");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isLeaseRenewalEnabled(), is(true));
+        assertThat(testee.getLeaseRenewalTick(), is(250));
+        assertThat(testee.getLeaseRenewalWheelSize(), is(512));
+    }
+
+    @Test
+    public void shouldReadTokenCacheSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("user.home")).thenReturn("/home/someUser");
+        when(environment.getProperty("edison.vault.token-cache.enabled")).thenReturn("true");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isTokenCacheEnabled(), is(true));
+        assertThat(testee.getTokenCacheFile(), is("/home/someUser/.edison-vault-token-cache"));
+        assertThat(testee.getTokenCacheMinTtl(), is(300));
+    }
+
+    @Test
+    public void shouldReadLimiterSettings() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.limiter.enabled")).thenReturn("true");
+        when(environment.getProperty("edison.vault.limiter.rate")).thenReturn("10");
+        when(environment.getProperty("edison.vault.limiter.startup-delay")).thenReturn("2000");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.isLimiterEnabled(), is(true));
+        assertThat(testee.getLimiterRate(), is(10));
+        assertThat(testee.getLimiterBurst(), is(20));
+        assertThat(testee.getLimiterInitialConcurrency(), is(8));
+        assertThat(testee.getLimiterMaxConcurrency(), is(64));
+        assertThat(testee.getLimiterLatencyThreshold(), is(500));
+        assertThat(testee.getLimiterStartupDelay(), is(2000));
+    }
+
+    @Test
+    public void shouldReadHttpTransport() throws Exception {
+        // Given
+        Environment environment = mock(Environment.class);
+        when(environment.getProperty("edison.vault.http.transport")).thenReturn("jdk");
+
+        // When
+        ConfigProperties testee = new ConfigProperties(environment);
+
+        // Then
+        assertThat(testee.getHttpTransport(), is("jdk"));
+        assertThat(new ConfigProperties(mock(Environment.class)).getHttpTransport(), is("async-http-client"));
+    }
+}
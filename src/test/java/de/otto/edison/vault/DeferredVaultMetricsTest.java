@@ -0,0 +1,77 @@
+package de.otto.edison.vault;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DeferredVaultMetricsTest {
+
+    private VaultMetrics metrics;
+    private DeferredVaultMetrics testee;
+
+    @BeforeMethod
+    public void setUp() {
+        metrics = mock(VaultMetrics.class);
+        testee = new DeferredVaultMetrics();
+    }
+
+    @Test
+    public void shouldHandBufferedMeasurementsOver() {
+        // given
+        testee.recordPropertySourceInitialization(42);
+        testee.recordRead("someSecret", 200, 7);
+
+        // when
+        testee.delegateTo(metrics);
+
+        // then
+        verify(metrics).recordPropertySourceInitialization(42);
+        verify(metrics).recordRead("someSecret", 200, 7);
+    }
+
+    @Test
+    public void shouldPassMeasurementsOnOnceDelegateIsKnown() {
+        // given
+        testee.delegateTo(metrics);
+
+        // when
+        testee.recordRetry("token-renewal");
+
+        // then
+        verify(metrics).recordRetry("token-renewal");
+    }
+
+    @Test
+    public void shouldKeepFirstDelegate() {
+        // given
+        final VaultMetrics other = mock(VaultMetrics.class);
+        testee.delegateTo(metrics);
+
+        // when
+        testee.delegateTo(other);
+        testee.recordHedgedRead("someSecret");
+
+        // then
+        verify(metrics).recordHedgedRead("someSecret");
+        verify(other, never()).recordHedgedRead(anyString());
+    }
+
+    @Test
+    public void shouldDropMeasurementsBeyondBufferLimit() {
+        // given
+        for (int i = 0; i < DeferredVaultMetrics.MAX_BUFFERED + 10; i++) {
+            testee.recordRetry("read");
+        }
+
+        // when
+        testee.delegateTo(metrics);
+
+        // then
+        verify(metrics, times(DeferredVaultMetrics.MAX_BUFFERED)).recordRetry("read");
+    }
+}
@@ -0,0 +1,215 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class JdkHttpTransportTest {
+
+    private HttpServer vaultServer;
+    private String baseUrl;
+    private List<String> requests;
+    private Set<Integer> clientPorts;
+    private JdkHttpTransport testee;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        requests = new CopyOnWriteArrayList<>();
+        clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        vaultServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        vaultServer.createContext("/v1/secret/test", exchange -> {
+            record(exchange);
+            respond(exchange, 200, "{\"data\":{\"value\":\"secret\"}}");
+        });
+        vaultServer.createContext("/v1/auth/app-id/login", exchange -> {
+            record(exchange);
+            respond(exchange, 200, read(exchange.getRequestBody()));
+        });
+        vaultServer.createContext("/v1/secret/missing", exchange -> {
+            record(exchange);
+            respond(exchange, 404, "{\"errors\":[]}");
+        });
+        vaultServer.createContext("/v1/standby", exchange -> {
+            record(exchange);
+            exchange.getResponseHeaders().set("Location", "/v1/auth/app-id/login");
+            exchange.sendResponseHeaders(307, -1);
+            exchange.close();
+        });
+        vaultServer.createContext("/v1/secret/slow", exchange -> {
+            record(exchange);
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (int i = 0; i < 20; i++) {
+                    body.write(' ');
+                    body.flush();
+                    Thread.sleep(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        vaultServer.start();
+        baseUrl = "http://127.0.0.1:" + vaultServer.getAddress().getPort();
+        testee = new JdkHttpTransport(1000, 1000, 500, 2, true);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        testee.close();
+        vaultServer.stop(0);
+    }
+
+    @Test
+    public void shouldSendGetWithHeaders() throws Exception {
+        // when
+        final VaultResponse response = testee.execute(VaultRequest.get(baseUrl + "/v1/secret/test")
+                .withHeader("X-Vault-Token", "someToken"));
+
+        // then
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(response.getResponseBody(), is("{\"data\":{\"value\":\"secret\"}}"));
+        assertThat(requests, is(Collections.singletonList("GET /v1/secret/test someToken")));
+    }
+
+    @Test
+    public void shouldSendPostWithBody() throws Exception {
+        // when
+        final VaultResponse response = testee.execute(VaultRequest.post(baseUrl + "/v1/auth/app-id/login")
+                .withBody("{\"app_id\":\"someAppId\"}"));
+
+        // then
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(read(response.getResponseBodyAsStream()), is("{\"app_id\":\"someAppId\"}"));
+    }
+
+    @Test
+    public void shouldReturnErrorResponses() throws Exception {
+        // when
+        final VaultResponse response = testee.execute(VaultRequest.get(baseUrl + "/v1/secret/missing"));
+
+        // then
+        assertThat(response.getStatusCode(), is(404));
+        assertThat(response.getResponseBody(), is("{\"errors\":[]}"));
+    }
+
+    @Test
+    public void shouldFollowTemporaryRedirectWithSameMethodAndBody() throws Exception {
+        // when
+        final VaultResponse response = testee.execute(VaultRequest.post(baseUrl + "/v1/standby")
+                .withHeader("X-Vault-Token", "someToken")
+                .withBody("someBody"));
+
+        // then
+        assertThat(response.getResponseBody(), is("someBody"));
+        assertThat(requests.get(1), is("POST /v1/auth/app-id/login someToken"));
+    }
+
+    @Test
+    public void shouldReuseConnection() throws Exception {
+        // when
+        testee.execute(VaultRequest.get(baseUrl + "/v1/secret/test"));
+        testee.execute(VaultRequest.get(baseUrl + "/v1/secret/missing"));
+        testee.execute(VaultRequest.get(baseUrl + "/v1/secret/test"));
+
+        // then
+        assertThat(clientPorts.size(), is(1));
+    }
+
+    @Test
+    public void shouldSendAsynchronously() throws Exception {
+        // when
+        final VaultResponse response = testee.executeAsync(VaultRequest.get(baseUrl + "/v1/secret/test")).get();
+
+        // then
+        assertThat(response.getStatusCode(), is(200));
+    }
+
+    @Test
+    public void shouldReportConnectionErrorsAsTransientFailures() throws Exception {
+        // given
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        try {
+            // when
+            testee.execute(VaultRequest.get("http://127.0.0.1:" + closedPort + "/v1/secret/test"));
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            // then
+            assertThat(RetryPolicy.isTransient(e), is(true));
+        }
+    }
+
+    @Test
+    public void shouldFailRequestsThatTakeLongerThanRequestTimeout() throws Exception {
+        // given
+        final long start = System.currentTimeMillis();
+
+        try {
+            // when
+            testee.execute(VaultRequest.get(baseUrl + "/v1/secret/slow"));
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            // then
+            assertThat(e.getCause() instanceof SocketTimeoutException, is(true));
+            assertThat(System.currentTimeMillis() - start < 1500, is(true));
+        }
+    }
+
+    @Test
+    public void shouldFailAsynchronousRequestsAfterClose() throws Exception {
+        // given
+        testee.close();
+
+        try {
+            // when
+            testee.executeAsync(VaultRequest.get(baseUrl + "/v1/secret/test")).get();
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            // then
+            assertThat(e.getCause() instanceof IllegalStateException, is(true));
+        }
+    }
+
+    private void record(final HttpExchange exchange) {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        final String token = exchange.getRequestHeaders().getFirst("X-Vault-Token");
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI() + (token != null ? " " + token : ""));
+    }
+
+    private static void respond(final HttpExchange exchange, final int statusCode, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static String read(final InputStream in) {
+        final Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+        return scanner.hasNext() ? scanner.next() : "";
+    }
+}
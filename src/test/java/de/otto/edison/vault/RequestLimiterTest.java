@@ -0,0 +1,203 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class RequestLimiterTest {
+
+    private AtomicLong clock;
+    private List<CompletableFuture<VaultResponse>> sent;
+    private RequestLimiter testee;
+
+    @BeforeMethod
+    public void setUp() {
+        clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+        sent = new ArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (testee != null) {
+            testee.close();
+        }
+    }
+
+    @Test
+    public void shouldNotSendMoreRequestsThanConcurrencyLimit() {
+        // given
+        testee = limiter(0, 10, 2, 10, 0, 0);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            testee.execute(this::request);
+        }
+
+        // then
+        assertThat(sent.size(), is(2));
+        assertThat(testee.getInFlight(), is(2));
+        assertThat(testee.getQueued(), is(3));
+        sent.get(0).complete(response(200));
+        assertThat(sent.size(), is(3));
+        assertThat(testee.getQueued(), is(2));
+    }
+
+    @Test
+    public void shouldCompleteResultWithResponse() throws Exception {
+        // given
+        testee = limiter(0, 10, 2, 10, 0, 0);
+        final VaultResponse response = response(200);
+
+        // when
+        final CompletableFuture<VaultResponse> result = testee.execute(this::request);
+        sent.get(0).complete(response);
+
+        // then
+        assertThat(result.get(), is(response));
+        assertThat(testee.getInFlight(), is(0));
+    }
+
+    @Test
+    public void shouldHalveConcurrencyLimitIfVaultIsOverloaded() {
+        // given
+        testee = limiter(0, 10, 8, 10, 500, 0);
+        testee.execute(this::request);
+
+        // when
+        sent.get(0).complete(response(429));
+
+        // then
+        assertThat(testee.getLimit(), is(4));
+    }
+
+    @Test
+    public void shouldLowerConcurrencyLimitOnlyOncePerLatencyThreshold() {
+        // given
+        testee = limiter(0, 10, 8, 10, 500, 0);
+        testee.execute(this::request);
+        testee.execute(this::request);
+
+        // when
+        sent.get(0).complete(response(503));
+        sent.get(1).complete(response(503));
+
+        // then
+        assertThat(testee.getLimit(), is(4));
+    }
+
+    @Test
+    public void shouldLowerConcurrencyLimitIfResponsesAreSlow() {
+        // given
+        testee = limiter(0, 10, 10, 10, 500, 0);
+
+        // when
+        testee.onResponse(200, TimeUnit.MILLISECONDS.toNanos(600));
+
+        // then
+        assertThat(testee.getLimit(), is(9));
+    }
+
+    @Test
+    public void shouldRaiseConcurrencyLimitAfterSuccessfulResponses() {
+        // given
+        testee = limiter(0, 10, 2, 10, 500, 0);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            testee.onResponse(200, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // then
+        assertThat(testee.getLimit(), is(3));
+    }
+
+    @Test
+    public void shouldNotRaiseConcurrencyLimitAboveMaximum() {
+        // given
+        testee = limiter(0, 10, 2, 2, 500, 0);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            testee.onResponse(200, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // then
+        assertThat(testee.getLimit(), is(2));
+    }
+
+    @Test
+    public void shouldHoldRequestsBackUntilBucketIsRefilled() {
+        // given
+        testee = limiter(10, 2, 10, 10, 0, 0);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            testee.execute(this::request);
+        }
+
+        // then
+        assertThat(sent.size(), is(2));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        testee.drain();
+        assertThat(sent.size(), is(3));
+    }
+
+    @Test
+    public void shouldDelayFirstRequest() {
+        // given
+        testee = limiter(0, 10, 10, 10, 0, 1000);
+
+        // when
+        testee.execute(this::request);
+
+        // then
+        assertThat(sent.size(), is(0));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        testee.drain();
+        assertThat(sent.size(), is(1));
+    }
+
+    @Test
+    public void shouldFailQueuedRequestsOnClose() {
+        // given
+        testee = limiter(0, 10, 1, 1, 0, 0);
+        testee.execute(this::request);
+        final CompletableFuture<VaultResponse> queued = testee.execute(this::request);
+
+        // when
+        testee.close();
+
+        // then
+        assertThat(queued.isCompletedExceptionally(), is(true));
+        assertThat(testee.execute(this::request).isCompletedExceptionally(), is(true));
+    }
+
+    private RequestLimiter limiter(final double rate, final int burst, final int initialConcurrency,
+                                   final int maxConcurrency, final long latencyThreshold, final long startupDelay) {
+        return new RequestLimiter(rate, burst, initialConcurrency, maxConcurrency, latencyThreshold, startupDelay,
+                VaultMetrics.NOOP, clock::get);
+    }
+
+    private CompletableFuture<VaultResponse> request() {
+        final CompletableFuture<VaultResponse> response = new CompletableFuture<>();
+        sent.add(response);
+        return response;
+    }
+
+    private static VaultResponse response(final int statusCode) {
+        final VaultResponse response = mock(VaultResponse.class);
+        when(response.getStatusCode()).thenReturn(statusCode);
+        return response;
+    }
+}
@@ -0,0 +1,127 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.annotations.Test;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void shouldDrawBackoffBelowExponentialCeiling() throws Exception {
+        // given
+        RetryPolicy testee = new RetryPolicy(10, 100, 1000);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            // then
+            assertThat(testee.backoffMillis(1), is(both(greaterThanOrEqualTo(0L)).and(lessThanOrEqualTo(100L))));
+            assertThat(testee.backoffMillis(3), is(both(greaterThanOrEqualTo(0L)).and(lessThanOrEqualTo(400L))));
+            assertThat(testee.backoffMillis(40), is(both(greaterThanOrEqualTo(0L)).and(lessThanOrEqualTo(1000L))));
+        }
+    }
+
+    @Test
+    public void shouldOnlyTreatKnownErrorsAsTransient() throws Exception {
+        assertThat(RetryPolicy.isTransient(503), is(true));
+        assertThat(RetryPolicy.isTransient(429), is(true));
+        assertThat(RetryPolicy.isTransient(403), is(false));
+        assertThat(RetryPolicy.isTransient(404), is(false));
+        assertThat(RetryPolicy.isTransient(new ExecutionException(new ConnectException("connection refused"))), is(true));
+        assertThat(RetryPolicy.isTransient(new CompletionException(new TimeoutException())), is(true));
+        assertThat(RetryPolicy.isTransient(new ExecutionException(new IllegalStateException())), is(false));
+    }
+
+    @Test
+    public void shouldRetryTransientFailures() throws Exception {
+        // given
+        RetryPolicy testee = new RetryPolicy(3, 1, 1);
+        VaultMetrics metrics = mock(VaultMetrics.class);
+        VaultResponse unavailable = response(503);
+        VaultResponse ok = response(200);
+        RetryPolicy.Request request = mock(RetryPolicy.Request.class);
+        when(request.execute())
+                .thenThrow(new ExecutionException(new IOException("connection reset")))
+                .thenReturn(unavailable)
+                .thenReturn(ok);
+
+        // when
+        VaultResponse response = testee.execute("read", null, metrics, request);
+
+        // then
+        assertThat(response, is(ok));
+        verify(metrics, times(2)).recordRetry("read");
+    }
+
+    @Test
+    public void shouldNotRetryPermanentFailures() throws Exception {
+        // given
+        RetryPolicy testee = new RetryPolicy(3, 1, 1);
+        RetryPolicy.Request request = mock(RetryPolicy.Request.class);
+        VaultResponse forbidden = response(403);
+        when(request.execute()).thenReturn(forbidden);
+
+        // when
+        VaultResponse response = testee.execute("read", null, VaultMetrics.NOOP, request);
+
+        // then
+        assertThat(response, is(forbidden));
+        verify(request, times(1)).execute();
+    }
+
+    @Test
+    public void shouldReturnLastResponseAfterMaxAttempts() throws Exception {
+        // given
+        RetryPolicy testee = new RetryPolicy(2, 1, 1);
+        RetryPolicy.Request request = mock(RetryPolicy.Request.class);
+        VaultResponse unavailable = response(503);
+        when(request.execute()).thenReturn(unavailable);
+
+        // when
+        VaultResponse response = testee.execute("read", null, VaultMetrics.NOOP, request);
+
+        // then
+        assertThat(response, is(unavailable));
+        verify(request, times(2)).execute();
+    }
+
+    @Test
+    public void shouldFailFastWhileCircuitBreakerIsOpen() throws Exception {
+        // given
+        RetryPolicy testee = new RetryPolicy(5, 1, 1);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, 60000);
+        RetryPolicy.Request request = mock(RetryPolicy.Request.class);
+        VaultResponse unavailable = response(503);
+        when(request.execute()).thenReturn(unavailable);
+
+        // when
+        try {
+            testee.execute("read", circuitBreaker, VaultMetrics.NOOP, request);
+            fail();
+        } catch (RuntimeException e) {
+            // then
+            assertThat(e.getMessage(), is("vault circuit breaker is open, request is not sent"));
+            verify(request, times(2)).execute();
+        }
+    }
+
+    private static VaultResponse response(final int statusCode) {
+        VaultResponse response = mock(VaultResponse.class);
+        when(response.getStatusCode()).thenReturn(statusCode);
+        return response;
+    }
+}
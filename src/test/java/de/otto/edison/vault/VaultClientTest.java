@@ -4,16 +4,43 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.fail;
 
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
 import static de.otto.edison.vault.VaultClient.vaultClient;
 
-import java.nio.charset.Charset;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.BoundRequestBuilder;
@@ -22,6 +49,8 @@ import org.asynchttpclient.Response;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.sun.net.httpserver.HttpServer;
+
 public class VaultClientTest {
 
     private VaultClient testee;
@@ -37,18 +66,17 @@ public class VaultClientTest {
     @Test
     public void shouldReadTheDefaultFieldValue() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
 
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn(createReadResponse("someKey", "value", "someValue"));
+        when(response.getResponseBodyAsStream()).thenReturn(body(createReadResponse("someKey", "value", "someValue")));
         when(asyncHttpClient.prepareGet(eq("http://someBaseUrl/v1/someSecretPath/someKey"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(eq("X-Vault-Token"), eq("someClientToken"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
@@ -64,19 +92,18 @@ public class VaultClientTest {
     @Test
     public void shouldReturnNullIfNoFieldValueExists() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
 
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn(
-                createReadResponse("someKey", "someField", "someValue"));
+        when(response.getResponseBodyAsStream()).thenReturn(body(
+                createReadResponse("someKey", "someField", "someValue")));
         when(asyncHttpClient.prepareGet(eq("http://someBaseUrl/v1/someSecretPath/someKey"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(eq("X-Vault-Token"), eq("someClientToken"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
@@ -92,19 +119,18 @@ public class VaultClientTest {
     @Test
     public void shouldReadAnArbitraryField() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
 
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn(
-                createReadResponse("someKey", "someFieldOtherThanValue", "someValue"));
+        when(response.getResponseBodyAsStream()).thenReturn(body(
+                createReadResponse("someKey", "someFieldOtherThanValue", "someValue")));
         when(asyncHttpClient.prepareGet(eq("http://someBaseUrl/v1/someSecretPath/someKey"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(eq("X-Vault-Token"), eq("someClientToken"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
@@ -121,19 +147,18 @@ public class VaultClientTest {
     @Test
     public void shouldReturnEmptyOptionalForANonExistingField() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
 
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn(
-                createReadResponse("someKey", "someField", "someValue"));
+        when(response.getResponseBodyAsStream()).thenReturn(body(
+                createReadResponse("someKey", "someField", "someValue")));
         when(asyncHttpClient.prepareGet(eq("http://someBaseUrl/v1/someSecretPath/someKey"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(eq("X-Vault-Token"), eq("someClientToken"))).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
@@ -155,17 +180,16 @@ public class VaultClientTest {
     @Test
     public void shouldThrowRuntimeExceptionIfReadFails() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
 
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn(null);
+        when(response.getResponseBodyAsStream()).thenReturn(body(null));
         when(response.getStatusCode()).thenReturn(500);
         when(asyncHttpClient.prepareGet("http://someBaseUrl/v1/someSecretPath/someKey")).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader("X-Vault-Token", "someClientToken")).thenReturn(boundRequestBuilder);
@@ -186,16 +210,15 @@ public class VaultClientTest {
     @Test
     public void shouldTrimUrlSlashes() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrlWithSlash/");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrlWithSlash/"));
         when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn("{}");
+        when(response.getResponseBodyAsStream()).thenReturn(body("{}"));
         when(response.getStatusCode()).thenReturn(200);
         when(asyncHttpClient.prepareGet(anyString())).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(anyString(), anyString())).thenReturn(boundRequestBuilder);
@@ -212,16 +235,15 @@ public class VaultClientTest {
     @Test
     public void shouldAddMissingUrlSlashes() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("someSecretPathWithoutSlash");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn("{}");
+        when(response.getResponseBodyAsStream()).thenReturn(body("{}"));
         when(response.getStatusCode()).thenReturn(200);
         when(asyncHttpClient.prepareGet(anyString())).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(anyString(), anyString())).thenReturn(boundRequestBuilder);
@@ -238,16 +260,15 @@ public class VaultClientTest {
     @Test()
     public void shouldIngnoreSlashOnlySecretPath() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("/");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn("{}");
+        when(response.getResponseBodyAsStream()).thenReturn(body("{}"));
         when(response.getStatusCode()).thenReturn(200);
         when(asyncHttpClient.prepareGet(anyString())).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(anyString(), anyString())).thenReturn(boundRequestBuilder);
@@ -264,16 +285,15 @@ public class VaultClientTest {
     @Test()
     public void shouldIngnoreEmptySecretPath() throws Exception {
         // given
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
         when(configProperties.getSecretPath()).thenReturn("");
 
-        testee = vaultClient(configProperties, "someClientToken");
-        testee.asyncHttpClient = asyncHttpClient;
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
 
         Response response = mock(Response.class);
         BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
         ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
-        when(response.getResponseBody(Charset.forName("utf-8"))).thenReturn("{}");
+        when(response.getResponseBodyAsStream()).thenReturn(body("{}"));
         when(response.getStatusCode()).thenReturn(200);
         when(asyncHttpClient.prepareGet(anyString())).thenReturn(boundRequestBuilder);
         when(boundRequestBuilder.setHeader(anyString(), anyString())).thenReturn(boundRequestBuilder);
@@ -286,4 +306,505 @@ public class VaultClientTest {
         // then
         verify(asyncHttpClient).prepareGet("http://someBaseUrl/v1/someKey");
     }
+
+    @Test
+    public void shouldReadFieldsOfSeveralKeys() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyOne", CompletableFuture.completedFuture(
+                readResponse(createReadResponse("keyOne", "value", "one"))));
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyTwo", CompletableFuture.completedFuture(
+                readResponse(createReadResponse("keyTwo", "value", "two"))));
+
+        // when
+        Map<String, Map<String, String>> fields = testee.readFields(Arrays.asList("keyOne", "keyTwo"), 8);
+
+        // then
+        assertThat(fields.get("keyOne").get("value"), is("one"));
+        assertThat(fields.get("keyTwo").get("value"), is("two"));
+    }
+
+    @Test
+    public void shouldLimitConcurrentReads() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        CompletableFuture<Response> second = new CompletableFuture<>();
+        CompletableFuture<Response> third = new CompletableFuture<>();
+        mockAsyncRead("http://someBaseUrl/v1/first", first);
+        mockAsyncRead("http://someBaseUrl/v1/second", second);
+        mockAsyncRead("http://someBaseUrl/v1/third", third);
+
+        // when
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Map<String, String>>> fields = executor.submit(
+                    () -> testee.readFields(Arrays.asList("first", "second", "third"), 2));
+
+            // then
+            verify(asyncHttpClient, timeout(1000)).prepareGet("http://someBaseUrl/v1/second");
+            verify(asyncHttpClient, never()).prepareGet("http://someBaseUrl/v1/third");
+
+            first.complete(readResponse(createReadResponse("first", "value", "1")));
+            verify(asyncHttpClient, timeout(1000)).prepareGet("http://someBaseUrl/v1/third");
+
+            second.complete(readResponse(createReadResponse("second", "value", "2")));
+            third.complete(readResponse(createReadResponse("third", "value", "3")));
+            assertThat(fields.get(1, TimeUnit.SECONDS).get("third").get("value"), is("3"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowRuntimeExceptionIfOneOfSeveralReadsFails() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        Response failedResponse = mock(Response.class);
+        when(failedResponse.getStatusCode()).thenReturn(403);
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyOne", CompletableFuture.completedFuture(
+                readResponse(createReadResponse("keyOne", "value", "one"))));
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyTwo", CompletableFuture.completedFuture(failedResponse));
+
+        // when
+        try {
+            testee.readFields(Arrays.asList("keyOne", "keyTwo"), 8);
+            fail();
+        } catch (RuntimeException e) {
+            // then
+            assertThat(e.getMessage(),
+                    is("read of vault property 'keyTwo' with token 'someClientToken' from url 'http://someBaseUrl/v1/someSecretPath/keyTwo' failed, return code is '403'"));
+        }
+    }
+
+    @Test
+    public void shouldReportFailuresPerKeyWhenReadingAsynchronously() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        Response failedResponse = mock(Response.class);
+        when(failedResponse.getStatusCode()).thenReturn(403);
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyOne", CompletableFuture.completedFuture(
+                readResponse(createReadResponse("keyOne", "value", "one"))));
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/keyTwo", CompletableFuture.completedFuture(failedResponse));
+
+        // when
+        VaultReadResult result = testee.readAllAsync(Arrays.asList("keyOne", "keyTwo")).get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(result.isComplete(), is(false));
+        assertThat(result.getFields().get("keyOne").get("value"), is("one"));
+        assertThat(result.getFields().containsKey("keyTwo"), is(false));
+        assertThat(result.getFailures().get("keyTwo").getMessage(),
+                is("read of vault property 'keyTwo' with token 'someClientToken' from url 'http://someBaseUrl/v1/someSecretPath/keyTwo' failed, return code is '403'"));
+    }
+
+    @Test
+    public void shouldCompleteAsynchronousReadsOnTheGivenExecutor() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey", response);
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "caller-executor"));
+
+        try {
+            // when
+            CompletableFuture<String> thread = testee.readFieldsAsync("someKey", executor)
+                    .thenApply(fields -> fields.get("value") + "@" + Thread.currentThread().getName());
+            response.complete(readResponse(createReadResponse("someKey", "value", "someValue")));
+
+            // then
+            assertThat(thread.get(1, TimeUnit.SECONDS), is("someValue@caller-executor"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRetryTransientFailuresOfAsynchronousReads() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient)
+                .withRetries(new RetryPolicy(3, 1, 1), null, scheduler);
+        Response unavailable = mock(Response.class);
+        when(unavailable.getStatusCode()).thenReturn(503);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
+        when(asyncHttpClient.prepareGet("http://someBaseUrl/v1/someSecretPath/someKey")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setHeader("X-Vault-Token", "someClientToken")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.toCompletableFuture())
+                .thenReturn(CompletableFuture.completedFuture(unavailable))
+                .thenReturn(CompletableFuture.completedFuture(readResponse(createReadResponse("someKey", "value", "someValue"))));
+
+        try {
+            // when
+            Map<String, String> fields = testee.readFieldsAsync("someKey").get(1, TimeUnit.SECONDS);
+
+            // then
+            assertThat(fields.get("value"), is("someValue"));
+            verify(asyncHttpClient, times(2)).prepareGet("http://someBaseUrl/v1/someSecretPath/someKey");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldSendAHedgedReadToTheSecondNodeIfTheFirstIsSlow() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(Arrays.asList("http://firstNode", "http://secondNode"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        VaultMetrics metrics = mock(VaultMetrics.class);
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient)
+                .withMetrics(metrics)
+                .withHedgedReads(95, 10, scheduler);
+        mockAsyncRead("http://firstNode/v1/someSecretPath/someKey", new CompletableFuture<>());
+        mockAsyncRead("http://secondNode/v1/someSecretPath/someKey",
+                CompletableFuture.completedFuture(readResponse(createReadResponse("someKey", "value", "someValue"))));
+
+        try {
+            // when
+            Map<String, String> fields = testee.readFieldsAsync("someKey").get(1, TimeUnit.SECONDS);
+
+            // then
+            assertThat(fields.get("value"), is("someValue"));
+            verify(metrics).recordHedgedRead("someKey");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReadFromTheSecondNodeRightAwayIfTheFirstFails() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(Arrays.asList("http://firstNode", "http://secondNode"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        VaultMetrics metrics = mock(VaultMetrics.class);
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient)
+                .withMetrics(metrics)
+                .withHedgedReads(95, 60000, scheduler);
+        Response unavailable = mock(Response.class);
+        when(unavailable.getStatusCode()).thenReturn(503);
+        mockAsyncRead("http://firstNode/v1/someSecretPath/someKey", CompletableFuture.completedFuture(unavailable));
+        mockAsyncRead("http://secondNode/v1/someSecretPath/someKey",
+                CompletableFuture.completedFuture(readResponse(createReadResponse("someKey", "value", "someValue"))));
+
+        try {
+            // when
+            Map<String, String> fields = testee.readFieldsAsync("someKey").get(1, TimeUnit.SECONDS);
+
+            // then
+            assertThat(fields.get("value"), is("someValue"));
+            verify(metrics, never()).recordHedgedRead(anyString());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReadLeaseInformation() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey", CompletableFuture.completedFuture(
+                readResponse(createReadResponse("someKey", "value", "someValue"))));
+
+        // when
+        VaultSecret secret = testee.readSecrets(Collections.singletonList("someKey"), 8).get("someKey");
+
+        // then
+        assertThat(secret.getFields().get("value"), is("someValue"));
+        assertThat(secret.getLeaseId(), is("develop/p13n/someKey/b74f148e-12de-dbfb-b03f-c950c587e8ea"));
+        assertThat(secret.getLeaseDuration(), is(2592000L));
+        assertThat(secret.isRenewable(), is(false));
+    }
+
+    @Test
+    public void shouldKeepOnlySelectedFields() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey", CompletableFuture.completedFuture(
+                readResponse("{\"data\":{\"user\":\"someUser\",\"password\":\"somePassword\",\"port\":8080}}")));
+
+        // when
+        VaultSecret secret = testee.readSecrets(
+                Collections.singletonMap("someKey", new HashSet<>(Arrays.asList("password", "port"))), 8).get("someKey");
+
+        // then
+        assertThat(secret.getFields().size(), is(2));
+        assertThat(secret.getFields().get("password"), is("somePassword"));
+        assertThat(secret.getFields().get("port"), is("8080"));
+    }
+
+    @Test
+    public void shouldRecordReadMetrics() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        VaultMetrics metrics = mock(VaultMetrics.class);
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient).withMetrics(metrics);
+        String body = createReadResponse("someKey", "value", "someValue");
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey", CompletableFuture.completedFuture(readResponse(body)));
+
+        // when
+        testee.readSecrets(Collections.singletonList("someKey"), 8);
+
+        // then
+        verify(metrics).recordRead(eq("someKey"), eq(200), anyLong());
+        verify(metrics).recordResponseSize("someKey", body.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void shouldShareConcurrentReadsOfTheSameKeyWithCache() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient).withCache(new VaultSecretCache(10, 60));
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey", response);
+
+        // when
+        CompletableFuture<VaultSecret> first = testee.readSecretAsync("someKey");
+        CompletableFuture<VaultSecret> second = testee.readSecretAsync("someKey");
+        response.complete(readResponse(createReadResponse("someKey", "value", "someValue")));
+        String cachedValue = testee.readFields("someKey").get("value");
+
+        // then
+        verify(asyncHttpClient, times(1)).prepareGet("http://someBaseUrl/v1/someSecretPath/someKey");
+        assertThat(first.get().getFields().get("value"), is("someValue"));
+        assertThat(second.get().getFields().get("value"), is("someValue"));
+        assertThat(cachedValue, is("someValue"));
+        assertThat(testee.getCache().getHitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldTakeSecretsFromNodeCacheAfterTokenCheck() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+        Path cacheFile = Files.createTempFile("vault-node-cache", null);
+        try (VaultNodeCache nodeCache = VaultNodeCache.open(cacheFile, 16, 1024, 60, SecretCipher.fromToken("someKey"))) {
+            nodeCache.put("http://someBaseUrl/v1/someSecretPath/someKey",
+                    new VaultSecret(singletonMap("value", "sharedValue"), "", 0, false));
+            testee = vaultClient(configProperties, "someClientToken", asyncHttpClient)
+                    .withNodeCache(nodeCache, "someClientToken"::equals, Runnable::run);
+
+            // when
+            String value = testee.readFields("someKey").get("value");
+
+            // then
+            assertThat(value, is("sharedValue"));
+            verify(asyncHttpClient, never()).prepareGet(anyString());
+        } finally {
+            Files.delete(cacheFile);
+        }
+    }
+
+    @Test
+    public void shouldReadFromVaultAndFillNodeCacheIfTokenCheckFails() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+        Path cacheFile = Files.createTempFile("vault-node-cache", null);
+        try (VaultNodeCache nodeCache = VaultNodeCache.open(cacheFile, 16, 1024, 60, SecretCipher.fromToken("someKey"))) {
+            nodeCache.put("http://someBaseUrl/v1/someSecretPath/someKey",
+                    new VaultSecret(singletonMap("value", "sharedValue"), "", 0, false));
+            testee = vaultClient(configProperties, "someClientToken", asyncHttpClient)
+                    .withNodeCache(nodeCache, token -> false, Runnable::run);
+            mockAsyncRead("http://someBaseUrl/v1/someSecretPath/someKey",
+                    CompletableFuture.completedFuture(readResponse(createReadResponse("someKey", "value", "someValue"))));
+
+            // when
+            String value = testee.readFields("someKey").get("value");
+
+            // then
+            assertThat(value, is("someValue"));
+            assertThat(nodeCache.get("http://someBaseUrl/v1/someSecretPath/someKey").getFields().get("value"), is("someValue"));
+        } finally {
+            Files.delete(cacheFile);
+        }
+    }
+
+    @Test
+    public void shouldListKeys() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/app?list=true",
+                CompletableFuture.completedFuture(readResponse("{\"data\":{\"keys\":[\"db\",\"web/\"]}}")));
+        Response notFound = mock(Response.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        mockAsyncRead("http://someBaseUrl/v1/someSecretPath/empty?list=true", CompletableFuture.completedFuture(notFound));
+
+        // when
+        List<String> keys = testee.listKeysAsync("app").get(1, TimeUnit.SECONDS);
+        List<String> noKeys = testee.listKeysAsync("empty").get(1, TimeUnit.SECONDS);
+
+        // then
+        assertThat(keys, is(Arrays.asList("db", "web/")));
+        assertThat(noKeys.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReadFromTheDataPathOfAKvVersion2Engine() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/secret/someApp");
+        when(configProperties.getKvVersion()).thenReturn(2);
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+        mockAsyncRead("http://someBaseUrl/v1/secret/data/someApp/someKey",
+                CompletableFuture.completedFuture(readResponse(versionedReadResponse("someValue", 3))));
+        mockAsyncRead("http://someBaseUrl/v1/secret/data/someApp/someKey?version=2",
+                CompletableFuture.completedFuture(readResponse(versionedReadResponse("oldValue", 2))));
+
+        // when
+        VaultSecret current = testee.readSecretAsync("someKey").get(1, TimeUnit.SECONDS);
+        VaultSecret previous = testee.readSecret("someKey", 2);
+
+        // then
+        assertThat(current.getFields().get("value"), is("someValue"));
+        assertThat(current.getVersion(), is(3L));
+        assertThat(previous.getFields().get("value"), is("oldValue"));
+        assertThat(previous.getVersion(), is(2L));
+    }
+
+    @Test
+    public void shouldOnlyReadSecretsWhoseVersionHasChanged() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/secret");
+        when(configProperties.getKvVersion()).thenReturn(2);
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+        mockAsyncRead("http://someBaseUrl/v1/secret/metadata/unchanged",
+                CompletableFuture.completedFuture(readResponse("{\"data\":{\"current_version\":1}}")));
+        mockAsyncRead("http://someBaseUrl/v1/secret/metadata/changed",
+                CompletableFuture.completedFuture(readResponse("{\"data\":{\"current_version\":2}}")));
+        mockAsyncRead("http://someBaseUrl/v1/secret/data/changed",
+                CompletableFuture.completedFuture(readResponse(versionedReadResponse("newValue", 2))));
+        Map<String, Set<String>> fieldNames = new HashMap<>();
+        fieldNames.put("unchanged", singleton("value"));
+        fieldNames.put("changed", singleton("value"));
+        Map<String, VaultSecret> previous = new HashMap<>();
+        VaultSecret unchanged = new VaultSecret(singletonMap("value", "sameValue"), "", 0, false, 1);
+        previous.put("unchanged", unchanged);
+        previous.put("changed", new VaultSecret(singletonMap("value", "oldValue"), "", 0, false, 1));
+
+        // when
+        Map<String, VaultSecret> secrets = testee.readSecretsIfChanged(fieldNames, previous, 8);
+
+        // then
+        assertThat(secrets.get("unchanged"), is(unchanged));
+        assertThat(secrets.get("changed").getFields().get("value"), is("newValue"));
+        verify(asyncHttpClient, never()).prepareGet("http://someBaseUrl/v1/secret/data/unchanged");
+    }
+
+    @Test
+    public void shouldNotCloseASharedAsyncHttpClient() throws Exception {
+        // given
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://someBaseUrl"));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+        testee = vaultClient(configProperties, "someClientToken", asyncHttpClient);
+
+        // when
+        testee.close();
+
+        // then
+        verify(asyncHttpClient, never()).close();
+    }
+
+    @Test
+    public void shouldCacheSecretsOfClientWithOwnTransportIfCacheIsEnabled() throws Exception {
+        // given
+        final AtomicInteger reads = new AtomicInteger();
+        final HttpServer vaultServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        vaultServer.createContext("/v1/someSecretPath/someKey", exchange -> {
+            reads.incrementAndGet();
+            final byte[] body = "{\"data\":{\"value\":\"someValue\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        vaultServer.start();
+        when(configProperties.getBaseUrls()).thenReturn(singletonList("http://127.0.0.1:" + vaultServer.getAddress().getPort()));
+        when(configProperties.getSecretPath()).thenReturn("/someSecretPath");
+        when(configProperties.getHttpTransport()).thenReturn(VaultTransport.JDK);
+        when(configProperties.getHttpConnectTimeout()).thenReturn(1000);
+        when(configProperties.getHttpReadTimeout()).thenReturn(1000);
+        when(configProperties.getHttpMaxConnections()).thenReturn(2);
+        when(configProperties.getMaxConcurrentReads()).thenReturn(2);
+        when(configProperties.isCacheEnabled()).thenReturn(true);
+        when(configProperties.getCacheMaxEntries()).thenReturn(10);
+        when(configProperties.getCacheTtl()).thenReturn(60);
+
+        try (VaultClient vaultClient = vaultClient(configProperties, "someClientToken")) {
+            // when
+            vaultClient.readFields("someKey");
+            final Map<String, String> fields = vaultClient.readFields("someKey");
+
+            // then
+            assertThat(fields.get("value"), is("someValue"));
+            assertThat(reads.get(), is(1));
+        } finally {
+            vaultServer.stop(0);
+        }
+    }
+
+    private static String versionedReadResponse(final String value, final long version) {
+        return "{\"lease_id\":\"\",\"renewable\":false,\"lease_duration\":0,\"data\":{\"data\":{\"value\":\"" + value +
+                "\"},\"metadata\":{\"version\":" + version + "}}}";
+    }
+
+    private Response readResponse(final String body) {
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(body(body));
+        return response;
+    }
+
+    private static InputStream body(final String json) {
+        return json != null ? new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)) : null;
+    }
+
+    private void mockAsyncRead(final String url, final CompletableFuture<Response> response) {
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture<Response> listenableFuture = mock(ListenableFuture.class);
+        when(asyncHttpClient.prepareGet(url)).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setHeader("X-Vault-Token", "someClientToken")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.toCompletableFuture()).thenReturn(response);
+    }
 }
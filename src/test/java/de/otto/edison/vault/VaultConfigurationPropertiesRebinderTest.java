@@ -0,0 +1,129 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultConfigurationPropertiesRebinderTest {
+
+    private Map<String, Object> properties;
+    private AnnotationConfigApplicationContext context;
+
+    @BeforeMethod
+    public void setUp() {
+        properties = new HashMap<>();
+        properties.put("test.config.one", "first");
+        properties.put("other.config.one", "first");
+        properties.put("bean.config.one", "first");
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addLast(new MapPropertySource("testSource", properties));
+        context.register(TestConfiguration.class, VaultConfigurationPropertiesRebinder.class);
+        context.refresh();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void shouldBindOnlyBeansWithChangedPrefix() {
+        // given
+        properties.put("test.config.one", "second");
+        properties.put("other.config.one", "second");
+
+        // when
+        context.publishEvent(new VaultPropertiesChangedEvent(mock(VaultPropertySource.class),
+                Collections.singleton("test.config.one")));
+
+        // then
+        assertThat(context.getBean(TestProperties.class).getOne(), is("second"));
+        assertThat(context.getBean(OtherProperties.class).getOne(), is("first"));
+    }
+
+    @Test
+    public void shouldBindBeansOfAnnotatedBeanMethods() {
+        // given
+        properties.put("bean.config.one", "second");
+
+        // when
+        context.publishEvent(new VaultPropertiesChangedEvent(mock(VaultPropertySource.class),
+                Collections.singleton("bean.config.one")));
+
+        // then
+        assertThat(context.getBean("beanProperties", BeanProperties.class).getOne(), is("second"));
+    }
+
+    @Test
+    public void shouldMatchPrefixesRelaxed() {
+        assertThat(VaultConfigurationPropertiesRebinder.overlaps("test.config", Collections.singleton("test.config.one")), is(true));
+        assertThat(VaultConfigurationPropertiesRebinder.overlaps("test-config", Collections.singleton("TEST_CONFIG.one")), is(true));
+        assertThat(VaultConfigurationPropertiesRebinder.overlaps("test.config", Collections.singleton("test.configuration")), is(false));
+        assertThat(VaultConfigurationPropertiesRebinder.overlaps("test.config", Arrays.asList("test", "other.config.one")), is(false));
+        assertThat(VaultConfigurationPropertiesRebinder.overlaps("", Collections.singleton("test.config.one")), is(true));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties({TestProperties.class, OtherProperties.class})
+    static class TestConfiguration {
+
+        @Bean
+        @ConfigurationProperties(prefix = "bean.config")
+        public BeanProperties beanProperties() {
+            return new BeanProperties();
+        }
+    }
+
+    @ConfigurationProperties(prefix = "test.config")
+    public static class TestProperties {
+        private String one;
+
+        public String getOne() {
+            return one;
+        }
+
+        public void setOne(final String one) {
+            this.one = one;
+        }
+    }
+
+    public static class BeanProperties {
+        private String one;
+
+        public String getOne() {
+            return one;
+        }
+
+        public void setOne(final String one) {
+            this.one = one;
+        }
+    }
+
+    @ConfigurationProperties(prefix = "other.config")
+    public static class OtherProperties {
+        private String one;
+
+        public String getOne() {
+            return one;
+        }
+
+        public void setOne(final String one) {
+            this.one = one;
+        }
+    }
+}
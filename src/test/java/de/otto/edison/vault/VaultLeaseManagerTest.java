@@ -0,0 +1,180 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultLeaseManagerTest {
+
+    private VaultClient vaultClient;
+    private VaultLeaseManager testee;
+
+    @BeforeMethod
+    public void setUp() {
+        vaultClient = mock(VaultClient.class);
+        testee = new VaultLeaseManager(vaultClient, mock(ScheduledExecutorService.class), 1000, 8);
+    }
+
+    @Test
+    public void shouldRenewLeaseAfterTwoThirdsOfItsDuration() {
+        // given
+        when(vaultClient.renewLeaseAsync("lease1", 3)).thenReturn(CompletableFuture.completedFuture(lease("lease1", 3, true)));
+        testee.track("database/creds/app", secret("lease1", 3, true));
+
+        // when
+        testee.tick();
+        verify(vaultClient, never()).renewLeaseAsync(anyString(), anyLong());
+        testee.tick();
+
+        // then
+        verify(vaultClient).renewLeaseAsync("lease1", 3);
+        testee.tick();
+        testee.tick();
+        verify(vaultClient, times(2)).renewLeaseAsync("lease1", 3);
+    }
+
+    @Test
+    public void shouldReadNewCredentialsIfRenewalFails() {
+        // given
+        final CompletableFuture<VaultSecret> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("lease not found"));
+        when(vaultClient.renewLeaseAsync("lease1", 3)).thenReturn(failed);
+        final VaultSecret newSecret = secret("lease2", 3, true);
+        when(vaultClient.readFreshSecretAsync("database/creds/app")).thenReturn(CompletableFuture.completedFuture(newSecret));
+        final List<VaultSecret> rotated = new ArrayList<>();
+        testee.addRotationListener((path, secret) -> rotated.add(secret));
+        testee.track("database/creds/app", secret("lease1", 3, true));
+
+        // when
+        testee.tick();
+        testee.tick();
+
+        // then
+        assertThat(rotated, is(Collections.singletonList(newSecret)));
+        assertThat(testee.getLeaseCount(), is(1));
+    }
+
+    @Test
+    public void shouldReadNewCredentialsBeforeLeaseReachesMaxTtl() {
+        // given
+        when(vaultClient.renewLeaseAsync("lease1", 30)).thenReturn(CompletableFuture.completedFuture(lease("lease1", 3, true)));
+        when(vaultClient.readFreshSecretAsync("database/creds/app"))
+                .thenReturn(CompletableFuture.completedFuture(secret("lease2", 30, true)));
+        testee.track("database/creds/app", secret("lease1", 30, true));
+
+        // when
+        for (int i = 0; i < 22; i++) {
+            testee.tick();
+        }
+
+        // then
+        verify(vaultClient).renewLeaseAsync("lease1", 30);
+        verify(vaultClient).readFreshSecretAsync("database/creds/app");
+    }
+
+    @Test
+    public void shouldReadNewCredentialsOfLeasesThatAreNotRenewable() {
+        // given
+        when(vaultClient.readFreshSecretAsync("aws/creds/app"))
+                .thenReturn(CompletableFuture.completedFuture(secret("lease2", 3, false)));
+        testee.track("aws/creds/app", secret("lease1", 3, false));
+
+        // when
+        testee.tick();
+        testee.tick();
+
+        // then
+        verify(vaultClient, never()).renewLeaseAsync(anyString(), anyLong());
+        verify(vaultClient).readFreshSecretAsync("aws/creds/app");
+    }
+
+    @Test
+    public void shouldNotTrackSecretsWithoutLease() {
+        // when
+        testee.track("secret/app", secret("", 2764800, false));
+
+        // then
+        assertThat(testee.getLeaseCount(), is(0));
+    }
+
+    @Test
+    public void shouldReplaceLeaseOfTheSamePath() {
+        // given
+        when(vaultClient.renewLeaseAsync(anyString(), anyLong())).thenReturn(CompletableFuture.completedFuture(lease("lease2", 3, true)));
+        testee.track("database/creds/app", secret("lease1", 3, true));
+
+        // when
+        testee.track("database/creds/app", secret("lease2", 3, true));
+        testee.tick();
+        testee.tick();
+
+        // then
+        assertThat(testee.getLeaseCount(), is(1));
+        verify(vaultClient, never()).renewLeaseAsync("lease1", 3);
+        verify(vaultClient).renewLeaseAsync("lease2", 3);
+    }
+
+    @Test
+    public void shouldRenewLeasesDueInTheSameTickTogether() {
+        // given
+        when(vaultClient.renewLeaseAsync(anyString(), anyLong())).thenReturn(CompletableFuture.completedFuture(lease("any", 3, true)));
+        for (int i = 0; i < 1000; i++) {
+            testee.track("database/creds/app" + i, secret("lease" + i, i % 2 == 0 ? 3 : 12, true));
+        }
+
+        // when
+        testee.tick();
+        testee.tick();
+
+        // then
+        verify(vaultClient, times(500)).renewLeaseAsync(anyString(), anyLong());
+        assertThat(testee.getLeaseCount(), is(1000));
+    }
+
+    @Test
+    public void shouldLimitConcurrentRenewals() {
+        // given
+        final List<CompletableFuture<VaultSecret>> renewals = new ArrayList<>();
+        when(vaultClient.renewLeaseAsync(anyString(), anyLong())).thenAnswer(invocation -> {
+            final CompletableFuture<VaultSecret> renewal = new CompletableFuture<>();
+            renewals.add(renewal);
+            return renewal;
+        });
+        testee = new VaultLeaseManager(vaultClient, mock(ScheduledExecutorService.class), 1000, 8, 2);
+        for (int i = 0; i < 5; i++) {
+            testee.track("database/creds/app" + i, secret("lease" + i, 3, true));
+        }
+
+        // when
+        testee.tick();
+        testee.tick();
+
+        // then
+        verify(vaultClient, times(2)).renewLeaseAsync(anyString(), anyLong());
+        renewals.get(0).complete(lease("lease0", 3, true));
+        verify(vaultClient, times(3)).renewLeaseAsync(anyString(), anyLong());
+    }
+
+    private static VaultSecret secret(final String leaseId, final long leaseDuration, final boolean renewable) {
+        return new VaultSecret(Collections.singletonMap("password", "secret-" + leaseId), leaseId, leaseDuration, renewable);
+    }
+
+    private static VaultSecret lease(final String leaseId, final long leaseDuration, final boolean renewable) {
+        return new VaultSecret(null, leaseId, leaseDuration, renewable);
+    }
+}
@@ -0,0 +1,174 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultNodeCacheTest {
+
+    private static final String URL = "http://vault/v1/secret/one";
+
+    private Path cacheDirectory;
+    private Path cacheFile;
+    private AtomicLong now;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        cacheDirectory = Files.createTempDirectory("vault-node-cache");
+        cacheFile = cacheDirectory.resolve("cache");
+        now = new AtomicLong(1_000_000);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(cacheFile);
+        Files.deleteIfExists(cacheDirectory);
+    }
+
+    @Test
+    public void shouldShareSecretsBetweenCachesOfTheSameFile() throws Exception {
+        // given
+        try (VaultNodeCache writer = open(SecretCipher.fromToken("someKey"));
+             VaultNodeCache reader = open(SecretCipher.fromToken("someKey"))) {
+            writer.put(URL, new VaultSecret(Collections.singletonMap("value", "secret"), "someLease", 0, false, 3));
+
+            // when
+            final VaultSecret secret = reader.get(URL);
+
+            // then
+            assertThat(secret.getFields().get("value"), is("secret"));
+            assertThat(secret.getLeaseId(), is("someLease"));
+            assertThat(secret.getVersion(), is(3L));
+            assertThat(reader.getHitCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void shouldNotReturnSecretsEncryptedWithAnotherKey() throws Exception {
+        // given
+        try (VaultNodeCache writer = open(SecretCipher.fromToken("someKey"));
+             VaultNodeCache reader = open(SecretCipher.fromToken("otherKey"))) {
+            writer.put(URL, secret("secret", 0));
+
+            // when
+            final VaultSecret secret = reader.get(URL);
+
+            // then
+            assertThat(secret, is(nullValue()));
+            assertThat(reader.getMissCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void shouldExpireSecretsAfterTtl() throws Exception {
+        // given
+        try (VaultNodeCache testee = open(SecretCipher.fromToken("someKey"))) {
+            testee.put(URL, secret("secret", 0));
+
+            // when
+            now.addAndGet(60_000);
+
+            // then
+            assertThat(testee.get(URL), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void shouldExpireSecretsWhenTheirLeaseEnds() throws Exception {
+        // given
+        try (VaultNodeCache testee = open(SecretCipher.fromToken("someKey"))) {
+            testee.put(URL, secret("secret", 10));
+
+            // when
+            now.addAndGet(10_000);
+
+            // then
+            assertThat(testee.get(URL), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void shouldReplaceSecretOfTheSameUrl() throws Exception {
+        // given
+        try (VaultNodeCache testee = open(SecretCipher.fromToken("someKey"))) {
+            testee.put(URL, secret("first", 0));
+
+            // when
+            testee.put(URL, secret("second", 0));
+
+            // then
+            assertThat(testee.get(URL).getFields().get("value"), is("second"));
+        }
+    }
+
+    @Test
+    public void shouldKeepSecretsOfDifferentUrlsApart() throws Exception {
+        // given
+        try (VaultNodeCache testee = open(SecretCipher.fromToken("someKey"))) {
+
+            // when
+            for (int i = 0; i < 8; i++) {
+                testee.put(URL + i, secret("secret" + i, 0));
+            }
+
+            // then
+            for (int i = 0; i < 8; i++) {
+                final VaultSecret secret = testee.get(URL + i);
+                if (secret != null) {
+                    assertThat(secret.getFields().get("value"), is("secret" + i));
+                }
+            }
+            assertThat(testee.get(URL + 7).getFields().get("value"), is("secret7"));
+        }
+    }
+
+    @Test
+    public void shouldNotCacheSecretsLargerThanASlot() throws Exception {
+        // given
+        try (VaultNodeCache testee = open(SecretCipher.fromToken("someKey"))) {
+            final StringBuilder large = new StringBuilder();
+            for (int i = 0; i < 1024; i++) {
+                large.append("x");
+            }
+
+            // when
+            testee.put(URL, secret(large.toString(), 0));
+
+            // then
+            assertThat(testee.get(URL), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void shouldUseLayoutOfExistingFile() throws Exception {
+        // given
+        try (VaultNodeCache writer = open(SecretCipher.fromToken("someKey"));
+             VaultNodeCache reader = VaultNodeCache.open(cacheFile, 64, 2048, 30, SecretCipher.fromToken("someKey"), now::get)) {
+            writer.put(URL, secret("secret", 0));
+
+            // when
+            final VaultSecret secret = reader.get(URL);
+
+            // then
+            assertThat(secret.getFields().get("value"), is("secret"));
+            assertThat(Files.size(cacheFile), is(16L + 4 * 512));
+        }
+    }
+
+    private VaultNodeCache open(final SecretCipher cipher) throws Exception {
+        return VaultNodeCache.open(cacheFile, 4, 512, 30, cipher, now::get);
+    }
+
+    private static VaultSecret secret(final String value, final long leaseDuration) {
+        return new VaultSecret(Collections.singletonMap("value", value), "", leaseDuration, false);
+    }
+}
@@ -0,0 +1,100 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultNodesTest {
+
+    private AtomicLong now;
+    private VaultNodes testee;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        now = new AtomicLong();
+        testee = new VaultNodes(Arrays.asList("http://first", "http://second", "http://third"), now::get);
+    }
+
+    @Test
+    public void shouldTryNodesWithoutMeasurementFirst() throws Exception {
+        // when
+        testee.onSuccess("http://first", millis(5));
+
+        // then
+        assertThat(testee.byLatency(), contains("http://second", "http://third", "http://first"));
+    }
+
+    @Test
+    public void shouldOrderNodesByLatency() throws Exception {
+        // when
+        testee.onSuccess("http://first", millis(30));
+        testee.onSuccess("http://second", millis(10));
+        testee.onSuccess("http://third", millis(20));
+
+        // then
+        assertThat(testee.byLatency(), contains("http://second", "http://third", "http://first"));
+    }
+
+    @Test
+    public void shouldPutFailedNodesLastUntilThePenaltyIsOver() throws Exception {
+        // given
+        testee.onSuccess("http://first", millis(10));
+        testee.onSuccess("http://second", millis(20));
+        testee.onSuccess("http://third", millis(30));
+
+        // when
+        testee.onFailure("http://first");
+
+        // then
+        assertThat(testee.byLatency(), contains("http://second", "http://third", "http://first"));
+        now.addAndGet(VaultNodes.FAILURE_PENALTY_NANOS);
+        assertThat(testee.byLatency(), contains("http://first", "http://second", "http://third"));
+    }
+
+    @Test
+    public void shouldUseTheMinimumHedgeDelayWithoutMeasurements() throws Exception {
+        // when
+        long delay = testee.hedgeDelayMillis(95, 20);
+
+        // then
+        assertThat(delay, is(20L));
+    }
+
+    @Test
+    public void shouldUseTheSlowestLatencyAsHedgeDelayWithFewMeasurements() throws Exception {
+        // given
+        testee.onSuccess("http://first", millis(30));
+        testee.onSuccess("http://second", millis(80));
+
+        // when
+        long delay = testee.hedgeDelayMillis(50, 20);
+
+        // then
+        assertThat(delay, is(80L));
+    }
+
+    @Test
+    public void shouldUseThePercentileAsHedgeDelay() throws Exception {
+        // given
+        for (int i = 1; i <= 100; i++) {
+            testee.onSuccess("http://first", millis(i));
+        }
+
+        // when
+        long delay = testee.hedgeDelayMillis(95, 20);
+
+        // then
+        assertThat(delay, is(95L));
+    }
+
+    private static long millis(final long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
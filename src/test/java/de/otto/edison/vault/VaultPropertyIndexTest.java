@@ -0,0 +1,81 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class VaultPropertyIndexTest {
+
+    @Test
+    public void shouldFindAllIndexedProperties() {
+        // given
+        final Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            properties.put("service" + i + ".credentials.password", "secret" + i);
+        }
+
+        // when
+        final VaultPropertyIndex testee = VaultPropertyIndex.of(properties);
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(testee.get("service" + i + ".credentials.password"), is("secret" + i));
+            assertThat(testee.contains("service" + i + ".credentials.password"), is(true));
+        }
+        assertThat(testee.size(), is(1000));
+        assertThat(testee.asMap(), is(properties));
+    }
+
+    @Test
+    public void shouldNotFindMissingProperties() {
+        // given
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("test.config.one", "one");
+
+        // when
+        final VaultPropertyIndex testee = VaultPropertyIndex.of(properties);
+
+        // then
+        assertThat(testee.get("test.config.two"), is(nullValue()));
+        assertThat(testee.get("test.config"), is(nullValue()));
+        assertThat(testee.get(null), is(nullValue()));
+        assertThat(testee.contains("test.config.two"), is(false));
+        assertThat(VaultPropertyIndex.EMPTY.contains("test.config.one"), is(false));
+    }
+
+    @Test
+    public void shouldFindPropertiesWithCollidingHashCodes() {
+        // given
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("Aa", "first");
+        properties.put("BB", "second");
+
+        // when
+        final VaultPropertyIndex testee = VaultPropertyIndex.of(properties);
+
+        // then
+        assertThat(testee.get("Aa"), is("first"));
+        assertThat(testee.get("BB"), is("second"));
+        assertThat(testee.get("C#"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldSortPropertyNames() {
+        // given
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("b", "2");
+        properties.put("c", "3");
+        properties.put("a", "1");
+
+        // when
+        final VaultPropertyIndex testee = VaultPropertyIndex.of(properties);
+
+        // then
+        assertThat(testee.names(), is(new String[]{"a", "b", "c"}));
+    }
+}
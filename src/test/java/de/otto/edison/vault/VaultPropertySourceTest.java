@@ -1,20 +1,50 @@
 package de.otto.edison.vault;
 
+import com.sun.net.httpserver.HttpServer;
 import org.springframework.mock.env.MockEnvironment;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
 
 public class VaultPropertySourceTest {
 
@@ -61,7 +91,8 @@ public class VaultPropertySourceTest {
 
         // given
         final List<String> testProperties = Collections.singletonList("testpath.value");
-        when(vaultClient.readFields("testpath")).thenReturn(Collections.singletonMap("value", "secret"));
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")));
 
         final VaultPropertySource source = createTestPropertySource(testProperties, true);
 
@@ -78,7 +109,8 @@ public class VaultPropertySourceTest {
 
         // given
         final List<String> testProperties = Collections.singletonList("testpath-value");
-        when(vaultClient.readFields("")).thenReturn(Collections.singletonMap("testpath-value", "secret"));
+        when(vaultClient.readSecrets(fieldNames("", "testpath-value"), 8))
+                .thenReturn(secrets("", Collections.singletonMap("testpath-value", "secret")));
 
         final VaultPropertySource source = createTestPropertySource(testProperties, true);
 
@@ -89,15 +121,642 @@ public class VaultPropertySourceTest {
         assertThat(result, is("secret"));
     }
 
+    @Test
+    public void shouldReadAllSecretPathsInOneBatch() throws Exception {
+
+        // given
+        final List<String> testProperties = Arrays.asList("first.one", "first.two", "second.one");
+        final Map<String, VaultSecret> vaultFields = new HashMap<>();
+        vaultFields.put("first", secret(fields("one", "1", "two", "2"), 0));
+        vaultFields.put("second", secret(fields("one", "3"), 0));
+        final Map<String, Set<String>> fieldNames = fieldNames("first", "one", "two");
+        fieldNames.putAll(fieldNames("second", "one"));
+        when(vaultClient.readSecrets(fieldNames, 8)).thenReturn(vaultFields);
+
+        // when
+        final VaultPropertySource source = createTestPropertySource(testProperties, true);
+
+        // then
+        verify(vaultClient).readSecrets(anyMap(), anyInt());
+        verifyNoMoreInteractions(vaultClient);
+        assertThat(source.getProperty("first.one"), is("1"));
+        assertThat(source.getProperty("first.two"), is("2"));
+        assertThat(source.getProperty("second.one"), is("3"));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class,
+            expectedExceptionsMessageRegExp = "unable read value 'two' from vault property 'first' - value not found")
+    public void shouldFailIfAFieldIsMissing() throws Exception {
+
+        // given
+        final List<String> testProperties = Arrays.asList("first.one", "first.two");
+        when(vaultClient.readSecrets(fieldNames("first", "one", "two"), 8))
+                .thenReturn(secrets("first", fields("one", "1")));
+
+        // when
+        createTestPropertySource(testProperties, true);
+    }
+
+    @Test
+    public void shouldRecordInitializationTime() throws Exception {
+
+        // given
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.properties", "testpath.value");
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")));
+        final VaultMetrics metrics = mock(VaultMetrics.class);
+
+        // when
+        new VaultPropertySource("testSource", new ConfigProperties(environment), metrics) {
+            @Override
+            protected VaultClient createVaultClient(final ConfigProperties configProperties) {
+                return vaultClient;
+            }
+        };
+
+        // then
+        verify(metrics).recordPropertySourceInitialization(anyLong());
+    }
+
+    @Test
+    public void shouldNotLeaveThreadsBehindAfterStartup() throws Exception {
+
+        // given
+        final HttpServer vaultServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        vaultServer.createContext("/v1/secret/testpath", exchange -> {
+            final byte[] body = "{\"data\":{\"value\":\"secret\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        vaultServer.start();
+        final File tokenFile = File.createTempFile("vault-token", null);
+        Files.write(tokenFile.toPath(), "someToken".getBytes(StandardCharsets.UTF_8));
+        final Set<Thread> threadsBeforeStartup = Thread.getAllStackTraces().keySet();
+
+        try {
+            final MockEnvironment environment = new MockEnvironment();
+            environment.setProperty("edison.vault.enabled", "true");
+            environment.setProperty("edison.vault.base-url", "http://127.0.0.1:" + vaultServer.getAddress().getPort());
+            environment.setProperty("edison.vault.secret-path", "/secret");
+            environment.setProperty("edison.vault.token-source", "file");
+            environment.setProperty("edison.vault.file-token", tokenFile.getAbsolutePath());
+            environment.setProperty("edison.vault.properties", "testpath.value");
+
+            // when
+            final VaultPropertySource source = new VaultPropertySource("testSource", new ConfigProperties(environment));
+
+            // then
+            assertThat(source.getProperty("testpath.value"), is("secret"));
+            // netty shuts down its event loops asynchronously, so wait until no new thread was seen for two seconds
+            final long deadline = System.currentTimeMillis() + 15000;
+            long quietSince = System.currentTimeMillis();
+            while (System.currentTimeMillis() - quietSince < 2000 && System.currentTimeMillis() < deadline) {
+                if (!threadsStartedSince(threadsBeforeStartup).isEmpty()) {
+                    quietSince = System.currentTimeMillis();
+                }
+                Thread.sleep(50);
+            }
+            assertThat(threadsStartedSince(threadsBeforeStartup), is(empty()));
+        } finally {
+            vaultServer.stop(0);
+            tokenFile.delete();
+        }
+    }
+
+    @Test
+    public void shouldReadSecretsWithJdkTransport() throws Exception {
+
+        // given
+        final HttpServer vaultServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        vaultServer.createContext("/v1/secret/testpath", exchange -> {
+            final byte[] body = "{\"data\":{\"value\":\"secret\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        vaultServer.start();
+        final File tokenFile = File.createTempFile("vault-token", null);
+        Files.write(tokenFile.toPath(), "someToken".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            final MockEnvironment environment = new MockEnvironment();
+            environment.setProperty("edison.vault.enabled", "true");
+            environment.setProperty("edison.vault.base-url", "http://127.0.0.1:" + vaultServer.getAddress().getPort());
+            environment.setProperty("edison.vault.secret-path", "/secret");
+            environment.setProperty("edison.vault.token-source", "file");
+            environment.setProperty("edison.vault.file-token", tokenFile.getAbsolutePath());
+            environment.setProperty("edison.vault.properties", "testpath.value");
+            environment.setProperty("edison.vault.http.transport", "jdk");
+
+            // when
+            final VaultPropertySource source = new VaultPropertySource("testSource", new ConfigProperties(environment));
+
+            // then
+            assertThat(source.getProperty("testpath.value"), is("secret"));
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (transportThreadCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(transportThreadCount(), is(0L));
+        } finally {
+            vaultServer.stop(0);
+            tokenFile.delete();
+        }
+    }
+
+    @Test
+    public void shouldRetryFailedReadDuringScheduledRefresh() throws Exception {
+
+        // given
+        final AtomicInteger requestCount = new AtomicInteger();
+        final HttpServer vaultServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        vaultServer.createContext("/v1/secret/testpath", exchange -> {
+            final int request = requestCount.incrementAndGet();
+            final byte[] body = (request == 2 ? "{\"errors\":[]}"
+                    : "{\"data\":{\"value\":\"secret" + request + "\"}}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(request == 2 ? 503 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        vaultServer.start();
+        final File tokenFile = File.createTempFile("vault-token", null);
+        Files.write(tokenFile.toPath(), "someToken".getBytes(StandardCharsets.UTF_8));
+        VaultPropertySource source = null;
+
+        try {
+            final MockEnvironment environment = new MockEnvironment();
+            environment.setProperty("edison.vault.enabled", "true");
+            environment.setProperty("edison.vault.base-url", "http://127.0.0.1:" + vaultServer.getAddress().getPort());
+            environment.setProperty("edison.vault.secret-path", "/secret");
+            environment.setProperty("edison.vault.token-source", "file");
+            environment.setProperty("edison.vault.file-token", tokenFile.getAbsolutePath());
+            environment.setProperty("edison.vault.properties", "testpath.value");
+            environment.setProperty("edison.vault.http.transport", "jdk");
+            environment.setProperty("edison.vault.refresh.enabled", "true");
+            environment.setProperty("edison.vault.refresh.interval", "1");
+            environment.setProperty("edison.vault.refresh.jitter", "0");
+
+            // when
+            source = new VaultPropertySource("testSource", new ConfigProperties(environment));
+
+            // then
+            assertThat(source.getProperty("testpath.value"), is("secret1"));
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (!"secret3".equals(source.getProperty("testpath.value")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(source.getProperty("testpath.value"), is("secret3"));
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+            vaultServer.stop(0);
+            tokenFile.delete();
+        }
+    }
+
+    @Test
+    public void shouldWriteSnapshotAfterLoadingFromVault() throws Exception {
+
+        // given
+        final Path snapshotFile = Files.createTempFile("vault-snapshot", null);
+        final Path keyFile = createKeyFile();
+        final MockEnvironment environment = snapshotEnvironment(snapshotFile, keyFile, 300);
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")));
+
+        try {
+            // when
+            createTestPropertySource(environment);
+
+            // then
+            final VaultSnapshotStore store = new VaultSnapshotStore(snapshotFile, SecretCipher.fromKeyFile(keyFile));
+            assertThat(store.read().get().getProperties(), is(Collections.singletonMap("testpath.value", "secret")));
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(keyFile);
+        }
+    }
+
+    @Test
+    public void shouldStartFromSnapshotAndRevalidateInBackground() throws Exception {
+
+        // given
+        final Path snapshotFile = Files.createTempFile("vault-snapshot", null);
+        final Path keyFile = createKeyFile();
+        final MockEnvironment environment = snapshotEnvironment(snapshotFile, keyFile, 300);
+        new VaultSnapshotStore(snapshotFile, SecretCipher.fromKeyFile(keyFile))
+                .write(Collections.singletonMap("testpath.value", "snapshotSecret"));
+        final CountDownLatch vaultAvailable = new CountDownLatch(1);
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8)).thenAnswer(invocation -> {
+            vaultAvailable.await();
+            return secrets("testpath", Collections.singletonMap("value", "vaultSecret"));
+        });
+
+        try {
+            // when
+            final VaultPropertySource source = createTestPropertySource(environment);
+
+            // then
+            assertThat(source.getProperty("testpath.value"), is("snapshotSecret"));
+            vaultAvailable.countDown();
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (!"vaultSecret".equals(source.getProperty("testpath.value")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(source.getProperty("testpath.value"), is("vaultSecret"));
+        } finally {
+            vaultAvailable.countDown();
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(keyFile);
+        }
+    }
+
+    @Test
+    public void shouldStayOpenAfterRevalidatingSnapshotIfTokenRenewalIsEnabled() throws Exception {
+
+        // given
+        final Path snapshotFile = Files.createTempFile("vault-snapshot", null);
+        final Path keyFile = createKeyFile();
+        final MockEnvironment environment = snapshotEnvironment(snapshotFile, keyFile, 300);
+        environment.setProperty("edison.vault.token-renewal.enabled", "true");
+        new VaultSnapshotStore(snapshotFile, SecretCipher.fromKeyFile(keyFile))
+                .write(Collections.singletonMap("testpath.value", "snapshotSecret"));
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "vaultSecret")));
+
+        try {
+            // when
+            final VaultPropertySource source = createTestPropertySource(environment);
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (!"vaultSecret".equals(source.getProperty("testpath.value")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // the revalidation closes the property source right after publishing, if it is not kept open
+            Thread.sleep(200);
+
+            // then
+            source.reload();
+            verify(vaultClient, times(2)).readSecrets(fieldNames("testpath", "value"), 8);
+            source.close();
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(keyFile);
+        }
+    }
+
+    @Test
+    public void shouldStayOpenIfTokenFileIsWatched() throws Exception {
+
+        // given
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.properties", "testpath.value");
+        environment.setProperty("edison.vault.token-source", "file");
+        environment.setProperty("edison.vault.token-watch.enabled", "true");
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "vaultSecret")));
+        final VaultPropertySource source = createTestPropertySource(environment);
+
+        // when
+        source.reload();
+
+        // then
+        verify(vaultClient, times(2)).readSecrets(fieldNames("testpath", "value"), 8);
+        source.close();
+    }
+
+    @Test
+    public void shouldLoadFromVaultIfSnapshotIsExpired() throws Exception {
+
+        // given
+        final Path snapshotFile = Files.createTempFile("vault-snapshot", null);
+        final Path keyFile = createKeyFile();
+        final MockEnvironment environment = snapshotEnvironment(snapshotFile, keyFile, 0);
+        new VaultSnapshotStore(snapshotFile, SecretCipher.fromKeyFile(keyFile))
+                .write(Collections.singletonMap("testpath.value", "snapshotSecret"));
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "vaultSecret")));
+
+        try {
+            // when
+            final VaultPropertySource source = createTestPropertySource(environment);
+
+            // then
+            assertThat(source.getProperty("testpath.value"), is("vaultSecret"));
+        } finally {
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(keyFile);
+        }
+    }
+
+    @Test
+    public void shouldPublishRefreshedValues() throws Exception {
+
+        // given
+        final MockEnvironment environment = refreshEnvironment();
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "rotatedSecret")));
+
+        // when
+        final VaultPropertySource source = createTestPropertySource(environment);
+
+        try {
+            // then
+            assertThat(source.getProperty("testpath.value"), is("secret"));
+            verify(vaultClient, timeout(5000).times(2)).readSecrets(anyMap(), anyInt());
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (!"rotatedSecret".equals(source.getProperty("testpath.value")) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(source.getProperty("testpath.value"), is("rotatedSecret"));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepLastValuesIfRefreshFails() throws Exception {
+
+        // given
+        final MockEnvironment environment = refreshEnvironment();
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")))
+                .thenThrow(new RuntimeException("vault is sealed"));
+
+        // when
+        final VaultPropertySource source = createTestPropertySource(environment);
+
+        try {
+            // then
+            verify(vaultClient, timeout(5000).times(2)).readSecrets(anyMap(), anyInt());
+            assertThat(source.getProperty("testpath.value"), is("secret"));
+            assertThat(source.getPropertyNames(), is(new String[]{"testpath.value"}));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void shouldReportChangedPropertiesOnReload() throws Exception {
+
+        // given
+        final MockEnvironment environment = refreshEnvironment();
+        environment.setProperty("edison.vault.properties", "testpath.value,testpath.other");
+        environment.setProperty("edison.vault.refresh.interval", "3600");
+        when(vaultClient.readSecrets(fieldNames("testpath", "value", "other"), 8))
+                .thenReturn(secrets("testpath", fields("value", "secret", "other", "unchanged")))
+                .thenReturn(secrets("testpath", fields("value", "rotatedSecret", "other", "unchanged")));
+        final VaultPropertySource source = createTestPropertySource(environment);
+        final List<Set<String>> notifications = new CopyOnWriteArrayList<>();
+        source.addChangeListener(notifications::add);
+
+        try {
+            // when
+            final Set<String> changedProperties = source.reload();
+
+            // then
+            assertThat(changedProperties, is(Collections.singleton("testpath.value")));
+            assertThat(notifications, is(Collections.singletonList(Collections.singleton("testpath.value"))));
+            assertThat(source.getProperty("testpath.value"), is("rotatedSecret"));
+        } finally {
+            source.close();
+        }
+    }
+
+    @Test
+    public void shouldFindAddedRemovedAndModifiedProperties() throws Exception {
+
+        // given
+        final Map<String, String> previous = fields("kept", "1", "modified", "2", "removed", "3");
+        final Map<String, String> current = fields("kept", "1", "modified", "4", "added", "5");
+
+        // when
+        final Set<String> changedProperties = VaultPropertySource.changedProperties(previous, current);
+
+        // then
+        assertThat(changedProperties, is(new HashSet<>(Arrays.asList("modified", "removed", "added"))));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotReloadAClosedPropertySource() throws Exception {
+
+        // given
+        when(vaultClient.readSecrets(fieldNames("testpath", "value"), 8))
+                .thenReturn(secrets("testpath", Collections.singletonMap("value", "secret")));
+        final VaultPropertySource source = createTestPropertySource(Collections.singletonList("testpath.value"), true);
+
+        // when
+        source.reload();
+    }
+
+    @Test
+    public void shouldRefreshWithinTheShortestLeaseDuration() throws Exception {
+
+        // given
+        final List<VaultSecret> secrets = Arrays.asList(
+                secret(fields("one", "1"), 0),
+                secret(fields("one", "1"), 60),
+                secret(fields("one", "1"), 120));
+
+        // when
+        final long delay = VaultPropertySource.refreshDelayInMillis(secrets, 300, 10);
+        final long delayWithoutLease = VaultPropertySource.refreshDelayInMillis(Collections.emptyList(), 300, 0);
+
+        // then
+        assertThat(delay, is(both(greaterThanOrEqualTo(50000L)).and(lessThanOrEqualTo(60000L))));
+        assertThat(delayWithoutLease, is(300000L));
+    }
+
     @BeforeMethod
     public void setUp() throws Exception {
         vaultClient = mock(VaultClient.class);
     }
 
+    @Test
+    public void shouldReadSecretPathsOnFirstAccessInLazyMode() throws Exception {
+
+        // given
+        when(vaultClient.readSecrets(fieldNames("first", "value"), 8))
+                .thenReturn(secrets("first", Collections.singletonMap("value", "firstSecret")));
+
+        // when
+        final VaultPropertySource source = createTestPropertySource(lazyEnvironment());
+
+        // then
+        verifyZeroInteractions(vaultClient);
+        assertThat(source.containsProperty("second.value"), is(true));
+        assertThat(source.getProperty("first.value"), is("firstSecret"));
+        assertThat(source.getProperty("first.value"), is("firstSecret"));
+        assertThat(source.getProperty("unknown.value"), nullValue());
+        verify(vaultClient).readSecrets(fieldNames("first", "value"), 8);
+        verifyNoMoreInteractions(vaultClient);
+        source.close();
+    }
+
+    @Test
+    public void shouldShareConcurrentFirstAccessesInLazyMode() throws Exception {
+
+        // given
+        final CountDownLatch vaultAvailable = new CountDownLatch(1);
+        when(vaultClient.readSecrets(fieldNames("first", "value"), 8)).thenAnswer(invocation -> {
+            vaultAvailable.await();
+            return secrets("first", Collections.singletonMap("value", "firstSecret"));
+        });
+        final VaultPropertySource source = createTestPropertySource(lazyEnvironment());
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            final Future<Object> first = executor.submit(() -> source.getProperty("first.value"));
+            final Future<Object> second = executor.submit(() -> source.getProperty("first.value"));
+            verify(vaultClient, timeout(1000)).readSecrets(anyMap(), anyInt());
+            vaultAvailable.countDown();
+
+            // then
+            assertThat(first.get(1, TimeUnit.SECONDS), is("firstSecret"));
+            assertThat(second.get(1, TimeUnit.SECONDS), is("firstSecret"));
+            verify(vaultClient).readSecrets(fieldNames("first", "value"), 8);
+        } finally {
+            vaultAvailable.countDown();
+            executor.shutdownNow();
+            source.close();
+        }
+    }
+
+    @Test
+    public void shouldReadAgainAfterFailedFirstAccessInLazyMode() throws Exception {
+
+        // given
+        when(vaultClient.readSecrets(fieldNames("first", "value"), 8))
+                .thenThrow(new RuntimeException("vault is down"))
+                .thenReturn(secrets("first", Collections.singletonMap("value", "firstSecret")));
+        final VaultPropertySource source = createTestPropertySource(lazyEnvironment());
+
+        // when
+        try {
+            source.getProperty("first.value");
+            fail("expected the read to fail");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+        final Object result = source.getProperty("first.value");
+
+        // then
+        assertThat(result, is("firstSecret"));
+        source.close();
+    }
+
+    @Test
+    public void shouldExposeAllFieldsOfDiscoveredSecrets() throws Exception {
+
+        // given
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.discovery.enabled", "true");
+        when(vaultClient.listKeysAsync("")).thenReturn(CompletableFuture.completedFuture(Arrays.asList("db", "app/")));
+        when(vaultClient.listKeysAsync("app")).thenReturn(CompletableFuture.completedFuture(Collections.singletonList("api")));
+        final Map<String, VaultSecret> secrets = new HashMap<>();
+        secrets.put("db", secret(fields("user", "someUser", "password", "somePassword"), 0));
+        secrets.put("app/api", secret(fields("key", "someKey"), 0));
+        when(vaultClient.readSecrets(new HashSet<>(Arrays.asList("db", "app/api")), 8)).thenReturn(secrets);
+
+        // when
+        final VaultPropertySource source = createTestPropertySource(environment);
+
+        // then
+        assertThat(source.getPropertyNames().length, is(3));
+        assertThat(source.getProperty("db.user"), is("someUser"));
+        assertThat(source.getProperty("db.password"), is("somePassword"));
+        assertThat(source.getProperty("app.api.key"), is("someKey"));
+    }
+
+    private static long transportThreadCount() {
+        return Thread.getAllStackTraces().keySet()
+                .stream()
+                .filter(Thread::isAlive)
+                .filter(thread -> thread.getName().startsWith(AsyncHttpClientFactory.THREAD_POOL_NAME)
+                        || thread.getName().startsWith(JdkHttpTransport.THREAD_POOL_NAME))
+                .count();
+    }
+
+    private static Set<Thread> threadsStartedSince(final Set<Thread> threadsBefore) {
+        return Thread.getAllStackTraces().keySet()
+                .stream()
+                .filter(thread -> !threadsBefore.contains(thread))
+                .filter(Thread::isAlive)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, VaultSecret> secrets(final String path, final Map<String, String> fields) {
+        return Collections.singletonMap(path, secret(fields, 0));
+    }
+
+    private static VaultSecret secret(final Map<String, String> fields, final long leaseDuration) {
+        return new VaultSecret(fields, "", leaseDuration, false);
+    }
+
+    private static Map<String, Set<String>> fieldNames(final String path, final String... names) {
+        final Map<String, Set<String>> fieldNames = new HashMap<>();
+        fieldNames.put(path, new HashSet<>(Arrays.asList(names)));
+        return fieldNames;
+    }
+
+    private static Map<String, String> fields(final String... keysAndValues) {
+        final Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            fields.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return fields;
+    }
+
+    private static Path createKeyFile() throws Exception {
+        final Path keyFile = Files.createTempFile("vault-snapshot-key", null);
+        Files.write(keyFile, "someKey".getBytes(StandardCharsets.UTF_8));
+        return keyFile;
+    }
+
+    private static MockEnvironment refreshEnvironment() {
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.properties", "testpath.value");
+        environment.setProperty("edison.vault.refresh.enabled", "true");
+        environment.setProperty("edison.vault.refresh.interval", "1");
+        environment.setProperty("edison.vault.refresh.jitter", "0");
+        return environment;
+    }
+
+    private static MockEnvironment lazyEnvironment() {
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.properties", "first.value,second.value");
+        environment.setProperty("edison.vault.lazy.enabled", "true");
+        return environment;
+    }
+
+    private static MockEnvironment snapshotEnvironment(final Path snapshotFile, final Path keyFile, final int ttl) {
+        final MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("edison.vault.enabled", "true");
+        environment.setProperty("edison.vault.properties", "testpath.value");
+        environment.setProperty("edison.vault.snapshot.enabled", "true");
+        environment.setProperty("edison.vault.snapshot.file", snapshotFile.toString());
+        environment.setProperty("edison.vault.snapshot.key-file", keyFile.toString());
+        environment.setProperty("edison.vault.snapshot.ttl", Integer.toString(ttl));
+        return environment;
+    }
+
     private VaultPropertySource createTestPropertySource(final List<String> properties, final boolean enabled) {
         final MockEnvironment environment = new MockEnvironment();
         environment.setProperty("edison.vault.enabled", Boolean.toString(enabled));
         environment.setProperty("edison.vault.properties", properties.stream().collect(Collectors.joining(",")));
+        return createTestPropertySource(environment);
+    }
+
+    private VaultPropertySource createTestPropertySource(final MockEnvironment environment) {
         final VaultPropertySource source = new VaultPropertySource("testSource", new ConfigProperties(environment)) {
             @Override
             protected VaultClient createVaultClient(final ConfigProperties configProperties) {
@@ -0,0 +1,127 @@
+package de.otto.edison.vault;
+
+import static java.util.Collections.singleton;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class VaultResponseParserTest {
+
+    @Test
+    public void shouldParseFieldsAndLease() throws Exception {
+        // given
+        InputStream body = body("{\"lease_id\":\"someLease\",\"renewable\":true,\"lease_duration\":2592000," +
+                "\"data\":{\"user\":\"someUser\",\"password\":\"somePassword\"},\"auth\":null}");
+
+        // when
+        VaultSecret secret = VaultResponseParser.parseSecret(body, null);
+
+        // then
+        assertThat(secret.getFields().get("user"), is("someUser"));
+        assertThat(secret.getFields().get("password"), is("somePassword"));
+        assertThat(secret.getLeaseId(), is("someLease"));
+        assertThat(secret.getLeaseDuration(), is(2592000L));
+        assertThat(secret.isRenewable(), is(true));
+    }
+
+    @Test
+    public void shouldConvertNonStringValues() throws Exception {
+        // given
+        InputStream body = body("{\"data\":{\"port\":8080,\"ratio\":0.5,\"enabled\":false,\"missing\":null," +
+                "\"hosts\":[\"a\",\"b\"],\"nested\":{\"key\":1}}}");
+
+        // when
+        VaultSecret secret = VaultResponseParser.parseSecret(body, null);
+
+        // then
+        assertThat(secret.getFields().get("port"), is("8080"));
+        assertThat(secret.getFields().get("ratio"), is("0.5"));
+        assertThat(secret.getFields().get("enabled"), is("false"));
+        assertThat(secret.getFields().containsKey("missing"), is(false));
+        assertThat(secret.getFields().get("hosts"), is("[\"a\",\"b\"]"));
+        assertThat(secret.getFields().get("nested"), is("{\"key\":1}"));
+    }
+
+    @Test
+    public void shouldSkipFieldsThatWereNotAskedFor() throws Exception {
+        // given
+        InputStream body = body("{\"data\":{\"keystore\":{\"large\":[1,2,3]},\"password\":\"somePassword\"}}");
+
+        // when
+        VaultSecret secret = VaultResponseParser.parseSecret(body, singleton("password"));
+
+        // then
+        assertThat(secret.getFields().size(), is(1));
+        assertThat(secret.getFields().get("password"), is("somePassword"));
+    }
+
+    @Test
+    public void shouldReturnNullFieldsWithoutData() throws Exception {
+        // when
+        VaultSecret secret = VaultResponseParser.parseSecret(body("{\"lease_duration\":0}"), null);
+
+        // then
+        assertThat(secret.getFields(), is(nullValue()));
+        assertThat(secret.getLeaseId(), is(nullValue()));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldFailOnMalformedJson() throws Exception {
+        VaultResponseParser.parseSecret(body("{\"data\":{\"user\""), null);
+    }
+
+    @Test
+    public void shouldParseListedKeys() throws Exception {
+        // given
+        InputStream body = body("{\"request_id\":\"someId\",\"lease_id\":\"\",\"data\":{\"keys\":[\"db\",\"app/\"]}," +
+                "\"wrap_info\":null}");
+
+        // when
+        List<String> keys = VaultResponseParser.parseKeys(body);
+
+        // then
+        assertThat(keys, contains("db", "app/"));
+    }
+
+    @Test
+    public void shouldParseVersionedSecret() throws Exception {
+        // given
+        InputStream body = body("{\"lease_id\":\"\",\"renewable\":false,\"lease_duration\":0,\"data\":{" +
+                "\"data\":{\"password\":\"somePassword\"},\"metadata\":{\"created_time\":\"2018-03-22T02:24:06.945319214Z\"," +
+                "\"deletion_time\":\"\",\"destroyed\":false,\"version\":3}}}");
+
+        // when
+        VaultSecret secret = VaultResponseParser.parseVersionedSecret(body, null);
+
+        // then
+        assertThat(secret.getFields().get("password"), is("somePassword"));
+        assertThat(secret.getVersion(), is(3L));
+    }
+
+    @Test
+    public void shouldParseCurrentVersionFromMetadata() throws Exception {
+        // given
+        InputStream body = body("{\"data\":{\"created_time\":\"2018-03-22T02:24:06.945319214Z\",\"current_version\":5," +
+                "\"max_versions\":0,\"oldest_version\":1,\"versions\":{\"5\":{\"destroyed\":false}}}}");
+
+        // when
+        long currentVersion = VaultResponseParser.parseCurrentVersion(body);
+
+        // then
+        assertThat(currentVersion, is(5L));
+    }
+
+    private static InputStream body(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
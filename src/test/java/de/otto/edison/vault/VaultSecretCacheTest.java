@@ -0,0 +1,136 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultSecretCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger loads;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        now = new AtomicLong();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void shouldReturnCachedSecret() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(10, 60, now::get);
+        testee.get("http://vault/v1/secret/one", this::load).join();
+
+        // when
+        VaultSecret secret = testee.get("http://vault/v1/secret/one", this::load).join();
+
+        // then
+        assertThat(secret.getFields().get("url"), is("http://vault/v1/secret/one"));
+        assertThat(loads.get(), is(1));
+        assertThat(testee.getHitCount(), is(1L));
+        assertThat(testee.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void shouldShareInFlightRequest() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(10, 60, now::get);
+        CompletableFuture<VaultSecret> pending = new CompletableFuture<>();
+
+        // when
+        CompletableFuture<VaultSecret> first = testee.get("http://vault/v1/secret/one", url -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<VaultSecret> second = testee.get("http://vault/v1/secret/one", this::load);
+        pending.complete(secret("one", 0));
+
+        // then
+        assertThat(loads.get(), is(1));
+        assertThat(first.join(), sameInstance(second.join()));
+        assertThat(testee.getCoalescedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldExpireSecretsAfterTtl() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(10, 60, now::get);
+        testee.get("http://vault/v1/secret/one", this::load).join();
+
+        // when
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        testee.get("http://vault/v1/secret/one", this::load).join();
+
+        // then
+        assertThat(loads.get(), is(2));
+        assertThat(testee.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void shouldExpireSecretsAfterShorterLease() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(10, 60, now::get);
+        testee.get("http://vault/v1/secret/one", url -> CompletableFuture.completedFuture(secret(url, 10))).join();
+
+        // when
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        testee.get("http://vault/v1/secret/one", this::load).join();
+
+        // then
+        assertThat(loads.get(), is(1));
+        assertThat(testee.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedSecret() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(2, 60, now::get);
+        testee.get("one", this::load).join();
+        testee.get("two", this::load).join();
+        testee.get("one", this::load).join();
+
+        // when
+        testee.get("three", this::load).join();
+        testee.get("one", this::load).join();
+        testee.get("two", this::load).join();
+
+        // then
+        assertThat(loads.get(), is(4));
+        assertThat(testee.size(), is(2));
+        assertThat(testee.getEvictionCount(), is(2L));
+    }
+
+    @Test
+    public void shouldNotCacheFailedReads() throws Exception {
+        // given
+        VaultSecretCache testee = new VaultSecretCache(10, 60, now::get);
+        CompletableFuture<VaultSecret> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("vault is sealed"));
+
+        // when
+        boolean failedFirst = testee.get("one", url -> failed).isCompletedExceptionally();
+        VaultSecret secret = testee.get("one", this::load).join();
+
+        // then
+        assertThat(failedFirst, is(true));
+        assertThat(secret.getFields().get("url"), is("one"));
+    }
+
+    private CompletableFuture<VaultSecret> load(final String url) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(secret(url, 0));
+    }
+
+    private static VaultSecret secret(final String url, final long leaseDuration) {
+        return new VaultSecret(Collections.singletonMap("url", url), "", leaseDuration, false);
+    }
+}
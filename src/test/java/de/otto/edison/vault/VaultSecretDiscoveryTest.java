@@ -0,0 +1,78 @@
+package de.otto.edison.vault;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultSecretDiscoveryTest {
+
+    private VaultClient vaultClient;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        vaultClient = mock(VaultClient.class);
+        when(vaultClient.listKeysAsync("")).thenReturn(completedFuture(asList("db", "app/")));
+        when(vaultClient.listKeysAsync("app")).thenReturn(completedFuture(asList("api", "web/")));
+        when(vaultClient.listKeysAsync("app/web")).thenReturn(completedFuture(asList("session")));
+    }
+
+    @Test
+    public void shouldFindAllSecretsBreadthFirst() throws Exception {
+        // when
+        Set<String> secretPaths = new VaultSecretDiscovery(vaultClient, 10, 100, 4).discover();
+
+        // then
+        assertThat(secretPaths, contains("db", "app/api", "app/web/session"));
+    }
+
+    @Test
+    public void shouldNotListDirectoriesBelowTheMaximumDepth() throws Exception {
+        // when
+        Set<String> secretPaths = new VaultSecretDiscovery(vaultClient, 1, 100, 4).discover();
+
+        // then
+        assertThat(secretPaths, contains("db", "app/api"));
+        verify(vaultClient, never()).listKeysAsync("app/web");
+    }
+
+    @Test
+    public void shouldStopAtTheMaximumNumberOfPaths() throws Exception {
+        // when
+        Set<String> secretPaths = new VaultSecretDiscovery(vaultClient, 10, 2, 4).discover();
+
+        // then
+        assertThat(secretPaths, contains("db", "app/api"));
+        verify(vaultClient, never()).listKeysAsync("app/web");
+    }
+
+    @Test
+    public void shouldFailIfADirectoryCanNotBeListed() throws Exception {
+        // given
+        final CompletableFuture<List<String>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new RuntimeException("permission denied"));
+        when(vaultClient.listKeysAsync("app")).thenReturn(failure);
+
+        // when
+        try {
+            new VaultSecretDiscovery(vaultClient, 10, 100, 4).discover();
+            fail("expected the discovery to fail");
+        } catch (RuntimeException e) {
+            // then
+            verify(vaultClient, never()).listKeysAsync("app/web");
+        }
+    }
+}
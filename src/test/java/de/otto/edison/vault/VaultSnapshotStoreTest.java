@@ -0,0 +1,84 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultSnapshotStoreTest {
+
+    private Path snapshotDirectory;
+    private Path snapshotFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        snapshotDirectory = Files.createTempDirectory("vault-snapshot");
+        snapshotFile = snapshotDirectory.resolve("snapshot");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(snapshotDirectory);
+    }
+
+    @Test
+    public void shouldReadWrittenSnapshot() throws Exception {
+        // given
+        final VaultSnapshotStore testee = new VaultSnapshotStore(snapshotFile, SecretCipher.fromToken("someToken"));
+        testee.write(Collections.singletonMap("keyOne.value", "secret"));
+
+        // when
+        final Optional<VaultSnapshotStore.Snapshot> snapshot = testee.read();
+
+        // then
+        assertThat(snapshot.isPresent(), is(true));
+        assertThat(snapshot.get().getProperties(), is(Collections.singletonMap("keyOne.value", "secret")));
+        assertThat(snapshot.get().isYoungerThan(Duration.ofMinutes(1)), is(true));
+        assertThat(snapshot.get().isYoungerThan(Duration.ZERO), is(false));
+    }
+
+    @Test
+    public void shouldNotStoreSecretsInPlainText() throws Exception {
+        // given
+        final VaultSnapshotStore testee = new VaultSnapshotStore(snapshotFile, SecretCipher.fromToken("someToken"));
+
+        // when
+        testee.write(Collections.singletonMap("keyOne.value", "secret"));
+
+        // then
+        assertThat(new String(Files.readAllBytes(snapshotFile), StandardCharsets.ISO_8859_1).contains("secret"), is(false));
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotEncryptedWithAnotherKey() throws Exception {
+        // given
+        new VaultSnapshotStore(snapshotFile, SecretCipher.fromToken("someToken")).write(Collections.singletonMap("keyOne.value", "secret"));
+
+        // when
+        final Optional<VaultSnapshotStore.Snapshot> snapshot =
+                new VaultSnapshotStore(snapshotFile, SecretCipher.fromToken("someOtherToken")).read();
+
+        // then
+        assertThat(snapshot.isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldReturnEmptySnapshotIfThereIsNoFile() throws Exception {
+        // when
+        final Optional<VaultSnapshotStore.Snapshot> snapshot =
+                new VaultSnapshotStore(snapshotFile, SecretCipher.fromToken("someToken")).read();
+
+        // then
+        assertThat(snapshot.isPresent(), is(false));
+    }
+}
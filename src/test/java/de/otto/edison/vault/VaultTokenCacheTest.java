@@ -0,0 +1,66 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultTokenCacheTest {
+
+    private Path tokenCacheFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        tokenCacheFile = Files.createTempFile("vault-token-cache", null);
+        Files.delete(tokenCacheFile);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(tokenCacheFile);
+    }
+
+    @Test
+    public void shouldReadWrittenToken() {
+        // given
+        final VaultTokenCache testee = new VaultTokenCache(tokenCacheFile, SecretCipher.fromToken("someKey"));
+        testee.write(new VaultToken("someToken", 3600, true));
+
+        // when
+        final Optional<String> token = testee.read();
+
+        // then
+        assertThat(token, is(Optional.of("someToken")));
+    }
+
+    @Test
+    public void shouldNotReadTokenEncryptedWithAnotherKey() throws Exception {
+        // given
+        new VaultTokenCache(tokenCacheFile, SecretCipher.fromToken("someKey")).write(new VaultToken("someToken", 3600, true));
+
+        // when
+        final Optional<String> token = new VaultTokenCache(tokenCacheFile, SecretCipher.fromToken("otherKey")).read();
+
+        // then
+        assertThat(token, is(Optional.empty()));
+        assertThat(new String(Files.readAllBytes(tokenCacheFile), "UTF-8").contains("someToken"), is(false));
+    }
+
+    @Test
+    public void shouldReadNothingIfThereIsNoCachedToken() {
+        // given
+        final VaultTokenCache testee = new VaultTokenCache(tokenCacheFile, SecretCipher.fromToken("someKey"));
+
+        // when
+        final Optional<String> token = testee.read();
+
+        // then
+        assertThat(token, is(Optional.empty()));
+    }
+}
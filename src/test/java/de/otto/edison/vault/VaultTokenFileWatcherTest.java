@@ -0,0 +1,124 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultTokenFileWatcherTest {
+
+    private Path tokenDirectory;
+    private Path tokenFile;
+    private VaultTokenReader tokenReader;
+    private VaultTokenManager tokenManager;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        tokenDirectory = Files.createTempDirectory("vault-token");
+        tokenFile = tokenDirectory.resolve("token");
+        Files.write(tokenFile, "oldToken\n".getBytes(StandardCharsets.UTF_8));
+        tokenReader = new VaultTokenReader(mock(AsyncHttpClient.class));
+        tokenManager = new VaultTokenManager(new VaultToken("oldToken", 0, false), tokenReader,
+                mock(ConfigProperties.class), mock(ScheduledExecutorService.class));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(tokenDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(tokenDirectory);
+    }
+
+    @Test
+    public void shouldSwapTokenAfterTokenFileWasReplaced() throws Exception {
+        // given
+        final VaultTokenFileWatcher testee = new VaultTokenFileWatcher(tokenFile, 50, tokenReader, tokenManager);
+        try {
+            // when
+            replaceTokenFile("newToken");
+
+            // then
+            awaitToken("newToken");
+            assertThat(tokenManager.get(), is("newToken"));
+        } finally {
+            testee.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreChangesOfOtherFilesInTokenDirectory() throws Exception {
+        // given
+        final VaultTokenReader spiedTokenReader = spy(tokenReader);
+        final VaultTokenFileWatcher testee = new VaultTokenFileWatcher(tokenFile, 50, spiedTokenReader, tokenManager);
+        try {
+            // when
+            Files.write(tokenDirectory.resolve("other"), "other\n".getBytes(StandardCharsets.UTF_8));
+            Thread.sleep(500);
+
+            // then
+            verify(spiedTokenReader, never()).readTokenFromFile(anyString());
+            replaceTokenFile("newToken");
+            awaitToken("newToken");
+            assertThat(tokenManager.get(), is("newToken"));
+        } finally {
+            testee.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepTokenIfTokenFileIsMissing() throws Exception {
+        // given
+        try (VaultTokenFileWatcher testee = new VaultTokenFileWatcher(tokenFile, 50, tokenReader, tokenManager)) {
+            Files.delete(tokenFile);
+
+            // when
+            testee.reload();
+
+            // then
+            assertThat(tokenManager.get(), is("oldToken"));
+        }
+    }
+
+    @Test
+    public void shouldKeepTokenIfTokenFileIsEmpty() throws Exception {
+        // given
+        try (VaultTokenFileWatcher testee = new VaultTokenFileWatcher(tokenFile, 50, tokenReader, tokenManager)) {
+            Files.write(tokenFile, new byte[0]);
+
+            // when
+            testee.reload();
+
+            // then
+            assertThat(tokenManager.get(), is("oldToken"));
+        }
+    }
+
+    private void replaceTokenFile(final String token) throws Exception {
+        final Path newTokenFile = tokenDirectory.resolve("token.new");
+        Files.write(newTokenFile, (token + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(newTokenFile, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void awaitToken(final String token) throws Exception {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!token.equals(tokenManager.get()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
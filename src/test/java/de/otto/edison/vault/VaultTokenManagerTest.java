@@ -0,0 +1,215 @@
+package de.otto.edison.vault;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VaultTokenManagerTest {
+
+    private static final List<String> BASE_URLS = Collections.singletonList("http://someBaseUrl");
+
+    private VaultTokenReader tokenReader;
+    private ConfigProperties configProperties;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        tokenReader = mock(VaultTokenReader.class);
+        configProperties = mock(ConfigProperties.class);
+        scheduler = mock(ScheduledExecutorService.class);
+        when(configProperties.getBaseUrls()).thenReturn(BASE_URLS);
+        when(configProperties.getAppId()).thenReturn("someAppId");
+        when(configProperties.getUserId()).thenReturn("someUserId");
+    }
+
+    @Test
+    public void shouldScheduleRenewalAfterTwoThirdsOfTheLease() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("login");
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 3600, true), tokenReader, configProperties, scheduler);
+
+        // when
+        testee.start();
+
+        // then
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.MINUTES.toMillis(40)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldNotScheduleRenewalForTokensWithoutLease() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("environment");
+        when(tokenReader.lookupSelf(BASE_URLS, "rootToken")).thenReturn(new VaultToken("rootToken", 0, false));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("rootToken", 0, false), tokenReader, configProperties, scheduler);
+
+        // when
+        testee.start();
+
+        // then
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void shouldLookUpTheTtlOfTokensFromFiles() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("file");
+        when(tokenReader.lookupSelf(BASE_URLS, "someToken")).thenReturn(new VaultToken("someToken", 30, true));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 0, false), tokenReader, configProperties, scheduler);
+
+        // when
+        testee.start();
+
+        // then
+        assertThat(testee.getToken().isRenewable(), is(true));
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(20)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldLookUpTheTtlOfReplacedTokens() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("file");
+        when(tokenReader.lookupSelf(BASE_URLS, "newToken")).thenReturn(new VaultToken("newToken", 60, true));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader, configProperties, scheduler);
+        testee.start();
+
+        // when
+        testee.replaceToken("newToken");
+
+        // then
+        ArgumentCaptor<Runnable> lookup = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).execute(lookup.capture());
+        lookup.getValue().run();
+        assertThat(testee.get(), is("newToken"));
+        assertThat(testee.getToken().isRenewable(), is(true));
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(40)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldKeepTokenThatIsReplacedDuringRenewal() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("file");
+        when(tokenReader.lookupSelf(BASE_URLS, "newToken")).thenReturn(new VaultToken("newToken", 60, true));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader, configProperties, scheduler);
+        when(tokenReader.renewSelf(BASE_URLS, "someToken")).thenAnswer(invocation -> {
+            // the token file is rotated while the renewal waits for vault
+            testee.replaceToken("newToken");
+            return new VaultToken("someToken", 30, true);
+        });
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        assertThat(testee.get(), is("newToken"));
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        ArgumentCaptor<Runnable> lookup = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).execute(lookup.capture());
+        lookup.getValue().run();
+        assertThat(testee.get(), is("newToken"));
+        assertThat(testee.getToken().getLeaseDuration(), is(60L));
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(40)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldRenewRenewableTokens() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("login");
+        when(tokenReader.renewSelf(BASE_URLS, "someToken")).thenReturn(new VaultToken("someToken", 60, true));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader, configProperties, scheduler);
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        verify(tokenReader).renewSelf(BASE_URLS, "someToken");
+        assertThat(testee.getToken().getLeaseDuration(), is(60L));
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(40)), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldLoginAgainIfTokenIsNotRenewable() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("login");
+        when(tokenReader.login(BASE_URLS, "someAppId", "someUserId")).thenReturn(new VaultToken("newToken", 30, false));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, false), tokenReader, configProperties, scheduler);
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        verify(tokenReader, never()).renewSelf(anyListOf(String.class), anyString());
+        assertThat(testee.get(), is("newToken"));
+    }
+
+    @Test
+    public void shouldLoginAgainIfRenewalFails() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("login");
+        when(tokenReader.renewSelf(BASE_URLS, "someToken")).thenThrow(new RuntimeException("permission denied"));
+        when(tokenReader.login(BASE_URLS, "someAppId", "someUserId")).thenReturn(new VaultToken("newToken", 30, true));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader, configProperties, scheduler);
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        assertThat(testee.get(), is("newToken"));
+    }
+
+    @Test
+    public void shouldKeepTokenAndRetryIfRenewalFails() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("file");
+        when(tokenReader.renewSelf(BASE_URLS, "someToken")).thenThrow(new RuntimeException("connection refused"));
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader, configProperties, scheduler);
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        assertThat(testee.get(), is("someToken"));
+        verify(scheduler).schedule(any(Runnable.class), eq(VaultTokenManager.RETRY_DELAY_MILLIS), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldRecordRetries() throws Exception {
+        // given
+        when(configProperties.getTokenSource()).thenReturn("file");
+        when(tokenReader.renewSelf(BASE_URLS, "someToken")).thenThrow(new RuntimeException("connection refused"));
+        VaultMetrics metrics = mock(VaultMetrics.class);
+        VaultTokenManager testee = new VaultTokenManager(new VaultToken("someToken", 30, true), tokenReader,
+                configProperties, scheduler, metrics);
+
+        // when
+        runScheduledRenewal(testee);
+
+        // then
+        verify(metrics).recordRetry("token-renewal");
+    }
+
+    private void runScheduledRenewal(final VaultTokenManager testee) {
+        testee.start();
+        ArgumentCaptor<Runnable> renewal = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(renewal.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        reset(scheduler);
+        renewal.getValue().run();
+    }
+}
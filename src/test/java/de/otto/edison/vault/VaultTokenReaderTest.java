@@ -2,6 +2,12 @@ package de.otto.edison.vault;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.verifyStatic;
@@ -12,11 +18,18 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.BoundRequestBuilder;
 import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Response;
+import org.hamcrest.Matcher;
+import org.mockito.ArgumentMatcher;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.testng.PowerMockTestCase;
 import org.testng.annotations.BeforeMethod;
@@ -67,7 +80,7 @@ public class VaultTokenReaderTest extends PowerMockTestCase {
 
         // when
         when(configProperties.getTokenSource()).thenReturn("login");
-        when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+        when(configProperties.getBaseUrls()).thenReturn(Collections.singletonList("http://someBaseUrl"));
         when(configProperties.getAppId()).thenReturn("someAppId");
         when(configProperties.getUserId()).thenReturn("someUserId");
 
@@ -75,6 +88,56 @@ public class VaultTokenReaderTest extends PowerMockTestCase {
         assertThat(new VaultTokenReader(asyncHttpClient).readVaultToken(configProperties), is("someClientToken"));
     }
 
+    @Test
+    public void shouldRetryLoginIfVaultIsUnavailable() throws Exception {
+        // given
+        Response unavailable = mock(Response.class);
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+
+        when(unavailable.getStatusCode()).thenReturn(503);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBody()).thenReturn(createValidLoginJson("someClientToken"));
+        when(asyncHttpClient.preparePost("http://someBaseUrl/v1/auth/app-id/login")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setBody("{\"app_id\":\"someAppId\", \"user_id\": \"someUserId\"}")).thenReturn(
+                boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(unavailable, response);
+        VaultTokenReader testee = new VaultTokenReader(asyncHttpClient, VaultMetrics.NOOP, new RetryPolicy(3, 1, 1), null);
+
+        // when
+        VaultToken token = testee.login("http://someBaseUrl", "someAppId", "someUserId");
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+    }
+
+    @Test
+    public void shouldRecordLoginMetrics() throws Exception {
+        // given
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+        VaultMetrics metrics = mock(VaultMetrics.class);
+
+        when(response.getStatusCode()).thenReturn(403);
+        when(asyncHttpClient.preparePost("http://someBaseUrl/v1/auth/app-id/login")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setBody("{\"app_id\":\"someAppId\", \"user_id\": \"someUserId\"}")).thenReturn(
+                boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+
+        // when
+        try {
+            new VaultTokenReader(asyncHttpClient, metrics).login("http://someBaseUrl", "someAppId", "someUserId");
+            fail();
+        } catch (RuntimeException e) {
+            // then
+            verify(metrics).recordLogin(eq(false), anyLong());
+        }
+    }
+
     @Test
     public void shouldThrowRuntimeExceptionIfLoginFails() throws Exception {
         // given
@@ -93,7 +156,7 @@ public class VaultTokenReaderTest extends PowerMockTestCase {
         // when
         try {
             when(configProperties.getTokenSource()).thenReturn("login");
-            when(configProperties.getBaseUrl()).thenReturn("http://someBaseUrl");
+            when(configProperties.getBaseUrls()).thenReturn(Collections.singletonList("http://someBaseUrl"));
             when(configProperties.getAppId()).thenReturn("someAppId");
             when(configProperties.getUserId()).thenReturn("someUserId");
             new VaultTokenReader(asyncHttpClient).readVaultToken(configProperties);
@@ -168,6 +231,191 @@ public class VaultTokenReaderTest extends PowerMockTestCase {
         }
     }
 
+    @Test
+    public void shouldReadLeaseOfLoginToken() throws Exception {
+        // given
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+
+        when(response.getResponseBody()).thenReturn(createValidLoginJson("someClientToken")
+                .replace("\"lease_duration\": 0,\n    \"renewable\": false", "\"lease_duration\": 3600,\n    \"renewable\": true"));
+        when(response.getStatusCode()).thenReturn(200);
+        when(asyncHttpClient.preparePost("http://someBaseUrl/v1/auth/app-id/login")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setBody("{\"app_id\":\"someAppId\", \"user_id\": \"someUserId\"}")).thenReturn(
+                boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).login("http://someBaseUrl", "someAppId", "someUserId");
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+        assertThat(token.getLeaseDuration(), is(3600L));
+        assertThat(token.isRenewable(), is(true));
+    }
+
+    @Test
+    public void shouldRenewToken() throws Exception {
+        // given
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+
+        when(response.getResponseBody()).thenReturn("{\"auth\": {\"client_token\": \"someClientToken\", \"lease_duration\": 7200, \"renewable\": true}}");
+        when(response.getStatusCode()).thenReturn(200);
+        when(asyncHttpClient.preparePost("http://someBaseUrl/v1/auth/token/renew-self")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setHeader("X-Vault-Token", "someClientToken")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).renewSelf("http://someBaseUrl", "someClientToken");
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+        assertThat(token.getLeaseDuration(), is(7200L));
+    }
+
+    @Test
+    public void shouldLookUpToken() throws Exception {
+        // given
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+
+        when(response.getResponseBody()).thenReturn("{\"data\": {\"id\": \"someClientToken\", \"ttl\": 120, \"renewable\": true}}");
+        when(response.getStatusCode()).thenReturn(200);
+        when(asyncHttpClient.prepareGet("http://someBaseUrl/v1/auth/token/lookup-self")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setHeader("X-Vault-Token", "someClientToken")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).lookupSelf("http://someBaseUrl", "someClientToken");
+
+        // then
+        assertThat(token.getLeaseDuration(), is(120L));
+        assertThat(token.isRenewable(), is(true));
+    }
+
+    @Test
+    public void shouldReuseCachedTokenInsteadOfLogin() throws Exception {
+        // given
+        final VaultTokenCache tokenCache = mock(VaultTokenCache.class);
+        when(tokenCache.read()).thenReturn(Optional.of("cachedToken"));
+        mockLookupSelf("cachedToken", 200, 3600);
+        mockLoginProperties();
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).withTokenCache(tokenCache, 300).readToken(configProperties);
+
+        // then
+        assertThat(token.getToken(), is("cachedToken"));
+        assertThat(token.getLeaseDuration(), is(3600L));
+        verify(asyncHttpClient, never()).preparePost("http://someBaseUrl/v1/auth/app-id/login");
+        verify(tokenCache, never()).write(any(VaultToken.class));
+    }
+
+    @Test
+    public void shouldLoginIfCachedTokenExpiresSoon() throws Exception {
+        // given
+        final VaultTokenCache tokenCache = mock(VaultTokenCache.class);
+        when(tokenCache.read()).thenReturn(Optional.of("cachedToken"));
+        mockLookupSelf("cachedToken", 200, 60);
+        mockLogin("someClientToken");
+        mockLoginProperties();
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).withTokenCache(tokenCache, 300).readToken(configProperties);
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+        verify(tokenCache).write(argThat(hasToken("someClientToken")));
+    }
+
+    @Test
+    public void shouldLoginIfCachedTokenIsRevoked() throws Exception {
+        // given
+        final VaultTokenCache tokenCache = mock(VaultTokenCache.class);
+        when(tokenCache.read()).thenReturn(Optional.of("cachedToken"));
+        mockLookupSelf("cachedToken", 403, 0);
+        mockLogin("someClientToken");
+        mockLoginProperties();
+
+        // when
+        VaultToken token = new VaultTokenReader(asyncHttpClient).withTokenCache(tokenCache, 300).readToken(configProperties);
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+        verify(tokenCache).write(argThat(hasToken("someClientToken")));
+    }
+
+    @Test
+    public void shouldLoginAtNextNodeIfFirstNodeIsDown() throws Exception {
+        // given
+        VaultTransport transport = mock(VaultTransport.class);
+        VaultResponse response = mock(VaultResponse.class);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBody()).thenReturn(createValidLoginJson("someClientToken"));
+        when(transport.execute(any(VaultRequest.class))).thenAnswer(invocation -> {
+            VaultRequest request = (VaultRequest) invocation.getArguments()[0];
+            if (request.getUrl().startsWith("http://firstNode")) {
+                throw new ExecutionException(new ConnectException("connection refused"));
+            }
+            return response;
+        });
+        VaultTokenReader testee = new VaultTokenReader(transport, VaultMetrics.NOOP, RetryPolicy.NO_RETRIES, null);
+
+        // when
+        VaultToken token = testee.login(Arrays.asList("http://firstNode", "http://secondNode"), "someAppId", "someUserId");
+
+        // then
+        assertThat(token.getToken(), is("someClientToken"));
+    }
+
+    private static Matcher<VaultToken> hasToken(final String token) {
+        return new ArgumentMatcher<VaultToken>() {
+            @Override
+            public boolean matches(final Object argument) {
+                return argument instanceof VaultToken && token.equals(((VaultToken) argument).getToken());
+            }
+        };
+    }
+
+    private void mockLoginProperties() {
+        when(configProperties.getTokenSource()).thenReturn("login");
+        when(configProperties.getBaseUrls()).thenReturn(Collections.singletonList("http://someBaseUrl"));
+        when(configProperties.getAppId()).thenReturn("someAppId");
+        when(configProperties.getUserId()).thenReturn("someUserId");
+    }
+
+    private void mockLogin(String clientToken) throws Exception {
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+        when(response.getResponseBody()).thenReturn(createValidLoginJson(clientToken));
+        when(response.getStatusCode()).thenReturn(200);
+        when(asyncHttpClient.preparePost("http://someBaseUrl/v1/auth/app-id/login")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setBody("{\"app_id\":\"someAppId\", \"user_id\": \"someUserId\"}")).thenReturn(
+                boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+    }
+
+    private void mockLookupSelf(String token, int statusCode, long ttl) throws Exception {
+        Response response = mock(Response.class);
+        BoundRequestBuilder boundRequestBuilder = mock(BoundRequestBuilder.class);
+        ListenableFuture listenableFuture = mock(ListenableFuture.class);
+        when(response.getResponseBody()).thenReturn("{\"data\": {\"id\": \"" + token + "\", \"ttl\": " + ttl + ", \"renewable\": true}}");
+        when(response.getStatusCode()).thenReturn(statusCode);
+        when(asyncHttpClient.prepareGet("http://someBaseUrl/v1/auth/token/lookup-self")).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.setHeader("X-Vault-Token", token)).thenReturn(boundRequestBuilder);
+        when(boundRequestBuilder.execute()).thenReturn(listenableFuture);
+        when(listenableFuture.get()).thenReturn(response);
+    }
+
     private void createTokenFile(String fileName, String content) throws IOException {
         Files.writeFile(content, new File(fileName));
     }
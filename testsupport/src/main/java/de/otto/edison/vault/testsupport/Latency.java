@@ -0,0 +1,35 @@
+package de.otto.edison.vault.testsupport;
+
+import java.util.Random;
+
+/**
+ * A distribution of response times of the {@link LocalVaultServer}.
+ */
+@FunctionalInterface
+public interface Latency {
+
+    Latency NONE = random -> 0;
+
+    /**
+     * @return the next response time in milliseconds
+     */
+    long nextMillis(Random random);
+
+    static Latency fixed(final long millis) {
+        return random -> millis;
+    }
+
+    static Latency uniform(final long minMillis, final long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * A log-normal distribution with the given median and 99th percentile, which resembles the long tail of real
+     * network latencies.
+     */
+    static Latency logNormal(final long medianMillis, final long p99Millis) {
+        final double mu = Math.log(medianMillis);
+        final double sigma = Math.log((double) p99Millis / medianMillis) / 2.326;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
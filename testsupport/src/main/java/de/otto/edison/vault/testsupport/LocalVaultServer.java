@@ -0,0 +1,515 @@
+package de.otto.edison.vault.testsupport;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process stand-in for vault that serves the endpoints used by edison-vault: app-id login, token lookup and
+ * renewal, KV v1 and v2 reads, KV v2 metadata and lists. Latency, failures and rate limits can be configured per
+ * {@link Route}, so tests can exercise timeouts, retries and hedging without a real vault.
+ * <p>
+ * Secrets can be changed while the server is running; every change of a secret adds a new KV v2 version.
+ */
+public class LocalVaultServer implements AutoCloseable {
+
+    private static final String TOKEN_HEADER = "X-Vault-Token";
+    private static final long DEFAULT_LEASE_DURATION = 2764800;
+
+    private final Map<String, List<Map<String, String>>> secrets = new ConcurrentHashMap<>();
+    private final Set<String> kv2Mounts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final Map<String, String> tokensByLogin = new ConcurrentHashMap<>();
+    private final Map<Route, Behaviour> behaviours = new ConcurrentHashMap<>();
+    private final Map<Route, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private volatile Random random = new Random();
+    private volatile long leaseDuration = DEFAULT_LEASE_DURATION;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService responseScheduler;
+
+    private LocalVaultServer() {
+        for (final Route route : Route.values()) {
+            behaviours.put(route, new Behaviour());
+            requestCounts.put(route, new AtomicLong());
+        }
+    }
+
+    public static LocalVaultServer localVaultServer() {
+        return new LocalVaultServer();
+    }
+
+    /**
+     * Stores the secret at the path, e.g. {@code secret/app/db}, as its next version.
+     */
+    public LocalVaultServer withSecret(final String path, final Map<String, String> fields) {
+        secrets.computeIfAbsent(normalize(path), ignored -> Collections.synchronizedList(new ArrayList<>()))
+                .add(Collections.unmodifiableMap(new HashMap<>(fields)));
+        return this;
+    }
+
+    public LocalVaultServer withoutSecret(final String path) {
+        secrets.remove(normalize(path));
+        return this;
+    }
+
+    /**
+     * Serves the secrets below the mount with the KV v2 api, i.e. below {@code <mount>/data/} and
+     * {@code <mount>/metadata/}.
+     */
+    public LocalVaultServer withKv2Mount(final String mount) {
+        kv2Mounts.add(normalize(mount));
+        return this;
+    }
+
+    /**
+     * Accepts the token. As long as no token is configured, every token is accepted.
+     *
+     * @param ttl the ttl in seconds returned by lookup-self and renew-self
+     */
+    public LocalVaultServer withToken(final String token, final long ttl, final boolean renewable) {
+        tokens.put(token, new Token(ttl, renewable));
+        return this;
+    }
+
+    /**
+     * Returns the token for app-id logins with the given app id and user id.
+     */
+    public LocalVaultServer withAppIdLogin(final String appId, final String userId, final String token) {
+        tokensByLogin.put(appId + ":" + userId, token);
+        return this;
+    }
+
+    /**
+     * @param leaseDuration the lease duration in seconds returned with KV v1 secrets
+     */
+    public LocalVaultServer withLeaseDuration(final long leaseDuration) {
+        this.leaseDuration = leaseDuration;
+        return this;
+    }
+
+    public LocalVaultServer withLatency(final Route route, final Latency latency) {
+        behaviours.get(route).latency = latency;
+        return this;
+    }
+
+    /**
+     * Answers the given share of the requests of the route with the status, e.g. 503 for a sealed vault.
+     */
+    public LocalVaultServer withErrorRate(final Route route, final double errorRate, final int status) {
+        final Behaviour behaviour = behaviours.get(route);
+        behaviour.errorRate = errorRate;
+        behaviour.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Answers requests of the route with 429 once more than {@code requestsPerSecond} arrive within a second.
+     */
+    public LocalVaultServer withRateLimit(final Route route, final int requestsPerSecond) {
+        behaviours.get(route).rateLimit = new RateLimit(requestsPerSecond);
+        return this;
+    }
+
+    /**
+     * Makes latencies and injected failures reproducible.
+     */
+    public LocalVaultServer withSeed(final long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    /**
+     * Starts the server on a free port of the loopback interface.
+     */
+    public LocalVaultServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/", this::handle);
+        executor = Executors.newFixedThreadPool(4);
+        responseScheduler = Executors.newScheduledThreadPool(4);
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return the number of requests of the route, including rejected and failed ones
+     */
+    public long getRequestCount(final Route route) {
+        return requestCounts.get(route).get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            responseScheduler.shutdownNow();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String path = normalize(exchange.getRequestURI().getPath().substring("/v1/".length()));
+        final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        final Route route = route(exchange.getRequestMethod(), path, query);
+        final Answer answer;
+        long delay = 0;
+        if (route == null) {
+            answer = error(404);
+        } else {
+            requestCounts.get(route).incrementAndGet();
+            final Behaviour behaviour = behaviours.get(route);
+            if (behaviour.rateLimit != null && !behaviour.rateLimit.tryAcquire()) {
+                answer = error(429, "rate limit quota exceeded");
+            } else if (behaviour.errorRate > 0 && random.nextDouble() < behaviour.errorRate) {
+                answer = error(behaviour.errorStatus, "injected failure");
+            } else {
+                answer = answerOrError(route, exchange, path, query);
+            }
+            delay = behaviour.latency.nextMillis(random);
+        }
+        try {
+            responseScheduler.schedule(() -> send(exchange, answer), Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            exchange.close();
+        }
+    }
+
+    private Answer answerOrError(final Route route, final HttpExchange exchange, final String path,
+                                 final Map<String, String> query) {
+        try {
+            return answer(route, exchange, path, query);
+        } catch (IOException | RuntimeException e) {
+            return error(500, e.toString());
+        }
+    }
+
+    private Route route(final String method, final String path, final Map<String, String> query) {
+        switch (path) {
+            case "auth/app-id/login":
+                return "POST".equals(method) ? Route.LOGIN : null;
+            case "auth/token/lookup-self":
+                return Route.LOOKUP_SELF;
+            case "auth/token/renew-self":
+                return "POST".equals(method) || "PUT".equals(method) ? Route.RENEW_SELF : null;
+            default:
+                if ("LIST".equals(method) || "true".equals(query.get("list"))) {
+                    return Route.LIST;
+                }
+                return isKv2(path) && "metadata".equals(segment(path, 1)) ? Route.METADATA : Route.READ;
+        }
+    }
+
+    private Answer answer(final Route route, final HttpExchange exchange, final String path, final Map<String, String> query)
+            throws IOException {
+        if (route == Route.LOGIN) {
+            return login(exchange);
+        }
+        final String token = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (token == null || !tokens.isEmpty() && !tokens.containsKey(token)) {
+            return error(403, "permission denied");
+        }
+        switch (route) {
+            case LOOKUP_SELF:
+                return lookupSelf(token);
+            case RENEW_SELF:
+                return renewSelf(token);
+            case LIST:
+                return list(isKv2(path) ? withoutKv2Segment(path) : path);
+            case METADATA:
+                return metadata(withoutKv2Segment(path));
+            default:
+                return isKv2(path) ? readVersioned(withoutKv2Segment(path), query.get("version")) : read(path);
+        }
+    }
+
+    private Answer login(final HttpExchange exchange) throws IOException {
+        final JsonElement body = new JsonParser().parse(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        final String appId = stringOrNull(body, "app_id");
+        final String userId = stringOrNull(body, "user_id");
+        final String token = tokensByLogin.get(appId + ":" + userId);
+        if (token == null) {
+            return error(400, "invalid user ID or app ID");
+        }
+        final Token details = tokens.getOrDefault(token, Token.UNKNOWN);
+        final JsonObject auth = new JsonObject();
+        auth.addProperty("client_token", token);
+        auth.addProperty("lease_duration", details.ttl);
+        auth.addProperty("renewable", details.renewable);
+        final JsonObject response = new JsonObject();
+        response.add("auth", auth);
+        return new Answer(200, response);
+    }
+
+    private Answer lookupSelf(final String token) {
+        final Token details = tokens.getOrDefault(token, Token.UNKNOWN);
+        final JsonObject data = new JsonObject();
+        data.addProperty("ttl", details.ttl);
+        data.addProperty("renewable", details.renewable);
+        final JsonObject response = new JsonObject();
+        response.add("data", data);
+        return new Answer(200, response);
+    }
+
+    private Answer renewSelf(final String token) {
+        final Token details = tokens.getOrDefault(token, Token.UNKNOWN);
+        if (!details.renewable) {
+            return error(400, "lease is not renewable");
+        }
+        final JsonObject auth = new JsonObject();
+        auth.addProperty("client_token", token);
+        auth.addProperty("lease_duration", details.ttl);
+        auth.addProperty("renewable", true);
+        final JsonObject response = new JsonObject();
+        response.add("auth", auth);
+        return new Answer(200, response);
+    }
+
+    private Answer read(final String path) {
+        final List<Map<String, String>> versions = secrets.get(path);
+        if (versions == null) {
+            return error(404);
+        }
+        final JsonObject response = new JsonObject();
+        response.addProperty("lease_id", "");
+        response.addProperty("renewable", false);
+        response.addProperty("lease_duration", leaseDuration);
+        response.add("data", fields(versions.get(versions.size() - 1)));
+        return new Answer(200, response);
+    }
+
+    private Answer readVersioned(final String path, final String requestedVersion) {
+        final List<Map<String, String>> versions = secrets.get(path);
+        if (versions == null) {
+            return error(404);
+        }
+        final int version;
+        synchronized (versions) {
+            version = requestedVersion != null ? Integer.parseInt(requestedVersion) : versions.size();
+            if (version < 1 || version > versions.size()) {
+                return error(404);
+            }
+        }
+        final JsonObject metadata = new JsonObject();
+        metadata.addProperty("deletion_time", "");
+        metadata.addProperty("destroyed", false);
+        metadata.addProperty("version", version);
+        final JsonObject data = new JsonObject();
+        data.add("data", fields(versions.get(version - 1)));
+        data.add("metadata", metadata);
+        final JsonObject response = new JsonObject();
+        response.addProperty("lease_id", "");
+        response.addProperty("renewable", false);
+        response.addProperty("lease_duration", 0);
+        response.add("data", data);
+        return new Answer(200, response);
+    }
+
+    private Answer metadata(final String path) {
+        final List<Map<String, String>> versions = secrets.get(path);
+        if (versions == null) {
+            return error(404);
+        }
+        final JsonObject versionDetails = new JsonObject();
+        final int currentVersion = versions.size();
+        for (int version = 1; version <= currentVersion; version++) {
+            final JsonObject details = new JsonObject();
+            details.addProperty("deletion_time", "");
+            details.addProperty("destroyed", false);
+            versionDetails.add(Integer.toString(version), details);
+        }
+        final JsonObject data = new JsonObject();
+        data.addProperty("current_version", currentVersion);
+        data.addProperty("oldest_version", 1);
+        data.add("versions", versionDetails);
+        final JsonObject response = new JsonObject();
+        response.add("data", data);
+        return new Answer(200, response);
+    }
+
+    private Answer list(final String path) {
+        final String prefix = path.isEmpty() ? "" : path + "/";
+        final Set<String> keys = new TreeSet<>();
+        for (final String secretPath : secrets.keySet()) {
+            if (secretPath.startsWith(prefix)) {
+                final String rest = secretPath.substring(prefix.length());
+                final int slash = rest.indexOf('/');
+                keys.add(slash < 0 ? rest : rest.substring(0, slash + 1));
+            }
+        }
+        if (keys.isEmpty()) {
+            return error(404);
+        }
+        final JsonArray keyArray = new JsonArray();
+        keys.forEach(keyArray::add);
+        final JsonObject data = new JsonObject();
+        data.add("keys", keyArray);
+        final JsonObject response = new JsonObject();
+        response.add("data", data);
+        return new Answer(200, response);
+    }
+
+    private boolean isKv2(final String path) {
+        return kv2Mounts.contains(segment(path, 0));
+    }
+
+    /**
+     * Turns {@code <mount>/data/<path>} or {@code <mount>/metadata/<path>} into {@code <mount>/<path>}.
+     */
+    private static String withoutKv2Segment(final String path) {
+        final String[] segments = path.split("/", 3);
+        return segments.length < 3 ? segments[0] : segments[0] + "/" + segments[2];
+    }
+
+    private static String segment(final String path, final int index) {
+        final String[] segments = path.split("/");
+        return index < segments.length ? segments[index] : null;
+    }
+
+    private static String normalize(final String path) {
+        String normalized = path;
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) throws IOException {
+        final Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (final String parameter : rawQuery.split("&")) {
+                final int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static String stringOrNull(final JsonElement body, final String name) {
+        if (body == null || !body.isJsonObject() || !body.getAsJsonObject().has(name)) {
+            return null;
+        }
+        return body.getAsJsonObject().get(name).getAsString();
+    }
+
+    private static JsonObject fields(final Map<String, String> fields) {
+        final JsonObject data = new JsonObject();
+        fields.forEach(data::addProperty);
+        return data;
+    }
+
+    private static Answer error(final int status, final String... errors) {
+        final JsonArray errorArray = new JsonArray();
+        for (final String error : errors) {
+            errorArray.add(error);
+        }
+        final JsonObject response = new JsonObject();
+        response.add("errors", errorArray);
+        return new Answer(status, response);
+    }
+
+    private static void send(final HttpExchange exchange, final Answer answer) {
+        try {
+            final byte[] body = answer.body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(answer.status, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        } catch (IOException e) {
+            // the client has gone away, e.g. after a timeout
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static class Answer {
+        private final int status;
+        private final JsonObject body;
+
+        Answer(final int status, final JsonObject body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static class Token {
+        private static final Token UNKNOWN = new Token(0, false);
+
+        private final long ttl;
+        private final boolean renewable;
+
+        Token(final long ttl, final boolean renewable) {
+            this.ttl = ttl;
+            this.renewable = renewable;
+        }
+    }
+
+    private static class Behaviour {
+        private volatile Latency latency = Latency.NONE;
+        private volatile double errorRate;
+        private volatile int errorStatus = 500;
+        private volatile RateLimit rateLimit;
+    }
+
+    /**
+     * A token bucket that holds at most one second worth of requests.
+     */
+    private static class RateLimit {
+        private final int requestsPerSecond;
+        private double available;
+        private long refilledAt = System.nanoTime();
+
+        RateLimit(final int requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.available = requestsPerSecond;
+        }
+
+        synchronized boolean tryAcquire() {
+            final long now = System.nanoTime();
+            available = Math.min(requestsPerSecond, available + (now - refilledAt) * requestsPerSecond / 1e9);
+            refilledAt = now;
+            if (available < 1) {
+                return false;
+            }
+            available--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.otto.edison.vault.testsupport;
+
+/**
+ * The endpoints of the {@link LocalVaultServer}, used to configure latency and faults per endpoint.
+ */
+public enum Route {
+    /**
+     * {@code POST auth/app-id/login}
+     */
+    LOGIN,
+    /**
+     * {@code GET <path>} of KV v1 and {@code GET <mount>/data/<path>} of KV v2
+     */
+    READ,
+    /**
+     * {@code GET <path>?list=true} or {@code LIST <path>}
+     */
+    LIST,
+    /**
+     * {@code GET <mount>/metadata/<path>} of KV v2
+     */
+    METADATA,
+    /**
+     * {@code GET auth/token/lookup-self}
+     */
+    LOOKUP_SELF,
+    /**
+     * {@code POST auth/token/renew-self}
+     */
+    RENEW_SELF
+}
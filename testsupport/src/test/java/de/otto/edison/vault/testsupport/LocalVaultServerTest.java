@@ -0,0 +1,208 @@
+package de.otto.edison.vault.testsupport;
+
+import static de.otto.edison.vault.testsupport.LocalVaultServer.localVaultServer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Scanner;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LocalVaultServerTest {
+
+    private LocalVaultServer server;
+
+    @BeforeMethod
+    public void setUp() {
+        server = localVaultServer();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void shouldServeKv1Secrets() throws Exception {
+        // given
+        server.withToken("someToken", 3600, true)
+                .withSecret("secret/app/db", Collections.singletonMap("password", "secret"))
+                .withLeaseDuration(60)
+                .start();
+
+        // when
+        final String body = body(get("/v1/secret/app/db", "someToken").getInputStream());
+
+        // then
+        assertThat(body, is("{\"lease_id\":\"\",\"renewable\":false,\"lease_duration\":60,\"data\":{\"password\":\"secret\"}}"));
+        assertThat(server.getRequestCount(Route.READ), is(1L));
+    }
+
+    @Test
+    public void shouldServeKv2SecretsWithVersions() throws Exception {
+        // given
+        server.withKv2Mount("secret")
+                .withSecret("secret/app/db", Collections.singletonMap("password", "first"))
+                .withSecret("secret/app/db", Collections.singletonMap("password", "second"))
+                .start();
+
+        // when
+        final String current = body(get("/v1/secret/data/app/db", "someToken").getInputStream());
+        final String first = body(get("/v1/secret/data/app/db?version=1", "someToken").getInputStream());
+        final String metadata = body(get("/v1/secret/metadata/app/db", "someToken").getInputStream());
+
+        // then
+        assertThat(current, containsString("\"data\":{\"password\":\"second\"}"));
+        assertThat(current, containsString("\"version\":2"));
+        assertThat(first, containsString("\"data\":{\"password\":\"first\"}"));
+        assertThat(metadata, containsString("\"current_version\":2"));
+        assertThat(server.getRequestCount(Route.METADATA), is(1L));
+    }
+
+    @Test
+    public void shouldLoginLookupAndRenewTokens() throws Exception {
+        // given
+        server.withAppIdLogin("someAppId", "someUserId", "someToken")
+                .withToken("someToken", 60, true)
+                .start();
+
+        // when
+        final HttpURLConnection login = post("/v1/auth/app-id/login", null,
+                "{\"app_id\":\"someAppId\",\"user_id\":\"someUserId\"}");
+        final HttpURLConnection lookup = get("/v1/auth/token/lookup-self", "someToken");
+        final HttpURLConnection renewal = post("/v1/auth/token/renew-self", "someToken", "");
+
+        // then
+        assertThat(body(login.getInputStream()),
+                is("{\"auth\":{\"client_token\":\"someToken\",\"lease_duration\":60,\"renewable\":true}}"));
+        assertThat(body(lookup.getInputStream()), is("{\"data\":{\"ttl\":60,\"renewable\":true}}"));
+        assertThat(body(renewal.getInputStream()), containsString("\"lease_duration\":60"));
+    }
+
+    @Test
+    public void shouldRejectUnknownLogins() throws Exception {
+        // given
+        server.withAppIdLogin("someAppId", "someUserId", "someToken").start();
+
+        // when
+        final HttpURLConnection login = post("/v1/auth/app-id/login", null,
+                "{\"app_id\":\"someAppId\",\"user_id\":\"otherUserId\"}");
+
+        // then
+        assertThat(login.getResponseCode(), is(400));
+    }
+
+    @Test
+    public void shouldRejectUnknownTokens() throws Exception {
+        // given
+        server.withToken("someToken", 60, false)
+                .withSecret("secret/db", Collections.singletonMap("password", "secret"))
+                .start();
+
+        // when
+        final HttpURLConnection connection = get("/v1/secret/db", "otherToken");
+
+        // then
+        assertThat(connection.getResponseCode(), is(403));
+        assertThat(body(connection.getErrorStream()), containsString("permission denied"));
+    }
+
+    @Test
+    public void shouldInjectErrors() throws Exception {
+        // given
+        server.withSecret("secret/db", Collections.singletonMap("password", "secret"))
+                .withErrorRate(Route.READ, 1.0, 503)
+                .start();
+
+        // when
+        final HttpURLConnection connection = get("/v1/secret/db", "someToken");
+
+        // then
+        assertThat(connection.getResponseCode(), is(503));
+    }
+
+    @Test
+    public void shouldThrottleRequests() throws Exception {
+        // given
+        server.withSecret("secret/db", Collections.singletonMap("password", "secret"))
+                .withRateLimit(Route.READ, 2)
+                .start();
+
+        // when
+        get("/v1/secret/db", "someToken").getResponseCode();
+        get("/v1/secret/db", "someToken").getResponseCode();
+        final HttpURLConnection connection = get("/v1/secret/db", "someToken");
+
+        // then
+        assertThat(connection.getResponseCode(), is(429));
+        assertThat(server.getRequestCount(Route.READ), is(3L));
+    }
+
+    @Test
+    public void shouldDelayResponses() throws Exception {
+        // given
+        server.withSecret("secret/db", Collections.singletonMap("password", "secret"))
+                .withLatency(Route.READ, Latency.fixed(200))
+                .start();
+
+        // when
+        final long start = System.nanoTime();
+        final HttpURLConnection connection = get("/v1/secret/db", "someToken");
+        final String body = body(connection.getInputStream());
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(body, containsString("\"password\":\"secret\""));
+        assertThat(elapsedMillis, greaterThanOrEqualTo(200L));
+    }
+
+    @Test
+    public void shouldListDirectories() throws Exception {
+        // given
+        server.withSecret("secret/app/db", Collections.singletonMap("password", "secret"))
+                .withSecret("secret/app/mq/user", Collections.singletonMap("password", "secret"))
+                .start();
+
+        // when
+        final String body = body(get("/v1/secret/app?list=true", "someToken").getInputStream());
+
+        // then
+        assertThat(body, containsString("\"keys\":[\"db\",\"mq/\"]"));
+    }
+
+    private HttpURLConnection get(final String path, final String token) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseUrl() + path).openConnection();
+        connection.setRequestProperty("X-Vault-Token", token);
+        return connection;
+    }
+
+    private HttpURLConnection post(final String path, final String token, final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseUrl() + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (token != null) {
+            connection.setRequestProperty("X-Vault-Token", token);
+        }
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static String body(final InputStream inputStream) {
+        try (Scanner scanner = new Scanner(inputStream, "UTF-8").useDelimiter("\\A")) {
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    }
+}